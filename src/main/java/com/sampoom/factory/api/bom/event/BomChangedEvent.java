@@ -0,0 +1,25 @@
+package com.sampoom.factory.api.bom.event;
+
+import java.util.Set;
+
+/**
+ * 프로젝션에 실제로 반영된 BOM 변경 신호 (애플리케이션 내부 이벤트).
+ * 아직 구독자는 없다. 부품별 BOM 캐시처럼 BOM 변경에 반응해야 하는 기능을 붙이는 확장 지점이며,
+ * 그런 기능은 partId 기준으로 무효화하면 된다. 트랜잭션 커밋 후에 반응하려면 @TransactionalEventListener를 쓴다.
+ *
+ * @param linesChanged 자재 라인이 하나라도 추가/수정/삭제되었는지 (헤더만 바뀐 경우 false)
+ */
+public record BomChangedEvent(
+        Long bomId,
+        Long partId,
+        ChangeType changeType,
+        boolean linesChanged,
+        Set<Long> addedMaterialIds,
+        Set<Long> updatedMaterialIds,
+        Set<Long> removedMaterialIds
+) {
+    public enum ChangeType {
+        UPSERTED,
+        DELETED
+    }
+}
@@ -2,17 +2,25 @@ package com.sampoom.factory.api.bom.service;
 
 import com.sampoom.factory.api.bom.dto.BomEventDto;
 import com.sampoom.factory.api.bom.entity.BomMaterialProjection;
-import com.sampoom.factory.api.bom.entity.BomProjection;
+import com.sampoom.factory.api.bom.event.BomChangedEvent;
 import com.sampoom.factory.api.bom.repository.BomMaterialProjectionRepository;
-import com.sampoom.factory.api.bom.repository.BomProjectionRepository;
+import com.sampoom.factory.common.projection.ProjectionApplyResult;
+import com.sampoom.factory.common.projection.ProjectionRow;
+import com.sampoom.factory.common.projection.ProjectionUpsertEngine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,139 +28,144 @@ import java.util.stream.Collectors;
 @Slf4j
 public class BomProjectionService {
 
-    private final BomProjectionRepository bomProjectionRepository;
+    private static final String TABLE = "bom_projection";
+    private static final String KEY = "bom_id";
+
+    private final ProjectionUpsertEngine projectionUpsertEngine;
     private final BomMaterialProjectionRepository bomMaterialProjectionRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
-    public void handleBomEvent(BomEventDto eventDto) {
-        final Long bomId = eventDto.getPayload().getBomId();
-        final Long incomingVer = nvl(eventDto.getVersion(), 0L);
-
-        BomProjection bp = bomProjectionRepository.findByBomId(bomId).orElse(null);
+    public ProjectionApplyResult handleBomEvent(BomEventDto eventDto) {
+        return handleBomEvents(List.of(eventDto));
+    }
 
-        // 멱등성 차단
-        if (bp != null && eventDto.getEventId() != null && bp.getLastEventId() != null) {
-            if (bp.getLastEventId().equals(eventDto.getEventId())) return;
-        }
-        // 역순 차단
-        if (bp != null && incomingVer <= nvl(bp.getVersion(), 0L)) return;
-
-        switch (eventDto.getEventType()) {
-            case "BomCreated":
-                handleBomCreated(eventDto);
-                break;
-            case "BomUpdated":
-                handleBomUpdated(eventDto);
-                break;
-            case "BomDeleted":
-                handleBomDeleted(eventDto);
-                break;
-            default:
-                log.warn("알 수 없는 이벤트 타입: {}", eventDto.getEventType());
+    /**
+     * 여러 BOM 이벤트를 versioned UPSERT로 반영한다. (Created/Updated는 upsert, partId는 최초 생성 시에만 기록)
+     * 실제로 반영된 BOM만 자재 라인을 materialId 기준으로 비교해 바뀐 라인만 추가/수정/삭제하고,
+     * 반영된 BOM마다 {@link BomChangedEvent}를 발행한다.
+     */
+    @Transactional
+    public ProjectionApplyResult handleBomEvents(List<BomEventDto> events) {
+        List<ProjectionRow> upserts = new ArrayList<>();
+        List<ProjectionRow> deletes = new ArrayList<>();
+        Map<Long, BomEventDto.Payload> payloads = new LinkedHashMap<>();
+
+        for (BomEventDto eventDto : ProjectionUpsertEngine.latestPerKey(events,
+                e -> e.getPayload().getBomId(), BomEventDto::getVersion)) {
+            switch (eventDto.getEventType()) {
+                case "BomCreated", "BomUpdated" -> upserts.add(toRow(eventDto));
+                case "BomDeleted" -> deletes.add(metaRow(eventDto));
+                default -> {
+                    log.warn("알 수 없는 이벤트 타입: {}", eventDto.getEventType());
+                    continue;
+                }
+            }
+            payloads.put(eventDto.getPayload().getBomId(), eventDto.getPayload());
         }
-    }
 
-    private void handleBomCreated(BomEventDto eventDto) {
-        BomEventDto.Payload payload = eventDto.getPayload();
+        ProjectionApplyResult upserted = projectionUpsertEngine.upsert(TABLE, KEY, upserts);
+        ProjectionApplyResult deleted = projectionUpsertEngine.markDeleted(TABLE, KEY, deletes);
 
-        List<BomMaterialProjection> materials = payload.getMaterials().stream()
-                .map(m -> BomMaterialProjection.builder()
-                        .bomId(payload.getBomId())
-                        .materialId(m.getMaterialId())
-                        .materialName(m.getMaterialName())
-                        .materialCode(m.getMaterialCode())
-                        .unit(m.getUnit())
-                        .quantity(m.getQuantity())
-                        .build())
-                .collect(Collectors.toList());
-
-        BomProjection bomProjection = BomProjection.builder()
-                .bomId(payload.getBomId())
-                .partId(payload.getPartId())
-                .partCode(payload.getPartCode())
-                .partName(payload.getPartName())
-                .status(payload.getStatus())
-                .complexity(payload.getComplexity())
-                .totalCost(payload.getTotalCost())        // 새로 추가된 필드
-                .deleted(payload.getDeleted())
-                .lastEventId(eventDto.getEventId())
-                .version(eventDto.getVersion())
-                .sourceUpdatedAt(eventDto.getOccurredAt())
-                .updatedAt(OffsetDateTime.now())
-                .build();
+        // 역순/중복으로 건너뛴 BOM의 자재 라인은 건드리지 않는다
+        Map<Long, BomChangedEvent> changes = syncMaterialLines(upserted.applied(), payloads);
+        deleted.applied().forEach(bomId -> changes.put(bomId, new BomChangedEvent(bomId, payloads.get(bomId).getPartId(),
+                BomChangedEvent.ChangeType.DELETED, false, Set.of(), Set.of(), Set.of())));
+        changes.values().forEach(eventPublisher::publishEvent);
 
-        bomProjectionRepository.save(bomProjection);
-        if (!materials.isEmpty()) {
-            bomMaterialProjectionRepository.saveAll(materials);
-        }
-        log.info("BOM 생성 완료: bomId={}, partName={}", payload.getBomId(), payload.getPartName());
+        ProjectionApplyResult result = upserted.merge(deleted);
+        log.info("BOM 이벤트 반영 완료: 수신={}, 반영={}, 자재 라인 변경 BOM={}", events.size(), result.applied().size(),
+                changes.values().stream().filter(BomChangedEvent::linesChanged).count());
+        return result;
     }
 
-    private void handleBomUpdated(BomEventDto eventDto) {
-        BomEventDto.Payload payload = eventDto.getPayload();
-
-        Optional<BomProjection> existingBom = bomProjectionRepository.findByBomId(payload.getBomId());
-        if (existingBom.isEmpty()) {
-            log.warn("존재하지 않는 BOM입니다. bomId: {}", payload.getBomId());
-            return;
+    /**
+     * 기존 라인과 이벤트 라인을 materialId로 비교해 바뀐 것만 반영한다. (INSERT/UPDATE는 saveAll, DELETE는 한 번의 배치 삭제)
+     */
+    private Map<Long, BomChangedEvent> syncMaterialLines(Set<Long> bomIds, Map<Long, BomEventDto.Payload> payloads) {
+        Map<Long, BomChangedEvent> changes = new LinkedHashMap<>();
+        if (bomIds.isEmpty()) return changes;
+
+        Map<Long, Map<Long, BomMaterialProjection>> existingByBom = bomMaterialProjectionRepository.findByBomIdIn(bomIds).stream()
+                .collect(Collectors.groupingBy(BomMaterialProjection::getBomId,
+                        Collectors.toMap(BomMaterialProjection::getMaterialId, Function.identity(), (a, b) -> a)));
+        List<BomMaterialProjection> toSave = new ArrayList<>();
+        List<Long> toDelete = new ArrayList<>();
+
+        for (Long bomId : bomIds) {
+            BomEventDto.Payload payload = payloads.get(bomId);
+            Map<Long, BomMaterialProjection> existing = existingByBom.getOrDefault(bomId, Map.of());
+            Set<Long> added = new HashSet<>();
+            Set<Long> updated = new HashSet<>();
+
+            Map<Long, BomEventDto.BomMaterialPayload> incoming = new LinkedHashMap<>();
+            if (payload.getMaterials() != null) {
+                payload.getMaterials().forEach(m -> incoming.put(m.getMaterialId(), m));
+            }
+            for (BomEventDto.BomMaterialPayload m : incoming.values()) {
+                BomMaterialProjection line = existing.get(m.getMaterialId());
+                if (line == null) {
+                    toSave.add(toMaterial(bomId, m));
+                    added.add(m.getMaterialId());
+                } else if (!sameLine(line, m)) {
+                    toSave.add(line.updateFromEvent(m.getMaterialName(), m.getMaterialCode(), m.getUnit(), m.getQuantity()));
+                    updated.add(m.getMaterialId());
+                }
+            }
+            Set<Long> removed = new HashSet<>();
+            existing.forEach((materialId, line) -> {
+                if (!incoming.containsKey(materialId)) {
+                    toDelete.add(line.getId());
+                    removed.add(materialId);
+                }
+            });
+
+            boolean linesChanged = !added.isEmpty() || !updated.isEmpty() || !removed.isEmpty();
+            changes.put(bomId, new BomChangedEvent(bomId, payload.getPartId(), BomChangedEvent.ChangeType.UPSERTED,
+                    linesChanged, added, updated, removed));
         }
 
-        BomProjection currentBom = existingBom.get();
-
-        bomMaterialProjectionRepository.deleteByBomId(payload.getBomId());
-
-        List<BomMaterialProjection> materials = payload.getMaterials().stream()
-                .map(m -> BomMaterialProjection.builder()
-                        .bomId(payload.getBomId())
-                        .materialId(m.getMaterialId())
-                        .materialName(m.getMaterialName())
-                        .materialCode(m.getMaterialCode())
-                        .unit(m.getUnit())
-                        .quantity(m.getQuantity())
-                        .build())
-                .collect(Collectors.toList());
-
-        BomProjection updatedBom = currentBom.updateFromEvent(
-                payload.getPartCode(),
-                payload.getPartName(),
-                payload.getStatus(),
-                payload.getComplexity(),
-                payload.getTotalCost(),              // 새로 추가된 필드
-                payload.getDeleted(),
-                eventDto.getEventId(),
-                eventDto.getVersion(),
-                eventDto.getOccurredAt()
-        );
-
-        bomProjectionRepository.save(updatedBom);
-        if (!materials.isEmpty()) {
-            bomMaterialProjectionRepository.saveAll(materials);
+        if (!toDelete.isEmpty()) {
+            bomMaterialProjectionRepository.deleteAllByIdInBatch(toDelete);
+        }
+        if (!toSave.isEmpty()) {
+            bomMaterialProjectionRepository.saveAll(toSave);
         }
-        log.info("BOM 업데이트 완료: bomId={}, partName={}", payload.getBomId(), payload.getPartName());
+        return changes;
     }
 
-    private void handleBomDeleted(BomEventDto eventDto) {
-        BomEventDto.Payload payload = eventDto.getPayload();
+    private boolean sameLine(BomMaterialProjection line, BomEventDto.BomMaterialPayload m) {
+        return Objects.equals(line.getMaterialName(), m.getMaterialName())
+                && Objects.equals(line.getMaterialCode(), m.getMaterialCode())
+                && Objects.equals(line.getUnit(), m.getUnit())
+                && Objects.equals(line.getQuantity(), m.getQuantity());
+    }
 
-        Optional<BomProjection> existingBom = bomProjectionRepository.findByBomId(payload.getBomId());
-        if (existingBom.isEmpty()) {
-            log.warn("존재하지 않는 BOM입니다. bomId: {}", payload.getBomId());
-            return;
-        }
+    private ProjectionRow toRow(BomEventDto eventDto) {
+        BomEventDto.Payload payload = eventDto.getPayload();
+        return metaRow(eventDto)
+                .set("part_code", payload.getPartCode())
+                .set("part_name", payload.getPartName())
+                .set("status", payload.getStatus())
+                .set("complexity", payload.getComplexity())
+                .set("total_cost", payload.getTotalCost())
+                .set("deleted", Boolean.TRUE.equals(payload.getDeleted()))
+                .setOnInsert("part_id", payload.getPartId());
+    }
 
-        BomProjection currentBom = existingBom.get();
+    private ProjectionRow metaRow(BomEventDto eventDto) {
+        return ProjectionRow.of(eventDto.getPayload().getBomId(), eventDto.getEventId(),
+                eventDto.getVersion(), eventDto.getOccurredAt());
+    }
 
-        BomProjection deletedBom = currentBom.toBuilder()
-                .deleted(true)
-                .lastEventId(eventDto.getEventId())
-                .version(eventDto.getVersion())
-                .sourceUpdatedAt(eventDto.getOccurredAt())
-                .updatedAt(OffsetDateTime.now())
+    private BomMaterialProjection toMaterial(Long bomId, BomEventDto.BomMaterialPayload m) {
+        return BomMaterialProjection.builder()
+                .bomId(bomId)
+                .materialId(m.getMaterialId())
+                .materialName(m.getMaterialName())
+                .materialCode(m.getMaterialCode())
+                .unit(m.getUnit())
+                .quantity(m.getQuantity())
                 .build();
-
-        bomProjectionRepository.save(deletedBom);
-        log.info("BOM 삭제 완료: bomId={}", payload.getBomId());
     }
-
-    private long nvl(Long v, long def) { return v == null ? def : v; }
-}
\ No newline at end of file
+}
@@ -0,0 +1,45 @@
+package com.sampoom.factory.api.deadletter.controller;
+
+import com.sampoom.factory.api.deadletter.dto.DeadLetterResponseDto;
+import com.sampoom.factory.api.deadletter.service.DeadLetterService;
+import com.sampoom.factory.common.response.ApiResponse;
+import com.sampoom.factory.common.response.PageResponseDto;
+import com.sampoom.factory.common.response.SuccessStatus;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Tag(name = "DeadLetter", description = "처리 실패 이벤트(DLT) 조회/재처리 API")
+@RestController
+@RequestMapping("/dead-letters")
+@RequiredArgsConstructor
+public class DeadLetterController {
+
+    private final DeadLetterService deadLetterService;
+
+    @Operation(summary = "DLT 목록 조회", description = "재처리 대기 중인 실패 이벤트를 조회합니다.")
+    @GetMapping
+    public ResponseEntity<ApiResponse<PageResponseDto<DeadLetterResponseDto>>> getDeadLetters(
+            @Parameter(description = "원본 토픽") @RequestParam(required = false) String topic,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return ApiResponse.success(SuccessStatus.OK, deadLetterService.getDeadLetters(topic, page, size));
+    }
+
+    @Operation(summary = "DLT 단건 재처리", description = "실패 이벤트를 원본 토픽으로 다시 발행합니다.")
+    @PostMapping("/{deadLetterId}/replay")
+    public ResponseEntity<ApiResponse<DeadLetterResponseDto>> replay(
+            @Parameter(description = "DLT ID") @PathVariable Long deadLetterId) {
+        return ApiResponse.success(SuccessStatus.OK, deadLetterService.replay(deadLetterId));
+    }
+
+    @Operation(summary = "DLT 토픽별 일괄 재처리", description = "해당 토픽의 재처리 대기 이벤트를 모두 원본 토픽으로 다시 발행합니다.")
+    @PostMapping("/replay")
+    public ResponseEntity<ApiResponse<Integer>> replayAll(
+            @Parameter(description = "원본 토픽", required = true) @RequestParam String topic) {
+        return ApiResponse.success(SuccessStatus.OK, deadLetterService.replayAll(topic));
+    }
+}
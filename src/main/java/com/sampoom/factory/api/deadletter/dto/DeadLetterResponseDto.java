@@ -0,0 +1,48 @@
+package com.sampoom.factory.api.deadletter.dto;
+
+import com.sampoom.factory.api.deadletter.entity.DeadLetterEvent;
+import com.sampoom.factory.api.deadletter.entity.DeadLetterStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterResponseDto {
+    private Long deadLetterId;
+    private String originalTopic;
+    private Integer originalPartition;
+    private Long originalOffset;
+    private String messageKey;
+    private String payload;
+    private Integer attempts;
+    private String exceptionClass;
+    private String exceptionMessage;
+    private LocalDateTime firstFailedAt;
+    private LocalDateTime deadAt;
+    private DeadLetterStatus status;
+    private LocalDateTime replayedAt;
+
+    public static DeadLetterResponseDto from(DeadLetterEvent event) {
+        return DeadLetterResponseDto.builder()
+                .deadLetterId(event.getId())
+                .originalTopic(event.getOriginalTopic())
+                .originalPartition(event.getOriginalPartition())
+                .originalOffset(event.getOriginalOffset())
+                .messageKey(event.getMessageKey())
+                .payload(event.getPayload())
+                .attempts(event.getAttempts())
+                .exceptionClass(event.getExceptionClass())
+                .exceptionMessage(event.getExceptionMessage())
+                .firstFailedAt(event.getFirstFailedAt())
+                .deadAt(event.getDeadAt())
+                .status(event.getStatus())
+                .replayedAt(event.getReplayedAt())
+                .build();
+    }
+}
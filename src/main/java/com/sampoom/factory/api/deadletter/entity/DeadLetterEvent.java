@@ -0,0 +1,64 @@
+package com.sampoom.factory.api.deadletter.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 재시도 티어를 모두 소진한 Kafka 레코드. DLT 토픽에도 같은 내용이 발행되며, 재처리 API는 이 테이블을 기준으로 동작한다.
+ */
+@Entity
+@Table(
+        name = "dead_letter_event",
+        indexes = {
+                @Index(name = "idx_dead_letter_status_topic", columnList = "status, original_topic")
+        }
+)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+public class DeadLetterEvent {
+
+    @Id
+    @Column(name = "dead_letter_event_id")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "original_topic", nullable = false)
+    private String originalTopic;
+
+    private Integer originalPartition;
+
+    private Long originalOffset;
+
+    private String messageKey;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;  // 원본 메시지 그대로
+
+    @Column(nullable = false)
+    private Integer attempts;  // 최초 처리 포함 총 시도 횟수
+
+    private String exceptionClass;
+
+    @Column(columnDefinition = "text")
+    private String exceptionMessage;
+
+    private LocalDateTime firstFailedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime deadAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private DeadLetterStatus status;
+
+    private LocalDateTime replayedAt;
+
+    public void markReplayed() {
+        this.status = DeadLetterStatus.REPLAYED;
+        this.replayedAt = LocalDateTime.now();
+    }
+}
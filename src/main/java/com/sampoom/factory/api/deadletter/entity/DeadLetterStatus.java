@@ -0,0 +1,6 @@
+package com.sampoom.factory.api.deadletter.entity;
+
+public enum DeadLetterStatus {
+    PENDING,   // 재처리 대기
+    REPLAYED   // 원본 토픽으로 재발행 완료
+}
@@ -0,0 +1,18 @@
+package com.sampoom.factory.api.deadletter.repository;
+
+import com.sampoom.factory.api.deadletter.entity.DeadLetterEvent;
+import com.sampoom.factory.api.deadletter.entity.DeadLetterStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface DeadLetterEventRepository extends JpaRepository<DeadLetterEvent, Long> {
+
+    Page<DeadLetterEvent> findByStatusOrderByIdDesc(DeadLetterStatus status, Pageable pageable);
+
+    Page<DeadLetterEvent> findByStatusAndOriginalTopicOrderByIdDesc(DeadLetterStatus status, String originalTopic, Pageable pageable);
+
+    List<DeadLetterEvent> findByStatusAndOriginalTopicOrderByIdAsc(DeadLetterStatus status, String originalTopic);
+}
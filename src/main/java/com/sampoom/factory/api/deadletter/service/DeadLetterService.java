@@ -0,0 +1,83 @@
+package com.sampoom.factory.api.deadletter.service;
+
+import com.sampoom.factory.api.deadletter.dto.DeadLetterResponseDto;
+import com.sampoom.factory.api.deadletter.entity.DeadLetterEvent;
+import com.sampoom.factory.api.deadletter.entity.DeadLetterStatus;
+import com.sampoom.factory.api.deadletter.repository.DeadLetterEventRepository;
+import com.sampoom.factory.common.exception.BadRequestException;
+import com.sampoom.factory.common.exception.NotFoundException;
+import com.sampoom.factory.common.response.ErrorStatus;
+import com.sampoom.factory.common.response.PageResponseDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeadLetterService {
+
+    private static final long SEND_TIMEOUT_SECONDS = 5;
+
+    private final DeadLetterEventRepository deadLetterEventRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Transactional
+    public DeadLetterEvent record(DeadLetterEvent event) {
+        return deadLetterEventRepository.save(event);
+    }
+
+    @Transactional(readOnly = true)
+    public PageResponseDto<DeadLetterResponseDto> getDeadLetters(String topic, int page, int size) {
+        PageRequest pageable = PageRequest.of(page, size);
+        Page<DeadLetterEvent> result = topic == null || topic.isBlank()
+                ? deadLetterEventRepository.findByStatusOrderByIdDesc(DeadLetterStatus.PENDING, pageable)
+                : deadLetterEventRepository.findByStatusAndOriginalTopicOrderByIdDesc(DeadLetterStatus.PENDING, topic, pageable);
+
+        return PageResponseDto.<DeadLetterResponseDto>builder()
+                .content(result.getContent().stream().map(DeadLetterResponseDto::from).toList())
+                .totalElements(result.getTotalElements())
+                .totalPages(result.getTotalPages())
+                .build();
+    }
+
+    // 원본 토픽으로 다시 발행한다. 재처리는 일반 트래픽과 같은 경로(재시도 티어 포함)를 처음부터 다시 탄다.
+    @Transactional
+    public DeadLetterResponseDto replay(Long deadLetterId) {
+        DeadLetterEvent event = deadLetterEventRepository.findById(deadLetterId)
+                .orElseThrow(() -> new NotFoundException(ErrorStatus.DEAD_LETTER_NOT_FOUND));
+        if (event.getStatus() != DeadLetterStatus.PENDING) {
+            throw new BadRequestException(ErrorStatus.DEAD_LETTER_ALREADY_REPLAYED);
+        }
+        republish(event);
+        return DeadLetterResponseDto.from(event);
+    }
+
+    @Transactional
+    public int replayAll(String topic) {
+        List<DeadLetterEvent> events =
+                deadLetterEventRepository.findByStatusAndOriginalTopicOrderByIdAsc(DeadLetterStatus.PENDING, topic);
+        events.forEach(this::republish);
+        log.info("DLT 일괄 재처리 - topic: {}, 건수: {}", topic, events.size());
+        return events.size();
+    }
+
+    private void republish(DeadLetterEvent event) {
+        try {
+            kafkaTemplate.send(event.getOriginalTopic(), event.getMessageKey(), event.getPayload())
+                    .get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.error("DLT 재처리 발행 실패 - ID: {}, topic: {}", event.getId(), event.getOriginalTopic(), e);
+            throw new IllegalStateException("Dead letter replay failed", e);
+        }
+        event.markReplayed();
+        log.info("DLT 재처리 발행 - ID: {}, topic: {}", event.getId(), event.getOriginalTopic());
+    }
+}
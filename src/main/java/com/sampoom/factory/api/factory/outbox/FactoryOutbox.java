@@ -22,6 +22,9 @@ import java.util.UUID;
 @Builder
 public class FactoryOutbox {
 
+    // aggregate 네임스페이스. 순서 보장/잠금은 (aggregateType, aggregateId) 단위이며, 기본 네임스페이스는 기존처럼 aggregateId만으로 키를 만든다
+    public static final String AGGREGATE_DEFAULT = "DEFAULT";
+
     @Id
     @Column(name = "factory_outbox_id")
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -30,6 +33,10 @@ public class FactoryOutbox {
     @Column(nullable = false)
     private String eventType;  // 이벤트 종류 (예: FactoryCreated)
 
+    @Builder.Default
+    @Column(name = "aggregate_type", nullable = false, columnDefinition = "varchar(30) default 'DEFAULT' not null")
+    private String aggregateType = AGGREGATE_DEFAULT;  // aggregate 네임스페이스 (예: FACTORY_STOCK)
+
     @Column(nullable = false)
     private Long aggregateId;  // 관련 엔티티 ID (예: factory_id)
 
@@ -83,8 +90,20 @@ public class FactoryOutbox {
     }
 
 
-    public static FactoryOutbox ready(Long aggregateId, String eventType, UUID eventId, JsonNode payloadJson) {
+    // 아직 발행되지 않은 이벤트를 더 최신 스냅샷으로 교체 (큐 내 위치인 occurredAt은 유지)
+    public void coalesce(UUID eventId, JsonNode payloadJson) {
+        this.eventId = eventId;
+        this.payload = payloadJson;
+    }
+
+    // 순서 보장/잠금 단위 키. FactoryOutboxRepository의 aggregate 키 식과 같아야 한다
+    public String aggregateKey() {
+        return AGGREGATE_DEFAULT.equals(aggregateType) ? String.valueOf(aggregateId) : aggregateType + ":" + aggregateId;
+    }
+
+    public static FactoryOutbox ready(String aggregateType, Long aggregateId, String eventType, UUID eventId, JsonNode payloadJson) {
         return FactoryOutbox.builder()
+                .aggregateType(aggregateType)
                 .aggregateId(aggregateId)
                 .eventType(eventType)
                 .eventId(eventId)
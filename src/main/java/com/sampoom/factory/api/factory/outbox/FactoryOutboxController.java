@@ -0,0 +1,31 @@
+package com.sampoom.factory.api.factory.outbox;
+
+import com.sampoom.factory.common.response.ApiResponse;
+import com.sampoom.factory.common.response.SuccessStatus;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Tag(name = "Outbox", description = "Outbox 발행 관리 API")
+@RestController
+@RequestMapping("/outbox")
+@RequiredArgsConstructor
+public class FactoryOutboxController {
+
+    private final FactoryOutboxDispatcher dispatcher;
+
+    @Operation(summary = "발행 워커 수 조회", description = "현재 Outbox 발행 워커(샤드) 수를 조회합니다.")
+    @GetMapping("/publisher/workers")
+    public ResponseEntity<ApiResponse<Integer>> getWorkerCount() {
+        return ApiResponse.success(SuccessStatus.OK, dispatcher.getWorkerCount());
+    }
+
+    @Operation(summary = "발행 워커 수 변경", description = "Outbox 발행 워커(샤드) 수를 런타임에 변경합니다. (1 ~ 32)")
+    @PutMapping("/publisher/workers")
+    public ResponseEntity<ApiResponse<Integer>> updateWorkerCount(@RequestParam int workers) {
+        dispatcher.updateWorkerCount(workers);
+        return ApiResponse.success(SuccessStatus.OK, dispatcher.getWorkerCount());
+    }
+}
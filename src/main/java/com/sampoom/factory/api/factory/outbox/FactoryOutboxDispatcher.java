@@ -0,0 +1,102 @@
+package com.sampoom.factory.api.factory.outbox;
+
+import com.sampoom.factory.common.exception.BadRequestException;
+import com.sampoom.factory.common.response.ErrorStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outbox 발행 워커 디스패처.
+ * 매 주기 워커 수(N)만큼 샤드를 나눠 {@link FactoryOutboxPublisher#publishShard}를 병렬 실행한다.
+ * 워커 수는 런타임에 변경 가능하며, aggregate 단위 advisory lock 덕분에 샤드 수가 바뀌거나 노드마다 달라도 aggregate 내 순서는 유지된다.
+ */
+@Slf4j
+@Component
+public class FactoryOutboxDispatcher {
+
+    public static final int MAX_WORKERS = 32;
+
+    private final FactoryOutboxPublisher publisher;
+    private final AtomicInteger workerCount;
+    private final ThreadPoolExecutor executor;
+
+    public FactoryOutboxDispatcher(FactoryOutboxPublisher publisher,
+                                   @Value("${factory.outbox.publisher.workers:4}") int workers) {
+        validate(workers);
+        this.publisher = publisher;
+        this.workerCount = new AtomicInteger(workers);
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "outbox-publisher-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @Scheduled(fixedDelay = 500)
+    public void dispatch() {
+        int shardCount = workerCount.get();
+        List<Future<Integer>> results = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            final int s = shard;
+            results.add(executor.submit(() -> publisher.publishShard(s, shardCount)));
+        }
+
+        int published = 0;
+        for (int shard = 0; shard < shardCount; shard++) {
+            try {
+                published += results.get(shard).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("Outbox shard publish failed shard={}/{} cause={}", shard, shardCount, e.toString());
+            }
+        }
+        if (published > 0) {
+            log.debug("Outbox dispatch 완료 - 워커: {}, 발행: {}건", shardCount, published);
+        }
+    }
+
+    public int getWorkerCount() {
+        return workerCount.get();
+    }
+
+    // 워커 수 변경: 다음 주기부터 새 샤드 수로 분배
+    public synchronized int updateWorkerCount(int workers) {
+        validate(workers);
+        int previous = workerCount.getAndSet(workers);
+        if (workers > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(workers);
+            executor.setCorePoolSize(workers);
+        } else {
+            executor.setCorePoolSize(workers);
+            executor.setMaximumPoolSize(workers);
+        }
+        log.info("Outbox 발행 워커 수 변경 - {} -> {}", previous, workers);
+        return previous;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static void validate(int workers) {
+        if (workers < 1 || workers > MAX_WORKERS) {
+            throw new BadRequestException(ErrorStatus.INVALID_INPUT_VALUE);
+        }
+    }
+}
@@ -2,111 +2,135 @@ package com.sampoom.factory.api.factory.outbox;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sampoom.factory.api.factory.event.FactoryEvent;
+import com.sampoom.factory.api.material.event.MaterialStockChangedEvent;
+import com.sampoom.factory.api.part.event.PartOrderDeltaEvent;
 import com.sampoom.factory.api.part.event.PartOrderEvent;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Set;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class FactoryOutboxPublisher {
     private final FactoryOutboxRepository repo;
-    private final KafkaTemplate<String,Object> kafkaTemplate;
+    private final OutboxEventSender eventSender;
     private final ObjectMapper objectMapper;
 
     private static final String TOPIC_FACTORY = "factory-events";
     private static final String TOPIC_PART_ORDER = "part-order-events";
+    private static final String TOPIC_MATERIAL_STOCK = "material-stock-events";
     private static final int BATCH = 100;
     private static final int MAX_RETRY = 10;
     private static final long BASE_BACKOFF_MS = 500;     // 0.5s
     private static final long MAX_BACKOFF_MS  = 60_000;  // 60s
-
-    @Scheduled(fixedDelay = 500)
+    private static final int AGGREGATE_LOCK_NAMESPACE = 26_001; // pg advisory lock 네임스페이스 (factory_outbox aggregate)
+
+    /**
+     * 샤드 하나(aggregate 키 해시 범위)의 미발행 이벤트를 발행한다. {@link FactoryOutboxDispatcher}가 워커별로 호출한다.
+     * aggregate 단위 advisory lock을 잡은 뒤 발생 순서대로 보내고, 중간에 실패하면 같은 aggregate의 뒤 이벤트는 다음 주기로 미룬다.
+     *
+     * @return 발행 성공 건수
+     */
     @Transactional
-    public void publishBatch(){
-        List<FactoryOutbox> batch = repo.pickReadyBatch(BATCH, MAX_RETRY);
-        if (batch.isEmpty()) return;
+    public int publishShard(int shard, int shardCount){
+        List<String> aggregateKeys = repo.lockReadyAggregates(shard, shardCount, BATCH, MAX_RETRY, AGGREGATE_LOCK_NAMESPACE);
+        if (aggregateKeys.isEmpty()) return 0;
+
+        Set<Long> aggregateIds = new HashSet<>();
+        for (String key : aggregateKeys) {
+            aggregateIds.add(Long.valueOf(key.substring(key.lastIndexOf(':') + 1)));
+        }
+        List<FactoryOutbox> batch = repo.findPendingByAggregateKeys(aggregateIds, aggregateKeys, MAX_RETRY, BATCH);
 
+        int published = 0;
+        String blockedAggregateKey = null;
         for (FactoryOutbox o : batch){
-            try {
-                Object evt;
-                String topic;
-
-                // MPS 이벤트 발행 상세 로깅 추가
-                if (o.getEventType().startsWith("Mps")) {
-                    log.info("MPS 이벤트 발행 시작 - OUTBOX ID: {}, EventType: {}, AggregateId: {}",
-                        o.getId(), o.getEventType(), o.getAggregateId());
-                }
-
-                // eventType에 따라 적절한 이벤트 타입과 토픽 결정
-                // PartOrder 관련 이벤트 (일반 PartOrder + MPS)
-                if (o.getEventType().startsWith("PartOrder") || o.getEventType().startsWith("Mps")) {
-                    PartOrderEvent partOrderEvent = objectMapper.treeToValue(o.getPayload(), PartOrderEvent.class);
-                    String eventJson = objectMapper.writeValueAsString(partOrderEvent);
-                    topic = TOPIC_PART_ORDER;
-                    evt = eventJson;
-
-                    // MPS 이벤트인 경우 추가 로깅
-                    if (o.getEventType().startsWith("Mps")) {
-                        log.info("MPS 이벤트 JSON 변환 완료 - EventType: {}, Topic: {}, EventJson 길이: {}",
-                            o.getEventType(), topic, eventJson.length());
-                    }
-                } else {
-                    FactoryEvent factoryEvent = objectMapper.treeToValue(o.getPayload(), FactoryEvent.class);
-                    String eventJson = objectMapper.writeValueAsString(factoryEvent);
-                    topic = TOPIC_FACTORY;
-                    evt = eventJson;
-                }
-
-                // MPS 이벤트 Kafka 전송 로깅
-                if (o.getEventType().startsWith("Mps")) {
-                    log.info("MPS 이벤트 Kafka 전송 시작 - EventType: {}, Topic: {}, Key: {}",
-                        o.getEventType(), topic, String.valueOf(o.getAggregateId()));
-                }
-
-                kafkaTemplate.send(topic, String.valueOf(o.getAggregateId()), evt)
-                                                     .get(5, TimeUnit.SECONDS);
-
-                o.markPublished();
-
-                // MPS 이벤트 발행 완료 로깅
-                if (o.getEventType().startsWith("Mps")) {
-                    log.info("MPS 이벤트 Kafka 전송 완료 - OUTBOX ID: {}, EventType: {}, 상태: published",
-                        o.getId(), o.getEventType());
-                }
-
-            } catch (Exception e){
-                // MPS 이벤트 발행 실패 로깅
-                if (o.getEventType().startsWith("Mps")) {
-                    log.error("MPS 이벤트 Kafka 전송 실패 - OUTBOX ID: {}, EventType: {}, 오류: {}",
-                        o.getId(), o.getEventType(), e.getMessage(), e);
-                }
-
-                int nextRetry = o.getRetryCount() + 1;
-
-
-                if (nextRetry >= MAX_RETRY) {
-                    o.markDead(shorten(e.getMessage(), 2000));
-                    log.error("Outbox DEAD id={} retry={} cause={}", o.getId(), o.getRetryCount(), e.toString());
-                    continue;
-                }
-
-                long backoffMs = computeBackoffMs(nextRetry);
-                LocalDateTime next = LocalDateTime.now().plusNanos(backoffMs * 1_000_000);
-                o.markFailed(shorten(e.getMessage(), 2000), next);
-                log.warn("Outbox publish failed id={} retry={} cause={}", o.getId(), o.getRetryCount(), e.toString());
+            // 같은 aggregate의 앞선 이벤트가 실패했으면 순서 보장을 위해 이번 주기에는 보내지 않음
+            if (o.aggregateKey().equals(blockedAggregateKey)) continue;
+            if (publish(o)) {
+                published++;
+            } else {
+                blockedAggregateKey = o.aggregateKey();
+            }
+        }
+        return published;
+    }
+
+    private boolean publish(FactoryOutbox o){
+        try {
+            Object evt;
+            String topic;
+
+            // MPS 이벤트 발행 상세 로깅 추가
+            if (o.getEventType().startsWith("Mps")) {
+                log.info("MPS 이벤트 발행 시작 - OUTBOX ID: {}, EventType: {}, AggregateId: {}",
+                    o.getId(), o.getEventType(), o.getAggregateId());
+            }
+
+            // eventType에 따라 적절한 이벤트 타입과 토픽 결정
+            // PartOrder 관련 이벤트 (일반 PartOrder + MPS)
+            if (o.getEventType().startsWith("PartOrder") || o.getEventType().startsWith("Mps")) {
+                // 상태 변경 delta 이벤트는 경량 타입으로, 나머지는 전체 스냅샷으로 변환
+                evt = PartOrderDeltaEvent.ENCODING.equals(o.getPayload().path("encoding").asText(null))
+                        ? objectMapper.treeToValue(o.getPayload(), PartOrderDeltaEvent.class)
+                        : objectMapper.treeToValue(o.getPayload(), PartOrderEvent.class);
+                topic = TOPIC_PART_ORDER;
+            } else if (MaterialStockChangedEvent.EVENT_TYPE.equals(o.getEventType())) {
+                evt = objectMapper.treeToValue(o.getPayload(), MaterialStockChangedEvent.class);
+                topic = TOPIC_MATERIAL_STOCK;
+            } else {
+                evt = objectMapper.treeToValue(o.getPayload(), FactoryEvent.class);
+                topic = TOPIC_FACTORY;
+            }
+
+            // MPS 이벤트 Kafka 전송 로깅
+            if (o.getEventType().startsWith("Mps")) {
+                log.info("MPS 이벤트 Kafka 전송 시작 - EventType: {}, Topic: {}, Key: {}",
+                    o.getEventType(), topic, String.valueOf(o.getAggregateId()));
             }
+
+            // 코덱(JSON/바이너리) 인코딩 + contentType 헤더를 붙여 전송
+            eventSender.send(topic, String.valueOf(o.getAggregateId()), o.getEventType(), evt);
+
+            o.markPublished();
+
+            // MPS 이벤트 발행 완료 로깅
+            if (o.getEventType().startsWith("Mps")) {
+                log.info("MPS 이벤트 Kafka 전송 완료 - OUTBOX ID: {}, EventType: {}, 상태: published",
+                    o.getId(), o.getEventType());
+            }
+
+        } catch (Exception e){
+            // MPS 이벤트 발행 실패 로깅
+            if (o.getEventType().startsWith("Mps")) {
+                log.error("MPS 이벤트 Kafka 전송 실패 - OUTBOX ID: {}, EventType: {}, 오류: {}",
+                    o.getId(), o.getEventType(), e.getMessage(), e);
+            }
+
+            int nextRetry = o.getRetryCount() + 1;
+
+
+            if (nextRetry >= MAX_RETRY) {
+                o.markDead(shorten(e.getMessage(), 2000));
+                log.error("Outbox DEAD id={} retry={} cause={}", o.getId(), o.getRetryCount(), e.toString());
+                return false;
+            }
+
+            long backoffMs = computeBackoffMs(nextRetry);
+            LocalDateTime next = LocalDateTime.now().plusNanos(backoffMs * 1_000_000);
+            o.markFailed(shorten(e.getMessage(), 2000), next);
+            log.warn("Outbox publish failed id={} retry={} cause={}", o.getId(), o.getRetryCount(), e.toString());
+            return false;
         }
+        return true;
     }
 
     private String shorten(String s, int max){ return (s==null||s.length()<=max) ? s : s.substring(0,max); }
@@ -1,27 +1,90 @@
 package com.sampoom.factory.api.factory.outbox;
 
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface FactoryOutboxRepository extends JpaRepository<FactoryOutbox, Long> {
 
+    /**
+     * 워커 샤드(aggregate 키 해시 범위)에 속한 발행 가능 aggregate를 골라 트랜잭션 advisory lock을 잡는다.
+     * aggregate 키는 (aggregate_type, aggregate_id)이며 기본 네임스페이스는 aggregate_id 문자열 그대로라 기존 샤드/잠금 키와 같다.
+     * 가장 오래된 미발행 이벤트가 백오프 중인 aggregate는 건너뛰어 aggregate 내 순서를 보장하고,
+     * 다른 워커/노드가 이미 잡고 있는 aggregate는 lock 획득 실패로 제외된다.
+     *
+     * @return 잠근 aggregate 키 ({@link FactoryOutbox#aggregateKey()}와 같은 형식)
+     */
+    @Query(value = """
+        SELECT h.aggregate_key
+        FROM (
+            SELECT CASE WHEN o.aggregate_type = 'DEFAULT' THEN CAST(o.aggregate_id AS text) ELSE o.aggregate_type || ':' || CAST(o.aggregate_id AS text) END AS aggregate_key, MIN(o.occurred_at) AS head_at
+            FROM factory_outbox o
+            WHERE o.status IN ('READY','FAILED')
+              AND o.retry_count < :maxRetry
+              AND MOD(ABS(hashtext(CASE WHEN o.aggregate_type = 'DEFAULT' THEN CAST(o.aggregate_id AS text) ELSE o.aggregate_type || ':' || CAST(o.aggregate_id AS text) END)), :shardCount) = :shard
+            GROUP BY o.aggregate_type, o.aggregate_id
+            HAVING bool_and(o.next_retry_at IS NULL OR o.next_retry_at <= now())
+            ORDER BY head_at ASC
+            LIMIT :limit
+        ) h
+        WHERE pg_try_advisory_xact_lock(:lockNamespace, hashtext(h.aggregate_key))
+        """, nativeQuery = true)
+    List<String> lockReadyAggregates(@Param("shard") int shard,
+                                     @Param("shardCount") int shardCount,
+                                     @Param("limit") int limit,
+                                     @Param("maxRetry") int maxRetry,
+                                     @Param("lockNamespace") int lockNamespace);
+
+    // lock을 잡은 aggregate들의 미발행 이벤트를 aggregate별 발생 순서대로 조회 (aggregate_id로 좁힌 뒤 키로 거른다)
     @Query(value = """
         SELECT *
         FROM factory_outbox
-        WHERE status IN ('READY','FAILED')
+        WHERE aggregate_id IN (:aggregateIds)
+          AND (CASE WHEN aggregate_type = 'DEFAULT' THEN CAST(aggregate_id AS text) ELSE aggregate_type || ':' || CAST(aggregate_id AS text) END) IN (:aggregateKeys)
+          AND status IN ('READY','FAILED')
           AND retry_count < :maxRetry
-          AND (next_retry_at IS NULL OR next_retry_at <= now())
-        ORDER BY occurred_at ASC
+        ORDER BY aggregate_type ASC, aggregate_id ASC, occurred_at ASC, factory_outbox_id ASC
         LIMIT :limit
+        FOR UPDATE
+        """, nativeQuery = true)
+    List<FactoryOutbox> findPendingByAggregateKeys(@Param("aggregateIds") Collection<Long> aggregateIds,
+                                                   @Param("aggregateKeys") Collection<String> aggregateKeys,
+                                                   @Param("maxRetry") int maxRetry,
+                                                   @Param("limit") int limit);
+
+    /**
+     * 병합(coalescing) 대상 행 조회: 같은 aggregate·eventType의 아직 한 번도 시도되지 않은 READY 행 중
+     * 해당 aggregate의 마지막 미발행 이벤트인 것만 고른다. 발행 중(잠금)인 행은 건너뛴다.
+     */
+    @Query(value = """
+        SELECT *
+        FROM factory_outbox o
+        WHERE o.aggregate_type = :aggregateType
+          AND o.aggregate_id = :aggregateId
+          AND o.event_type = :eventType
+          AND o.status = 'READY'
+          AND o.retry_count = 0
+          AND NOT EXISTS (
+              SELECT 1
+              FROM factory_outbox l
+              WHERE l.aggregate_id = o.aggregate_id
+                AND l.aggregate_type = o.aggregate_type
+                AND l.status IN ('READY','FAILED')
+                AND (l.occurred_at > o.occurred_at
+                     OR (l.occurred_at = o.occurred_at AND l.factory_outbox_id > o.factory_outbox_id))
+          )
+        ORDER BY o.occurred_at DESC
+        LIMIT 1
         FOR UPDATE SKIP LOCKED
         """, nativeQuery = true)
-    List<FactoryOutbox> pickReadyBatch(@Param("limit") int limit,
-                                       @Param("maxRetry") int maxRetry);
+    Optional<FactoryOutbox> findCoalescibleTail(@Param("aggregateType") String aggregateType,
+                                                @Param("aggregateId") Long aggregateId,
+                                                @Param("eventType") String eventType);
 }
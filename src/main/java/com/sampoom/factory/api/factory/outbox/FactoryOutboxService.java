@@ -0,0 +1,155 @@
+package com.sampoom.factory.api.factory.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Outbox 적재 서비스.
+ * coalescing 모드가 켜져 있으면 병합 대상 eventType에 대해, 같은 aggregate의 미발행 이벤트가 큐 끝에 남아 있을 때
+ * 새 행을 추가하지 않고 최신 스냅샷으로 교체한다. 교체는 version이 줄어들지 않는 경우에만 수행하며,
+ * 대기 중인 전체 스냅샷을 delta(encoding=DELTA) 이벤트로 덮어쓰지는 않는다.
+ */
+@Slf4j
+@Service
+public class FactoryOutboxService {
+
+    private static final int INSERT_CHUNK = 500;
+
+    private final FactoryOutboxRepository outboxRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean coalescingEnabled;
+    private final Set<String> coalescibleEventTypes;
+
+    public FactoryOutboxService(FactoryOutboxRepository outboxRepository,
+                                JdbcTemplate jdbcTemplate,
+                                ObjectMapper objectMapper,
+                                @Value("${factory.outbox.coalescing.enabled:false}") boolean coalescingEnabled,
+                                @Value("${factory.outbox.coalescing.event-types:PartOrderStatusChanged,MpsStatusChanged}") Set<String> coalescibleEventTypes) {
+        this.outboxRepository = outboxRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.coalescingEnabled = coalescingEnabled;
+        this.coalescibleEventTypes = coalescibleEventTypes;
+    }
+
+    /**
+     * @param aggregateType aggregate 네임스페이스. 순서 보장과 발행 잠금은 (aggregateType, aggregateId) 단위다
+     */
+    public record OutboxEntry(String aggregateType, Long aggregateId, String eventType, UUID eventId, JsonNode payload) {
+
+        public OutboxEntry(Long aggregateId, String eventType, UUID eventId, JsonNode payload) {
+            this(FactoryOutbox.AGGREGATE_DEFAULT, aggregateId, eventType, eventId, payload);
+        }
+    }
+
+    @Transactional
+    public void enqueue(Long aggregateId, String eventType, UUID eventId, JsonNode payload) {
+        enqueue(FactoryOutbox.AGGREGATE_DEFAULT, aggregateId, eventType, eventId, payload);
+    }
+
+    @Transactional
+    public void enqueue(String aggregateType, Long aggregateId, String eventType, UUID eventId, JsonNode payload) {
+        if (isCoalescible(eventType)) {
+            Optional<FactoryOutbox> tail = outboxRepository.findCoalescibleTail(aggregateType, aggregateId, eventType);
+            if (tail.isPresent() && canReplace(tail.get().getPayload(), payload)) {
+                FactoryOutbox pending = tail.get();
+                log.debug("Outbox 이벤트 병합 - OUTBOX ID: {}, 타입: {}, aggregateId: {}", pending.getId(), eventType, aggregateId);
+                pending.coalesce(eventId, payload);
+                return;
+            }
+        }
+        outboxRepository.save(FactoryOutbox.ready(aggregateType, aggregateId, eventType, eventId, payload));
+    }
+
+    /**
+     * 여러 이벤트를 한 번에 적재한다. 병합 대상은 배치 안에서 aggregate별 마지막 스냅샷만 남긴 뒤 {@link #enqueue}로 처리하고,
+     * 나머지는 multi-row INSERT 한 번(INSERT_CHUNK 단위)으로 저장한다. 입력 순서가 곧 발행 순서다.
+     */
+    @Transactional
+    public void enqueueAll(List<OutboxEntry> entries) {
+        if (entries.isEmpty()) return;
+
+        List<OutboxEntry> inserts = new ArrayList<>(entries.size());
+        Map<String, OutboxEntry> coalesced = new LinkedHashMap<>();
+        for (OutboxEntry entry : entries) {
+            if (isCoalescible(entry.eventType())) {
+                String key = entry.aggregateType() + ":" + entry.aggregateId() + ":" + entry.eventType();
+                coalesced.remove(key);
+                coalesced.put(key, entry);
+            } else {
+                inserts.add(entry);
+            }
+        }
+
+        for (OutboxEntry entry : coalesced.values()) {
+            enqueue(entry.aggregateType(), entry.aggregateId(), entry.eventType(), entry.eventId(), entry.payload());
+        }
+
+        LocalDateTime occurredAt = LocalDateTime.now();
+        for (int from = 0; from < inserts.size(); from += INSERT_CHUNK) {
+            insertRows(inserts.subList(from, Math.min(from + INSERT_CHUNK, inserts.size())), occurredAt);
+        }
+    }
+
+    public boolean isCoalescible(String eventType) {
+        return coalescingEnabled && coalescibleEventTypes.contains(eventType);
+    }
+
+    private void insertRows(List<OutboxEntry> rows, LocalDateTime occurredAt) {
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO factory_outbox (aggregate_type, aggregate_id, event_type, event_id, payload, status, occurred_at, retry_count) VALUES ");
+        List<Object> args = new ArrayList<>(rows.size() * 7);
+        for (int i = 0; i < rows.size(); i++) {
+            OutboxEntry row = rows.get(i);
+            if (i > 0) sql.append(", ");
+            sql.append("(?, ?, ?, ?, CAST(? AS jsonb), ?, ?, 0)");
+            args.add(row.aggregateType());
+            args.add(row.aggregateId());
+            args.add(row.eventType());
+            args.add(row.eventId());
+            args.add(toJson(row.payload()));
+            args.add(OutboxStatus.READY.name());
+            args.add(occurredAt);
+        }
+        jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+
+    private String toJson(JsonNode payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Serialize outbox payload failed", e);
+        }
+    }
+
+    // version이 줄어들지 않아야 하고, 스냅샷(체크포인트)을 delta로 덮어쓰지 않는다
+    private boolean canReplace(JsonNode pending, JsonNode next) {
+        if (versionOf(next) < versionOf(pending)) return false;
+        return !isDelta(next) || isDelta(pending);
+    }
+
+    private boolean isDelta(JsonNode payload) {
+        return payload != null && "DELTA".equals(payload.path("encoding").asText(null));
+    }
+
+    private long versionOf(JsonNode payload) {
+        JsonNode version = payload == null ? null : payload.get("version");
+        return version == null || version.isNull() ? 0L : version.asLong();
+    }
+}
@@ -0,0 +1,98 @@
+package com.sampoom.factory.api.factory.outbox;
+
+import com.sampoom.factory.api.factory.outbox.codec.EventCodec;
+import com.sampoom.factory.api.factory.outbox.codec.JsonEventCodec;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 설정된 {@link EventCodec}으로 이벤트를 인코딩해 Kafka로 전송한다.
+ * JSON 코덱은 기존 KafkaTemplate(String 값)을 그대로 쓰고, 바이너리 코덱은 byte[] 전용 프로듀서를 내부에 따로 만든다.
+ * 바이너리 프로듀서에는 배치 단위 압축(compression.type)을 적용한다.
+ */
+@Slf4j
+@Component
+public class OutboxEventSender {
+
+    public static final String HEADER_EVENT_TYPE = "eventType";
+
+    private static final long SEND_TIMEOUT_SECONDS = 5;
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final EventCodec codec;
+    private final EventCodec jsonCodec;
+    private final DefaultKafkaProducerFactory<String, byte[]> binaryProducerFactory;
+    private final KafkaTemplate<String, byte[]> binaryTemplate;
+
+    public OutboxEventSender(KafkaTemplate<String, Object> kafkaTemplate,
+                             KafkaProperties kafkaProperties,
+                             List<EventCodec> codecs,
+                             @Value("${factory.outbox.codec.name:json}") String codecName,
+                             @Value("${factory.outbox.codec.compression:lz4}") String compression) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.codec = codecs.stream()
+                .filter(c -> c.name().equalsIgnoreCase(codecName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown outbox codec: " + codecName));
+        this.jsonCodec = codecs.stream()
+                .filter(c -> JsonEventCodec.NAME.equals(c.name()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("JSON outbox codec is missing"));
+        this.binaryProducerFactory = JsonEventCodec.NAME.equals(codec.name())
+                ? null : binaryProducerFactory(kafkaProperties, compression);
+        this.binaryTemplate = binaryProducerFactory == null ? null : new KafkaTemplate<>(binaryProducerFactory);
+        log.info("Outbox 이벤트 코덱 - {} ({})", codec.name(), codec.contentType());
+    }
+
+    public void send(String topic, String key, String eventType, Object event) throws Exception {
+        Object value = codec.encode(event);
+        if (binaryTemplate == null) {
+            kafkaTemplate.send(withHeaders(new ProducerRecord<>(topic, key, value), eventType, codec))
+                    .get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } else {
+            binaryTemplate.send(withHeaders(new ProducerRecord<>(topic, key, (byte[]) value), eventType, codec))
+                    .get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * 설정된 코덱과 관계없이 JSON으로 보낸다. 바이너리 스키마가 없는 이벤트(다른 서비스로 보내는 요청 등)에 사용한다.
+     */
+    public void sendJson(String topic, String key, String eventType, Object event) throws Exception {
+        kafkaTemplate.send(withHeaders(new ProducerRecord<>(topic, key, jsonCodec.encode(event)), eventType, jsonCodec))
+                .get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (binaryProducerFactory != null) binaryProducerFactory.destroy();
+    }
+
+    private <V> ProducerRecord<String, V> withHeaders(ProducerRecord<String, V> record, String eventType, EventCodec codec) {
+        record.headers().add(MessageHeaders.CONTENT_TYPE, codec.contentType().getBytes(StandardCharsets.UTF_8));
+        record.headers().add(HEADER_EVENT_TYPE, eventType.getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    private static DefaultKafkaProducerFactory<String, byte[]> binaryProducerFactory(KafkaProperties kafkaProperties,
+                                                                                     String compression) {
+        Map<String, Object> props = kafkaProperties.buildProducerProperties(null);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compression);
+        return new DefaultKafkaProducerFactory<>(props, new StringSerializer(), new ByteArraySerializer());
+    }
+}
@@ -0,0 +1,282 @@
+package com.sampoom.factory.api.factory.outbox.codec;
+
+import com.sampoom.factory.api.factory.event.FactoryEvent;
+import com.sampoom.factory.api.material.event.MaterialStockChangedEvent;
+import com.sampoom.factory.api.part.event.PartOrderDeltaEvent;
+import com.sampoom.factory.api.part.event.PartOrderEvent;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 스키마 레지스트리 없이 코드에 고정된 스키마로 이벤트를 바이너리 인코딩한다.
+ *
+ * <pre>
+ * header : magic(0x53) | formatVersion(1) | schemaId
+ * common : eventId(UUID 16바이트) | eventType | version | occurredAt
+ * body   : 스키마별 필드를 선언 순서대로 기록
+ * </pre>
+ * 정수는 zigzag varint, 문자열은 (길이+1) varint + UTF-8(0 = null), nullable 숫자/불리언은 존재 여부 바이트를 앞에 둔다.
+ * 필드를 추가할 때는 schemaId를 새로 발급하고 기존 스키마는 그대로 둔다.
+ */
+@Component
+public class BinaryEventCodec implements EventCodec {
+
+    public static final String NAME = "binary";
+    public static final String CONTENT_TYPE = "application/x-sampoom-event;v=1";
+
+    static final byte MAGIC = 0x53;
+    static final byte FORMAT_VERSION = 1;
+    static final byte SCHEMA_PART_ORDER = 1;
+    static final byte SCHEMA_PART_ORDER_DELTA = 2;
+    static final byte SCHEMA_FACTORY = 3;
+    static final byte SCHEMA_MATERIAL_STOCK = 4;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public String contentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public byte[] encode(Object event) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+
+        if (event instanceof PartOrderEvent e) {
+            out.writeByte(SCHEMA_PART_ORDER);
+            writeHeader(out, e.eventId(), e.eventType(), e.version(), e.occurredAt());
+            writePartOrderPayload(out, e.payload());
+        } else if (event instanceof PartOrderDeltaEvent e) {
+            out.writeByte(SCHEMA_PART_ORDER_DELTA);
+            writeHeader(out, e.eventId(), e.eventType(), e.version(), e.occurredAt());
+            writeDeltaPayload(out, e.payload());
+        } else if (event instanceof FactoryEvent e) {
+            out.writeByte(SCHEMA_FACTORY);
+            writeHeader(out, e.eventId(), e.eventType(), e.version(), e.occurredAt());
+            writeFactoryPayload(out, e.payload());
+        } else if (event instanceof MaterialStockChangedEvent e) {
+            out.writeByte(SCHEMA_MATERIAL_STOCK);
+            writeHeader(out, e.eventId(), e.eventType(), e.version(), e.occurredAt());
+            writeMaterialStockPayload(out, e.payload());
+        } else {
+            throw new IOException("Unsupported event type: " + (event == null ? null : event.getClass().getName()));
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    public Object decode(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readByte() != MAGIC) throw new IOException("Invalid magic byte");
+        byte formatVersion = in.readByte();
+        if (formatVersion != FORMAT_VERSION) throw new IOException("Unsupported format version: " + formatVersion);
+
+        byte schemaId = in.readByte();
+        String eventId = readUuid(in);
+        String eventType = readString(in);
+        Long version = readNullableLong(in);
+        String occurredAt = readString(in);
+
+        return switch (schemaId) {
+            case SCHEMA_PART_ORDER -> new PartOrderEvent(eventId, eventType, version, occurredAt, readPartOrderPayload(in));
+            case SCHEMA_PART_ORDER_DELTA -> new PartOrderDeltaEvent(eventId, eventType, version, occurredAt,
+                    PartOrderDeltaEvent.ENCODING, readDeltaPayload(in));
+            case SCHEMA_FACTORY -> new FactoryEvent(eventId, eventType, version, occurredAt, readFactoryPayload(in));
+            case SCHEMA_MATERIAL_STOCK -> new MaterialStockChangedEvent(eventId, eventType, version, occurredAt,
+                    readMaterialStockPayload(in));
+            default -> throw new IOException("Unknown schema id: " + schemaId);
+        };
+    }
+
+    // ===== 스키마 =====
+    private void writeHeader(DataOutputStream out, String eventId, String eventType, Long version, String occurredAt) throws IOException {
+        writeUuid(out, eventId);
+        writeString(out, eventType);
+        writeNullableLong(out, version);
+        writeString(out, occurredAt);
+    }
+
+    private void writePartOrderPayload(DataOutputStream out, PartOrderEvent.Payload p) throws IOException {
+        writeNullableLong(out, p.partOrderId());
+        writeString(out, p.orderCode());
+        writeNullableLong(out, p.factoryId());
+        writeString(out, p.factoryName());
+        writeNullableLong(out, p.warehouseId());
+        writeString(out, p.warehouseName());
+        writeString(out, p.status());
+        writeString(out, p.requiredDate());
+        writeString(out, p.scheduledDate());
+        writeNullableDouble(out, p.progressRate());
+        writeString(out, p.priority());
+        writeString(out, p.materialAvailability());
+        List<PartOrderEvent.PartOrderItemPayload> items = p.items();
+        writeVarLong(out, items == null ? 0 : items.size() + 1L);
+        if (items != null) {
+            for (PartOrderEvent.PartOrderItemPayload item : items) {
+                writeNullableLong(out, item.partId());
+                writeString(out, item.partName());
+                writeString(out, item.partCode());
+                writeNullableLong(out, item.quantity());
+            }
+        }
+        writeNullableBoolean(out, p.deleted());
+    }
+
+    private PartOrderEvent.Payload readPartOrderPayload(DataInputStream in) throws IOException {
+        Long partOrderId = readNullableLong(in);
+        String orderCode = readString(in);
+        Long factoryId = readNullableLong(in);
+        String factoryName = readString(in);
+        Long warehouseId = readNullableLong(in);
+        String warehouseName = readString(in);
+        String status = readString(in);
+        String requiredDate = readString(in);
+        String scheduledDate = readString(in);
+        Double progressRate = readNullableDouble(in);
+        String priority = readString(in);
+        String materialAvailability = readString(in);
+        long itemCount = readVarLong(in);
+        List<PartOrderEvent.PartOrderItemPayload> items = null;
+        if (itemCount > 0) {
+            items = new ArrayList<>((int) (itemCount - 1));
+            for (long i = 1; i < itemCount; i++) {
+                items.add(new PartOrderEvent.PartOrderItemPayload(
+                        readNullableLong(in), readString(in), readString(in), readNullableLong(in)));
+            }
+        }
+        Boolean deleted = readNullableBoolean(in);
+        return new PartOrderEvent.Payload(partOrderId, orderCode, factoryId, factoryName, warehouseId, warehouseName,
+                status, requiredDate, scheduledDate, progressRate, priority, materialAvailability, items, deleted);
+    }
+
+    private void writeDeltaPayload(DataOutputStream out, PartOrderDeltaEvent.StatusDelta p) throws IOException {
+        writeNullableLong(out, p.partOrderId());
+        writeString(out, p.orderCode());
+        writeString(out, p.status());
+        writeString(out, p.scheduledDate());
+        writeNullableDouble(out, p.progressRate());
+        writeString(out, p.priority());
+        writeString(out, p.materialAvailability());
+    }
+
+    private PartOrderDeltaEvent.StatusDelta readDeltaPayload(DataInputStream in) throws IOException {
+        return new PartOrderDeltaEvent.StatusDelta(
+                readNullableLong(in), readString(in), readString(in), readString(in),
+                readNullableDouble(in), readString(in), readString(in));
+    }
+
+    private void writeFactoryPayload(DataOutputStream out, FactoryEvent.Payload p) throws IOException {
+        writeNullableLong(out, p.factoryId());
+        writeString(out, p.name());
+        writeString(out, p.address());
+        writeString(out, p.status());
+        writeNullableBoolean(out, p.deleted());
+    }
+
+    private FactoryEvent.Payload readFactoryPayload(DataInputStream in) throws IOException {
+        return new FactoryEvent.Payload(
+                readNullableLong(in), readString(in), readString(in), readString(in), readNullableBoolean(in));
+    }
+
+    private void writeMaterialStockPayload(DataOutputStream out, MaterialStockChangedEvent.Payload p) throws IOException {
+        writeNullableLong(out, p.factoryId());
+        writeNullableLong(out, p.materialId());
+        writeNullableDouble(out, p.quantity());
+    }
+
+    private MaterialStockChangedEvent.Payload readMaterialStockPayload(DataInputStream in) throws IOException {
+        return new MaterialStockChangedEvent.Payload(readNullableLong(in), readNullableLong(in), readNullableDouble(in));
+    }
+
+    // ===== 기본 타입 =====
+    private void writeUuid(DataOutputStream out, String value) throws IOException {
+        UUID uuid = UUID.fromString(value);
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private String readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong()).toString();
+    }
+
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, utf8.length + 1L);
+        out.write(utf8);
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        long length = readVarLong(in);
+        if (length == 0) return null;
+        byte[] utf8 = new byte[(int) (length - 1)];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private void writeNullableLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    private Long readNullableLong(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) return null;
+        long zigzag = readVarLong(in);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private void writeNullableDouble(DataOutputStream out, Double value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeDouble(value);
+    }
+
+    private Double readNullableDouble(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+
+    private void writeNullableBoolean(DataOutputStream out, Boolean value) throws IOException {
+        out.writeByte(value == null ? 0 : (value ? 2 : 1));
+    }
+
+    private Boolean readNullableBoolean(DataInputStream in) throws IOException {
+        byte b = in.readByte();
+        return b == 0 ? null : b == 2;
+    }
+
+    // unsigned LEB128
+    private void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private long readVarLong(DataInputStream in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,17 @@
+package com.sampoom.factory.api.factory.outbox.codec;
+
+import java.io.IOException;
+
+/**
+ * Outbox 이벤트를 Kafka 레코드 값으로 변환하는 코덱.
+ * 레코드에는 {@link #contentType()}이 contentType 헤더로 실려 소비자가 디코딩 방식을 선택할 수 있다.
+ */
+public interface EventCodec {
+
+    // 설정값(factory.outbox.codec.name)으로 선택할 때 쓰는 이름
+    String name();
+
+    String contentType();
+
+    Object encode(Object event) throws IOException;
+}
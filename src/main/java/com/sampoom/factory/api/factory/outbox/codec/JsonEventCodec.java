@@ -0,0 +1,33 @@
+package com.sampoom.factory.api.factory.outbox.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+// 기존 방식: JSON 문자열
+@Component
+@RequiredArgsConstructor
+public class JsonEventCodec implements EventCodec {
+
+    public static final String NAME = "json";
+    public static final String CONTENT_TYPE = "application/json";
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public String contentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public Object encode(Object event) throws IOException {
+        return objectMapper.writeValueAsString(event);
+    }
+}
@@ -4,6 +4,7 @@ import com.sampoom.factory.api.factory.entity.BranchFactoryDistance;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +13,8 @@ public interface BranchFactoryDistanceRepository extends JpaRepository<BranchFac
 
     Optional<BranchFactoryDistance> findByDistanceId(Long distanceId);
 
+    List<BranchFactoryDistance> findByDistanceIdIn(Collection<Long> distanceIds);
+
     List<BranchFactoryDistance> findByBranchName(String branchName);
 
     List<BranchFactoryDistance> findByFactoryId(Long factoryId);
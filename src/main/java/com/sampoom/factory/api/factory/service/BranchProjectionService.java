@@ -1,19 +1,20 @@
 package com.sampoom.factory.api.factory.service;
 
 import com.sampoom.factory.api.factory.dto.BranchEventDto;
-import com.sampoom.factory.api.factory.entity.FactoryProjection;
+import com.sampoom.factory.api.factory.dto.BranchPayloadDto;
 import com.sampoom.factory.api.factory.entity.FactoryStatus;
-import com.sampoom.factory.api.factory.repository.FactoryProjectionRepository;
-import com.sampoom.factory.api.material.entity.FactoryMaterial;
-import com.sampoom.factory.api.material.entity.MaterialProjection;
 import com.sampoom.factory.api.material.repository.FactoryMaterialRepository;
-import com.sampoom.factory.api.material.repository.MaterialProjectionRepository;
+import com.sampoom.factory.api.material.service.MaterialReorderMonitor;
+import com.sampoom.factory.common.projection.ProjectionApplyResult;
+import com.sampoom.factory.common.projection.ProjectionRow;
+import com.sampoom.factory.common.projection.ProjectionUpsertEngine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -21,140 +22,70 @@ import java.util.List;
 @Slf4j
 public class BranchProjectionService {
 
-    private final FactoryProjectionRepository factoryProjectionRepository;
-    private final MaterialProjectionRepository materialProjectionRepository;
+    private static final String TABLE = "factory_projection";
+    private static final String KEY = "branch_id";
+
+    private final ProjectionUpsertEngine projectionUpsertEngine;
     private final FactoryMaterialRepository factoryMaterialRepository;
+    private final MaterialReorderMonitor materialReorderMonitor;
 
     @Transactional
-    public void handleBranchEvent(BranchEventDto eventDto) {
-        final Long branchId = eventDto.getPayload().getBranchId();
-        final Long incomingVer = nvl(eventDto.getVersion(), 0L);
-
-        FactoryProjection existingProjection = factoryProjectionRepository.findById(branchId).orElse(null);
-
-        // 멱등(같은 이벤트) 차단
-        if (existingProjection != null && eventDto.getEventId() != null && existingProjection.getLastEventId() != null) {
-            if (existingProjection.getLastEventId().equals(eventDto.getEventId())) return;
-        }
-        // 역순(오래된 이벤트) 차단
-        if (existingProjection != null && incomingVer <= nvl(existingProjection.getVersion(), 0L)) return;
-
-        switch (eventDto.getEventType()) {
-            case "BranchCreated":
-                handleBranchCreated(eventDto);
-                break;
-            case "BranchUpdated":
-                handleBranchUpdated(eventDto);
-                break;
-            case "BranchDeleted":
-                handleBranchDeleted(eventDto);
-                break;
-            default:
-                log.warn("알 수 없는 이벤트 타입: {}", eventDto.getEventType());
-        }
-    }
-
-    private Long nvl(Long v, long def) {
-        return v == null ? def : v;
-    }
-
-    private void handleBranchCreated(BranchEventDto eventDto) {
-        log.info("Branch 생성 이벤트 처리: branchId={}", eventDto.getPayload().getBranchId());
-
-        FactoryProjection projection = FactoryProjection.builder()
-                .branchId(eventDto.getPayload().getBranchId())
-                .branchCode(eventDto.getPayload().getBranchCode())
-                .branchName(eventDto.getPayload().getBranchName())
-                .address(eventDto.getPayload().getAddress())
-                .latitude(eventDto.getPayload().getLatitude())
-                .longitude(eventDto.getPayload().getLongitude())
-                .status(FactoryStatus.valueOf(eventDto.getPayload().getStatus()))
-                .deleted(eventDto.getPayload().getDeleted())
-                .version(nvl(eventDto.getVersion(), 0L))
-                .lastEventId(eventDto.getEventId())
-                .sourceUpdatedAt(eventDto.getOccurredAt())
-                .updatedAt(OffsetDateTime.now())
-                .build();
-
-        factoryProjectionRepository.save(projection);
-        log.info("FactoryProjection 저장 완료: branchId={}", projection.getBranchId());
-
-        // 모든 자재를 해당 공장에 수량 0으로 자동 연결
-        initializeFactoryMaterials(eventDto.getPayload().getBranchId());
+    public ProjectionApplyResult handleBranchEvent(BranchEventDto eventDto) {
+        return handleBranchEvents(List.of(eventDto));
     }
 
     /**
-     * 새로 생성된 공장에 모든 자재를 수량 0으로 초기화
+     * 여러 Branch 이벤트를 versioned UPSERT로 반영한다. (Created/Updated는 upsert)
+     * 실제로 새로 INSERT 된 공장에만 모든 자재를 수량 0으로 연결한다.
      */
-    private void initializeFactoryMaterials(Long factoryId) {
-        log.info("공장 자재 초기화 시작: factoryId={}", factoryId);
-
-        // 모든 자재 조회
-        List<MaterialProjection> allMaterials = materialProjectionRepository.findAll();
-
-        if (allMaterials.isEmpty()) {
-            log.info("초기화할 자재가 없습니다: factoryId={}", factoryId);
-            return;
+    @Transactional
+    public ProjectionApplyResult handleBranchEvents(List<BranchEventDto> events) {
+        List<ProjectionRow> upserts = new ArrayList<>();
+        List<ProjectionRow> deletes = new ArrayList<>();
+
+        for (BranchEventDto eventDto : ProjectionUpsertEngine.latestPerKey(events,
+                e -> e.getPayload().getBranchId(), BranchEventDto::getVersion)) {
+            switch (eventDto.getEventType()) {
+                case "BranchCreated", "BranchUpdated" -> upserts.add(toRow(eventDto));
+                case "BranchDeleted" -> deletes.add(metaRow(eventDto));
+                default -> log.warn("알 수 없는 이벤트 타입: {}", eventDto.getEventType());
+            }
         }
 
-        // 각 자재를 공장에 수량 0으로 연결
-        List<FactoryMaterial> factoryMaterials = allMaterials.stream()
-                .map(material -> FactoryMaterial.builder()
-                        .factoryId(factoryId)
-                        .materialId(material.getMaterialId())
-                        .quantity(0.0)
-                        .build())
-                .toList();
-
-        factoryMaterialRepository.saveAll(factoryMaterials);
+        ProjectionApplyResult result = projectionUpsertEngine.upsert(TABLE, KEY, upserts)
+                .merge(projectionUpsertEngine.markDeleted(TABLE, KEY, deletes));
+        log.info("Branch 이벤트 반영 완료: 수신={}, 반영={}, 신규={}",
+                events.size(), result.applied().size(), result.inserted().size());
 
-        log.info("공장 자재 초기화 완료: factoryId={}, 연결된 자재 수={}",
-                factoryId, factoryMaterials.size());
+        // 모든 자재를 해당 공장에 수량 0으로 자동 연결
+        initializeFactoryMaterials(result.inserted());
+        return result;
     }
 
-    private void handleBranchUpdated(BranchEventDto eventDto) {
-        log.info("Branch 수정 이벤트 처리: branchId={}", eventDto.getPayload().getBranchId());
-
-        FactoryProjection projection = factoryProjectionRepository.findById(eventDto.getPayload().getBranchId())
-                .orElseThrow(() -> new IllegalArgumentException("FactoryProjection을 찾을 수 없습니다: " + eventDto.getPayload().getBranchId()));
-
-        projection.updateFromEvent(
-                eventDto.getPayload().getBranchCode(),
-                eventDto.getPayload().getBranchName(),
-                eventDto.getPayload().getAddress(),
-                eventDto.getPayload().getLatitude(),
-                eventDto.getPayload().getLongitude(),
-                FactoryStatus.valueOf(eventDto.getPayload().getStatus()),
-                eventDto.getPayload().getDeleted(),
-                nvl(eventDto.getVersion(), 0L),
-                eventDto.getEventId(),
-                eventDto.getOccurredAt()
-        );
-
-        factoryProjectionRepository.save(projection);
-        log.info("FactoryProjection 수정 완료: branchId={}", projection.getBranchId());
+    private ProjectionRow toRow(BranchEventDto eventDto) {
+        BranchPayloadDto payload = eventDto.getPayload();
+        return metaRow(eventDto)
+                .set("branch_code", payload.getBranchCode())
+                .set("branch_name", payload.getBranchName())
+                .set("address", payload.getAddress())
+                .set("latitude", payload.getLatitude())
+                .set("longitude", payload.getLongitude())
+                .set("status", FactoryStatus.valueOf(payload.getStatus()).name())
+                .set("deleted", Boolean.TRUE.equals(payload.getDeleted()));
     }
 
-    private void handleBranchDeleted(BranchEventDto eventDto) {
-        log.info("Branch 삭제 이벤트 처리: branchId={}", eventDto.getPayload().getBranchId());
-
-        FactoryProjection projection = factoryProjectionRepository.findById(eventDto.getPayload().getBranchId())
-                .orElseThrow(() -> new IllegalArgumentException("FactoryProjection을 찾을 수 없습니다: " + eventDto.getPayload().getBranchId()));
-
-        projection.updateFromEvent(
-                projection.getBranchCode(),
-                projection.getBranchName(),
-                projection.getAddress(),
-                projection.getLatitude(),
-                projection.getLongitude(),
-                projection.getStatus(),
-                true, // deleted = true
-                nvl(eventDto.getVersion(), 0L),
-                eventDto.getEventId(),
-                eventDto.getOccurredAt()
-        );
+    private ProjectionRow metaRow(BranchEventDto eventDto) {
+        return ProjectionRow.of(eventDto.getPayload().getBranchId(), eventDto.getEventId(),
+                eventDto.getVersion(), eventDto.getOccurredAt());
+    }
 
-        factoryProjectionRepository.save(projection);
-        log.info("FactoryProjection 삭제 마킹 완료: branchId={}", projection.getBranchId());
+    /**
+     * 새로 생성된 공장들에 모든 자재를 수량 0으로 초기화 (INSERT ... SELECT 한 번)
+     */
+    private void initializeFactoryMaterials(Collection<Long> factoryIds) {
+        if (factoryIds.isEmpty()) return;
+        int inserted = factoryMaterialRepository.insertZeroStockForAllMaterials(factoryIds);
+        log.info("공장 자재 초기화 완료: factoryIds={}, 생성된 공장 자재 수={}", factoryIds, inserted);
+        materialReorderMonitor.onFactoriesAdded(factoryIds);
     }
 }
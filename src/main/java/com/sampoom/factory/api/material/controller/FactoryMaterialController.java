@@ -1,19 +1,26 @@
 package com.sampoom.factory.api.material.controller;
 
+import com.sampoom.factory.api.material.dto.LowStockMaterialResponseDto;
+import com.sampoom.factory.api.material.dto.MaterialMovementResponseDto;
+import com.sampoom.factory.api.material.dto.MaterialStockAtResponseDto;
 import com.sampoom.factory.api.material.dto.MaterialResponseDto;
 import com.sampoom.factory.common.response.PageResponseDto;
 import com.sampoom.factory.api.material.service.FactoryMaterialService;
+import com.sampoom.factory.api.material.service.MaterialLedgerService;
 import com.sampoom.factory.api.material.dto.MaterialOrderRequestDto;
 import com.sampoom.factory.api.material.dto.MaterialOrderResponseDto;
 import com.sampoom.factory.api.material.service.MaterialOrderService;
 import com.sampoom.factory.common.response.ApiResponse;
 import com.sampoom.factory.common.response.SuccessStatus;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Tag(name = "FactoryMaterial", description = "FactoryMaterial 관련 API 입니다.")
@@ -24,6 +31,7 @@ public class FactoryMaterialController {
 
     private final FactoryMaterialService factoryMaterialService;
     private final MaterialOrderService materialOrderService;
+    private final MaterialLedgerService materialLedgerService;
 
 //    @Operation(summary = "자재 카테고리 조회", description = "모든 자재 카테고리를 조회합니다.")
 //    @GetMapping("/material/categories")
@@ -61,6 +69,34 @@ public class FactoryMaterialController {
         );
     }
 
+    @Operation(summary = "재주문점 이하 자재 조회", description = "재고가 재주문점(안전재고 + 일평균 사용량 × 리드타임) 이하인 자재를 부족분이 큰 순서로 조회합니다.")
+    @GetMapping("/{factoryId}/material/low-stock")
+    public ResponseEntity<ApiResponse<List<LowStockMaterialResponseDto>>> getLowStockMaterials(
+            @PathVariable Long factoryId) {
+        return ApiResponse.success(SuccessStatus.OK, factoryMaterialService.getLowStockMaterials(factoryId));
+    }
+
+    @Operation(summary = "시점별 자재 재고 조회", description = "자재 원장의 가장 가까운 체크포인트와 이후 이동 합으로 특정 시점의 공장 자재 재고를 계산합니다.")
+    @GetMapping("/{factoryId}/material/stock-at")
+    public ResponseEntity<ApiResponse<List<MaterialStockAtResponseDto>>> getStockAt(
+            @PathVariable Long factoryId,
+            @Parameter(description = "조회 시점 (예: 2025-01-31T18:00:00)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ApiResponse.success(SuccessStatus.OK, materialLedgerService.stockAt(factoryId, at));
+    }
+
+    @Operation(summary = "자재 이동 내역 조회", description = "기간 내 자재의 입고/투입/조정 내역과 원인 문서를 최신순으로 조회합니다. 기간을 생략하면 최근 30일입니다.")
+    @GetMapping("/{factoryId}/material/{materialId}/movements")
+    public ResponseEntity<ApiResponse<List<MaterialMovementResponseDto>>> getMovements(
+            @PathVariable Long factoryId,
+            @PathVariable Long materialId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(30);
+        return ApiResponse.success(SuccessStatus.OK, materialLedgerService.movements(factoryId, materialId, start, end));
+    }
+
     @Operation(summary = "자재 주문 생성", description = "공장에 필요한 자재 주문을 생성합니다.")
     @PostMapping("/{factoryId}/material/order")
     public ResponseEntity<ApiResponse<MaterialOrderResponseDto>> createMaterialOrder(
@@ -70,48 +106,48 @@ public class FactoryMaterialController {
                 materialOrderService.createMaterialOrder(factoryId, requestDto));
     }
 
-//    @Operation(summary = "자재 주문 목록 조회", description = "공장의 자재 주문 목록을 조회합니다.")
-//    @GetMapping("/{factoryId}/material/order")
-//    public ResponseEntity<ApiResponse<PageResponseDto<MaterialOrderResponseDto>>> getMaterialOrders(
-//            @PathVariable Long factoryId,
-//            @RequestParam(defaultValue = "0") int page,
-//            @RequestParam(defaultValue = "10") int size) {
-//        return ApiResponse.success(SuccessStatus.OK,
-//                materialOrderService.getMaterialOrdersByFactory(factoryId, page, size));
-//    }
+    @Operation(summary = "자재 주문 목록 조회", description = "공장의 자재 주문 목록을 조회합니다.")
+    @GetMapping("/{factoryId}/material/order")
+    public ResponseEntity<ApiResponse<PageResponseDto<MaterialOrderResponseDto>>> getMaterialOrders(
+            @PathVariable Long factoryId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return ApiResponse.success(SuccessStatus.OK,
+                materialOrderService.getMaterialOrdersByFactory(factoryId, page, size));
+    }
 
 
-//    @Operation(
-//            summary = "자재 주문 취소",
-//            description = "특정 공장의 자재 주문을 취소합니다. (받은(입고) 주문은 취소 불가)"
-//    )
-//    @PutMapping("/{factoryId}/material/order/{orderId}/cancel")
-//    public ResponseEntity<ApiResponse<MaterialOrderResponseDto>> cancelMaterialOrder(
-//            @PathVariable Long factoryId,
-//            @PathVariable Long orderId) {
-//
-//        return ApiResponse.success(
-//                SuccessStatus.OK,
-//                materialOrderService.cancelMaterialOrder(factoryId, orderId)
-//        );
-//    }
+    @Operation(
+            summary = "자재 주문 취소",
+            description = "특정 공장의 자재 주문을 취소합니다. (받은(입고) 주문은 취소 불가)"
+    )
+    @PutMapping("/{factoryId}/material/order/{orderId}/cancel")
+    public ResponseEntity<ApiResponse<MaterialOrderResponseDto>> cancelMaterialOrder(
+            @PathVariable Long factoryId,
+            @PathVariable Long orderId) {
 
-//    @Operation(summary = "자재 주문 삭제(소프트)", description = "주문 레코드를 실제로는 삭제하지 않고 숨깁니다.")
-//    @DeleteMapping("/{factoryId}/material/order/{orderId}")
-//    public ResponseEntity<ApiResponse<Void>> deleteMaterialOrder(
-//            @PathVariable Long factoryId, @PathVariable Long orderId) {
-//        materialOrderService.softDeleteMaterialOrder(factoryId, orderId);
-//        return ApiResponse.success_only(SuccessStatus.OK);
-//    }
+        return ApiResponse.success(
+                SuccessStatus.OK,
+                materialOrderService.cancelMaterialOrder(factoryId, orderId)
+        );
+    }
 
-//    @Operation(summary = "자재 주문 상세 조회", description = "특정 자재 주문의 상세 정보를 조회합니다.")
-//    @GetMapping("/{factoryId}/material/order/{orderId}")
-//    public ResponseEntity<ApiResponse<MaterialOrderResponseDto>> getMaterialOrderDetail(
-//            @PathVariable Long factoryId,
-//            @PathVariable Long orderId) {
-//        return ApiResponse.success(
-//                SuccessStatus.OK,
-//                materialOrderService.getMaterialOrderDetail(factoryId, orderId)
-//        );
-//    }
+    @Operation(summary = "자재 주문 삭제(소프트)", description = "주문 레코드를 실제로는 삭제하지 않고 숨깁니다.")
+    @DeleteMapping("/{factoryId}/material/order/{orderId}")
+    public ResponseEntity<ApiResponse<Void>> deleteMaterialOrder(
+            @PathVariable Long factoryId, @PathVariable Long orderId) {
+        materialOrderService.softDeleteMaterialOrder(factoryId, orderId);
+        return ApiResponse.success_only(SuccessStatus.OK);
+    }
+
+    @Operation(summary = "자재 주문 상세 조회", description = "특정 자재 주문의 상세 정보를 조회합니다.")
+    @GetMapping("/{factoryId}/material/order/{orderId}")
+    public ResponseEntity<ApiResponse<MaterialOrderResponseDto>> getMaterialOrderDetail(
+            @PathVariable Long factoryId,
+            @PathVariable Long orderId) {
+        return ApiResponse.success(
+                SuccessStatus.OK,
+                materialOrderService.getMaterialOrderDetail(factoryId, orderId)
+        );
+    }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.sampoom.factory.api.material.dto;
+
+import com.sampoom.factory.api.material.entity.MaterialProjection;
+import com.sampoom.factory.api.material.service.MaterialReorderMonitor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowStockMaterialResponseDto {
+    private Long materialId;
+    private String materialCode;
+    private String name;
+    private String unit;
+    private Double quantity;
+    private Double reorderPoint;
+    private Integer safetyStock;
+    private Integer leadTime;
+    private LocalDateTime belowSince;
+
+    public static LowStockMaterialResponseDto of(MaterialReorderMonitor.LowStock lowStock, MaterialProjection material) {
+        return LowStockMaterialResponseDto.builder()
+                .materialId(lowStock.materialId())
+                .materialCode(material != null ? material.getCode() : null)
+                .name(material != null ? material.getName() : null)
+                .unit(material != null ? material.getMaterialUnit() : null)
+                .quantity(lowStock.quantity())
+                .reorderPoint(lowStock.reorderPoint())
+                .safetyStock(lowStock.safetyStock())
+                .leadTime(lowStock.leadTime())
+                .belowSince(lowStock.belowSince())
+                .build();
+    }
+}
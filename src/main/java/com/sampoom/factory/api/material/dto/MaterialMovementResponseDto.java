@@ -0,0 +1,23 @@
+package com.sampoom.factory.api.material.dto;
+
+import com.sampoom.factory.api.material.entity.MovementType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaterialMovementResponseDto {
+    private Long id;
+    private Long materialId;
+    private MovementType movementType;
+    private Double quantity;          // 부호 포함 증감량
+    private String referenceType;
+    private Long referenceId;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,18 @@
+package com.sampoom.factory.api.material.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaterialStockAtResponseDto {
+    private Long materialId;
+    private Double quantity;
+    private LocalDateTime at;
+}
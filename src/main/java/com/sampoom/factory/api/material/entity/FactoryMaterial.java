@@ -1,12 +1,15 @@
 package com.sampoom.factory.api.material.entity;
 
-import com.sampoom.factory.common.exception.BadRequestException;
-import com.sampoom.factory.common.response.ErrorStatus;
 import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "factory_material")
+@Table(
+        name = "factory_material",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uq_factory_material_factory_material", columnNames = {"factory_id", "material_id"})
+        }
+)
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @AllArgsConstructor
@@ -24,26 +27,5 @@ public class FactoryMaterial {
     @Column(name = "material_id")
     private Long materialId;
 
-    private Double quantity;  // Long에서 Double로 변경
-
-    public void increaseQuantity(Double amount) {  // Long에서 Double로 변경
-        if (this.quantity == null) {
-            this.quantity = 0.0;
-        }
-        this.quantity += amount;
-    }
-
-    public void decreaseQuantity(Double amount) {  // Long에서 Double로 변경
-        if (amount == null || amount <= 0) {
-            throw new BadRequestException(ErrorStatus.INVALID_QUANTITY);
-        }
-        if (this.quantity == null) {
-            this.quantity = 0.0;
-        }
-        double newQty = this.quantity - amount;
-        if (newQty < 0) {
-            throw new BadRequestException(ErrorStatus.INSUFFICIENT_MATERIAL_QUANTITY);
-        }
-        this.quantity = newQty;
-    }
+    private Double quantity;  // Long에서 Double로 변경 (증감은 FactoryMaterialStockService의 원자적 UPDATE로만 수행)
 }
@@ -0,0 +1,7 @@
+package com.sampoom.factory.api.material.entity;
+
+public enum MovementType {
+    RECEIPT,        // 입고 (+)
+    CONSUMPTION,    // 생산 투입 (-)
+    ADJUSTMENT      // 재고 실사/수동 조정 (±)
+}
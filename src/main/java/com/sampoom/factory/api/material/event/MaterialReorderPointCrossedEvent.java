@@ -0,0 +1,20 @@
+package com.sampoom.factory.api.material.event;
+
+/**
+ * 공장 자재 재고가 재주문점을 넘나든 신호 (애플리케이션 내부 이벤트).
+ * 같은 방향으로 계속 머무는 동안에는 다시 발행하지 않는다.
+ *
+ * @param reorderPoint 판단에 쓴 재주문점 (안전재고 + 일평균 사용량 × 리드타임)
+ */
+public record MaterialReorderPointCrossedEvent(
+        Long factoryId,
+        Long materialId,
+        double quantity,
+        double reorderPoint,
+        Direction direction
+) {
+    public enum Direction {
+        BELOW,      // 재주문점 이하로 떨어짐
+        RECOVERED   // 재주문점 위로 회복
+    }
+}
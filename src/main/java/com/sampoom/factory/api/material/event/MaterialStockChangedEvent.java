@@ -0,0 +1,18 @@
+package com.sampoom.factory.api.material.event;
+
+/**
+ * 공장 자재 재고 변경 이벤트 (material-stock-events 토픽, key = factoryId).
+ * 짧은 구간 안의 같은 (공장, 자재) 변경은 하나로 합쳐지며, 증감량이 아닌 발행 시점의 재고 수량을 담는다.
+ * 소비자는 자신이 가진 version보다 큰 경우에만 적용해야 한다.
+ */
+public record MaterialStockChangedEvent(
+        String eventId,
+        String eventType,        // "MaterialStockChanged"
+        Long version,            // 수량을 읽은 시각(epoch millis)
+        String occurredAt,       // ISO-8601
+        Payload payload
+) {
+    public static final String EVENT_TYPE = "MaterialStockChanged";
+
+    public record Payload(Long factoryId, Long materialId, Double quantity) {}
+}
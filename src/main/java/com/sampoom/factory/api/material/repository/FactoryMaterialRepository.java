@@ -5,9 +5,11 @@ import com.sampoom.factory.api.material.entity.FactoryMaterial;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.Optional;
 
 public interface FactoryMaterialRepository extends JpaRepository<FactoryMaterial, Long> {
@@ -50,4 +52,33 @@ public interface FactoryMaterialRepository extends JpaRepository<FactoryMaterial
     );
 
     void deleteAllByFactoryId(Long factoryId);
+
+    /**
+     * 새 자재들을 삭제되지 않은 모든 공장에 수량 0으로 한 번에 연결한다. (이미 있는 조합은 건너뜀)
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO factory_material (factory_id, material_id, quantity)
+        SELECT f.branch_id, m.material_id, 0
+        FROM material_projection m
+        CROSS JOIN factory_projection f
+        WHERE m.material_id IN (:materialIds)
+          AND f.deleted = false
+        ON CONFLICT (factory_id, material_id) DO NOTHING
+        """, nativeQuery = true)
+    int insertZeroStockForAllFactories(@Param("materialIds") Collection<Long> materialIds);
+
+    /**
+     * 새 공장들에 모든 자재를 수량 0으로 한 번에 연결한다. (이미 있는 조합은 건너뜀)
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO factory_material (factory_id, material_id, quantity)
+        SELECT f.branch_id, m.material_id, 0
+        FROM factory_projection f
+        CROSS JOIN material_projection m
+        WHERE f.branch_id IN (:factoryIds)
+        ON CONFLICT (factory_id, material_id) DO NOTHING
+        """, nativeQuery = true)
+    int insertZeroStockForAllMaterials(@Param("factoryIds") Collection<Long> factoryIds);
 }
\ No newline at end of file
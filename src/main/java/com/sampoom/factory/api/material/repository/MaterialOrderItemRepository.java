@@ -2,9 +2,16 @@ package com.sampoom.factory.api.material.repository;
 
 import com.sampoom.factory.api.material.entity.MaterialOrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface MaterialOrderItemRepository extends JpaRepository<MaterialOrderItem,Long> {
     List<MaterialOrderItem> findByMaterialOrderId(Long materialOrderId);
+
+    // 주문 목록 페이지의 항목을 주문과 함께 한 번에 조회 (주문별 N+1 방지)
+    @Query("SELECT i FROM MaterialOrderItem i JOIN FETCH i.materialOrder o WHERE o.id IN :orderIds ORDER BY o.id, i.id")
+    List<MaterialOrderItem> findWithOrderByMaterialOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
 }
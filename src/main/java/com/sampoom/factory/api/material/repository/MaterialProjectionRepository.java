@@ -3,6 +3,7 @@ package com.sampoom.factory.api.material.repository;
 import com.sampoom.factory.api.material.entity.MaterialProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +13,8 @@ public interface MaterialProjectionRepository extends JpaRepository<MaterialProj
 
     Optional<MaterialProjection> findByCode(String code);
 
+    List<MaterialProjection> findByCodeIn(Collection<String> codes);
+
     // N+1 문제 해결을 위한 배치 조회 메서드
     List<MaterialProjection> findByMaterialIdIn(List<Long> materialIds);
 }
@@ -0,0 +1,69 @@
+package com.sampoom.factory.api.material.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * factory_material의 (factory_id, material_id) 유니크 제약을 보장한다.
+ * 재고 증감(ON CONFLICT (factory_id, material_id))과 공장/자재 초기화가 이 제약에 의존하므로 없으면 기동하지 않는다.
+ * <p>
+ * 제약이 없으면 테이블을 잠근 뒤 중복 행을 가장 작은 ID 행 하나로 합치고(수량은 합산) 제약을 추가한다.
+ * 여러 인스턴스가 동시에 떠도 테이블 잠금 후 다시 확인하므로 한 번만 수행된다.
+ * 컨슈머가 재고를 바꾸기 전에 끝나야 하므로 빈 초기화 시점(스키마 생성 이후)에 실행한다.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class FactoryMaterialKeyMigration {
+
+    static final String CONSTRAINT_NAME = "uq_factory_material_factory_material";
+
+    private static final String CONSTRAINT_EXISTS_SQL =
+            "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = '" + CONSTRAINT_NAME + "')";
+
+    private static final String MERGE_DUPLICATES_SQL = """
+            WITH ranked AS (
+                SELECT factory_material_id AS id,
+                       MIN(factory_material_id) OVER (PARTITION BY factory_id, material_id) AS keep_id,
+                       SUM(COALESCE(quantity, 0)) OVER (PARTITION BY factory_id, material_id) AS total,
+                       COUNT(*) OVER (PARTITION BY factory_id, material_id) AS cnt
+                FROM factory_material
+            ), merged AS (
+                UPDATE factory_material fm SET quantity = r.total
+                FROM ranked r
+                WHERE fm.factory_material_id = r.id AND r.id = r.keep_id AND r.cnt > 1
+                RETURNING fm.factory_material_id
+            )
+            DELETE FROM factory_material fm
+            USING ranked r
+            WHERE fm.factory_material_id = r.id AND r.id <> r.keep_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public FactoryMaterialKeyMigration(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void ensureUniqueKey() {
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(CONSTRAINT_EXISTS_SQL, Boolean.class))) return;
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("LOCK TABLE factory_material IN SHARE ROW EXCLUSIVE MODE");
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(CONSTRAINT_EXISTS_SQL, Boolean.class))) return;
+
+            int removed = jdbcTemplate.update(MERGE_DUPLICATES_SQL);
+            jdbcTemplate.execute("ALTER TABLE factory_material ADD CONSTRAINT " + CONSTRAINT_NAME
+                    + " UNIQUE (factory_id, material_id)");
+            log.info("공장 자재 유니크 제약 추가 - 병합으로 삭제된 중복 행: {}건", removed);
+        });
+    }
+}
@@ -1,6 +1,7 @@
 package com.sampoom.factory.api.material.service;
 
 import com.sampoom.factory.api.factory.entity.FactoryProjection;
+import com.sampoom.factory.api.material.dto.LowStockMaterialResponseDto;
 import com.sampoom.factory.api.material.dto.MaterialResponseDto;
 import com.sampoom.factory.common.response.PageResponseDto;
 import com.sampoom.factory.api.material.entity.FactoryMaterial;
@@ -34,6 +35,7 @@ public class FactoryMaterialService {
     private final FactoryMaterialRepository factoryMaterialRepository;
     private final MaterialCategoryProjectionRepository materialCategoryProjectionRepository;
     private final MaterialProjectionRepository materialProjectionRepository;
+    private final MaterialReorderMonitor materialReorderMonitor;
 
     public PageResponseDto<MaterialResponseDto> getMaterialsByFactoryAndCategory(
             Long factoryId, Long categoryId, int page, int size) {
@@ -171,5 +173,22 @@ public class FactoryMaterialService {
                 .build();
     }
 
+    /**
+     * 재주문점 이하인 자재 목록. factory_material을 조회하지 않고 재주문점 감시가 유지하는 집합을 읽는다.
+     */
+    public List<LowStockMaterialResponseDto> getLowStockMaterials(Long factoryId) {
+        factoryProjectionRepository.findById(factoryId)
+                .orElseThrow(() -> new NotFoundException(ErrorStatus.FACTORY_NOT_FOUND));
 
-}
\ No newline at end of file
+        List<MaterialReorderMonitor.LowStock> lowStocks = materialReorderMonitor.belowReorderPoint(factoryId);
+        if (lowStocks.isEmpty()) return List.of();
+
+        Map<Long, MaterialProjection> materials = materialProjectionRepository.findByMaterialIdIn(
+                        lowStocks.stream().map(MaterialReorderMonitor.LowStock::materialId).toList()).stream()
+                .collect(Collectors.toMap(MaterialProjection::getMaterialId, mp -> mp));
+
+        return lowStocks.stream()
+                .map(lowStock -> LowStockMaterialResponseDto.of(lowStock, materials.get(lowStock.materialId())))
+                .toList();
+    }
+}
@@ -0,0 +1,197 @@
+package com.sampoom.factory.api.material.service;
+
+import com.sampoom.factory.api.material.entity.MovementType;
+import com.sampoom.factory.common.exception.BadRequestException;
+import com.sampoom.factory.common.response.ErrorStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 공장 자재 재고 증감 전용 서비스.
+ * 엔티티를 읽어 수량을 바꾸고 dirty checking으로 저장하면 동시 차감/입고 시 갱신이 유실되므로,
+ * 모든 증감을 DB가 원자적으로 계산하는 조건부 UPDATE로 처리한다.
+ * <pre>
+ * UPDATE factory_material SET quantity = quantity - :q
+ * WHERE factory_id = :f AND material_id = :m AND quantity &gt;= :q
+ * </pre>
+ * 한 주문의 모든 BOM 라인은 자재별로 합산한 뒤 JDBC batch 한 번으로 보내고, 영향 행 수가 0인 자재를 재고 부족으로 판단한다.
+ * JPA 영속성 컨텍스트를 거치지 않으므로, 같은 트랜잭션에서 이미 읽은 FactoryMaterial 엔티티의 수량은 갱신되지 않는다.
+ * <p>
+ * {@link FactoryStockWriter}가 활성화되어 있으면 증감을 공장별 단일 writer에 넘긴다. 이때 반영은 호출자 트랜잭션과 별도로 커밋되므로,
+ * writer가 남긴 되돌림 기록을 호출자 트랜잭션 안에서 지운다. 호출자가 롤백되면(또는 커밋 전에 JVM이 죽으면) 기록이 남아 writer가 되돌린다.
+ * <p>
+ * 반영된 증감은 원인 문서와 함께 {@link MaterialLedgerService} 원장에 호출자 트랜잭션 안에서 기록된다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FactoryMaterialStockService {
+
+    private static final String DEDUCT_SQL =
+            "UPDATE factory_material SET quantity = quantity - ? WHERE factory_id = ? AND material_id = ? AND quantity >= ?";
+    private static final String RESTORE_SQL =
+            "UPDATE factory_material SET quantity = quantity + ? WHERE factory_id = ? AND material_id = ?";
+    private static final String INCREASE_SQL = """
+            INSERT INTO factory_material (factory_id, material_id, quantity) VALUES (?, ?, ?)
+            ON CONFLICT (factory_id, material_id) DO UPDATE SET quantity = COALESCE(factory_material.quantity, 0) + EXCLUDED.quantity
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FactoryStockWriter factoryStockWriter;
+    private final FactoryStockSnapshot factoryStockSnapshot;
+    private final MaterialReorderMonitor materialReorderMonitor;
+    private final MaterialLedgerService materialLedgerService;
+    private final MaterialStockChangeStream materialStockChangeStream;
+
+    public record DeductionResult(List<Long> insufficientMaterialIds) {
+        public boolean isSuccess() {
+            return insufficientMaterialIds.isEmpty();
+        }
+    }
+
+    /**
+     * 자재별 요구량을 한 번에 차감한다. 하나라도 부족하면 이미 차감한 자재를 되돌리고 부족한 자재 ID 목록을 돌려준다.
+     * (전부 차감되거나 전혀 차감되지 않는다)
+     */
+    @Transactional
+    public DeductionResult tryDeduct(Long factoryId, Map<Long, Double> requiredByMaterial, StockMovementReference reference) {
+        Map<Long, Double> required = positiveOnly(requiredByMaterial);
+        if (required.isEmpty()) return new DeductionResult(List.of());
+
+        if (factoryStockWriter.isEnabled()) {
+            UUID reversalToken = UUID.randomUUID();
+            List<Long> insufficient = factoryStockWriter.deduct(factoryId, required, reversalToken);
+            if (insufficient.isEmpty()) {
+                compensateOnRollback(reversalToken);
+                materialLedgerService.record(factoryId, MovementType.CONSUMPTION, reference, negate(required));
+            }
+            return new DeductionResult(insufficient);
+        }
+
+        List<Long> materialIds = new ArrayList<>(required.keySet());
+        List<Object[]> args = new ArrayList<>(materialIds.size());
+        for (Long materialId : materialIds) {
+            Double quantity = required.get(materialId);
+            args.add(new Object[]{quantity, factoryId, materialId, quantity});
+        }
+        int[] counts = jdbcTemplate.batchUpdate(DEDUCT_SQL, args);
+
+        List<Long> insufficient = new ArrayList<>();
+        List<Object[]> restores = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            Long materialId = materialIds.get(i);
+            if (counts[i] == 0) {
+                insufficient.add(materialId);
+            } else {
+                restores.add(new Object[]{required.get(materialId), factoryId, materialId});
+            }
+        }
+
+        if (!insufficient.isEmpty()) {
+            // 행 잠금은 트랜잭션 끝까지 유지되므로 보상 UPDATE 사이에 다른 트랜잭션이 끼어들지 않는다
+            if (!restores.isEmpty()) jdbcTemplate.batchUpdate(RESTORE_SQL, restores);
+            log.warn("자재 재고 부족으로 차감 취소 - 공장ID: {}, 부족 자재ID: {}", factoryId, insufficient);
+        } else {
+            Map<Long, Double> deltas = negate(required);
+            materialLedgerService.record(factoryId, MovementType.CONSUMPTION, reference, deltas);
+            applyAfterCommit(factoryId, deltas);
+        }
+        return new DeductionResult(insufficient);
+    }
+
+    /**
+     * 자재별 요구량을 한 번에 차감하고, 하나라도 부족하면 예외를 던진다.
+     * 부족은 호출자가 주문 단위로 잡아 처리하는 경우가 있으므로 여기서 트랜잭션을 rollback-only로 표시하지 않는다.
+     */
+    public void deduct(Long factoryId, Map<Long, Double> requiredByMaterial, StockMovementReference reference) {
+        if (!tryDeduct(factoryId, requiredByMaterial, reference).isSuccess()) {
+            throw new BadRequestException(ErrorStatus.INSUFFICIENT_MATERIAL_QUANTITY);
+        }
+    }
+
+    /**
+     * 자재별 수량을 원자적으로 더한다. 재고 행이 없으면 해당 수량으로 새로 만든다.
+     */
+    @Transactional
+    public void increase(Long factoryId, Map<Long, Double> quantityByMaterial, StockMovementReference reference) {
+        Map<Long, Double> quantities = positiveOnly(quantityByMaterial);
+        if (quantities.isEmpty()) return;
+
+        if (factoryStockWriter.isEnabled()) {
+            UUID reversalToken = UUID.randomUUID();
+            factoryStockWriter.add(factoryId, quantities, reversalToken);
+            compensateOnRollback(reversalToken);
+            materialLedgerService.record(factoryId, MovementType.RECEIPT, reference, quantities);
+            return;
+        }
+
+        List<Object[]> args = new ArrayList<>(quantities.size());
+        quantities.forEach((materialId, quantity) -> args.add(new Object[]{factoryId, materialId, quantity}));
+        jdbcTemplate.batchUpdate(INCREASE_SQL, args);
+        materialLedgerService.record(factoryId, MovementType.RECEIPT, reference, quantities);
+        applyAfterCommit(factoryId, quantities);
+    }
+
+    // 메모리 스냅샷, 재주문점 감시, 변경 스트림은 커밋된 변경만 반영한다 (writer 경로는 writer가 직접 반영)
+    private void applyAfterCommit(Long factoryId, Map<Long, Double> deltas) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            factoryStockSnapshot.apply(factoryId, deltas);
+            materialReorderMonitor.onStockChanged(factoryId, deltas);
+            materialStockChangeStream.onStockChanged(factoryId, deltas.keySet());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                factoryStockSnapshot.apply(factoryId, deltas);
+                materialReorderMonitor.onStockChanged(factoryId, deltas);
+                materialStockChangeStream.onStockChanged(factoryId, deltas.keySet());
+            }
+        });
+    }
+
+    // writer 반영분은 이미 커밋되었으므로, 되돌림 기록을 호출자 트랜잭션에서 지워 커밋과 함께 확정한다.
+    // 롤백되면 바로 되돌리고, 그마저 실패하면 writer의 정리 작업이 다시 시도한다
+    private void compensateOnRollback(UUID reversalToken) {
+        factoryStockWriter.confirm(reversalToken);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) return;
+                try {
+                    factoryStockWriter.reverse(reversalToken);
+                } catch (Exception e) {
+                    log.error("트랜잭션 롤백 재고 되돌림 실패, 정리 작업이 재시도 - 토큰: {}, 오류: {}", reversalToken, e.getMessage(), e);
+                }
+            }
+        });
+    }
+
+    // null/0 이하 수량은 건너뛰고 같은 자재는 합산한다
+    private static Map<Long, Double> positiveOnly(Map<Long, Double> quantities) {
+        Map<Long, Double> result = new LinkedHashMap<>();
+        quantities.forEach((materialId, quantity) -> {
+            if (materialId != null && quantity != null && quantity > 0) result.merge(materialId, quantity, Double::sum);
+        });
+        return result;
+    }
+
+    private static Map<Long, Double> negate(Map<Long, Double> quantities) {
+        Map<Long, Double> result = new LinkedHashMap<>();
+        quantities.forEach((materialId, quantity) -> result.put(materialId, -quantity));
+        return result;
+    }
+}
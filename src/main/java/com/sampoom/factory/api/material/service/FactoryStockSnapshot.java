@@ -0,0 +1,194 @@
+package com.sampoom.factory.api.material.service;
+
+import com.sampoom.factory.api.material.entity.FactoryMaterial;
+import com.sampoom.factory.api.material.repository.FactoryMaterialRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 공장별 자재 재고의 메모리 스냅샷. 자재 가용성 확인을 DB 조회 없이 처리하기 위해 쓴다.
+ *
+ * <ul>
+ *   <li>기동 시 factory_material 전체를 공장별 long→double 맵으로 적재한다.</li>
+ *   <li>{@link FactoryMaterialStockService}와 {@link FactoryStockWriter}가 커밋 후 증감분을 그대로 반영한다. (write-through)</li>
+ *   <li>주기적으로 테이블을 다시 읽어 맞춘다. 적재 중에 반영이 있었던 공장은 덮어쓰지 않고 다음 주기로 넘긴다.</li>
+ * </ul>
+ * 비활성화 상태이거나 아직 적재 전이면 테이블에서 직접 읽는다. 스냅샷은 가용성 판단용이며, 실제 차감 여부는 항상 DB의 조건부 UPDATE가 결정한다.
+ * 다른 인스턴스의 증감은 다음 맞춤 주기까지 보이지 않으므로, 부족량/구매 수량처럼 값 자체를 쓰는 계산은 {@link #committedQuantityOf}로 테이블을 읽는다.
+ */
+@Slf4j
+@Component
+public class FactoryStockSnapshot {
+
+    private final FactoryMaterialRepository factoryMaterialRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final Map<Long, FactoryStock> factories = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    public FactoryStockSnapshot(FactoryMaterialRepository factoryMaterialRepository,
+                                JdbcTemplate jdbcTemplate,
+                                @Value("${factory.stock.snapshot.enabled:false}") boolean enabled) {
+        this.factoryMaterialRepository = factoryMaterialRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    /**
+     * 공장의 자재 재고. 재고 행이 없으면 null.
+     */
+    public Double quantityOf(Long factoryId, Long materialId) {
+        if (!enabled || !loaded) return committedQuantityOf(factoryId, materialId);
+        FactoryStock stock = factories.get(factoryId);
+        return stock == null ? null : stock.get(materialId);
+    }
+
+    /**
+     * 테이블에서 바로 읽은 공장의 자재 재고. 재고 행이 없으면 null.
+     */
+    public Double committedQuantityOf(Long factoryId, Long materialId) {
+        return factoryMaterialRepository.findByFactoryIdAndMaterialId(factoryId, materialId)
+                .map(FactoryMaterial::getQuantity)
+                .orElse(null);
+    }
+
+    /**
+     * 커밋된 증감분을 반영한다. 재고 행이 없던 자재는 새로 만든다.
+     */
+    public void apply(Long factoryId, Map<Long, Double> deltas) {
+        if (!enabled || deltas.isEmpty()) return;
+        FactoryStock stock = factories.computeIfAbsent(factoryId, id -> new FactoryStock());
+        stock.add(deltas);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) return;
+        reconcile();
+        loaded = true;
+    }
+
+    @Scheduled(fixedDelayString = "${factory.stock.snapshot.reconcile-interval-ms:300000}",
+            initialDelayString = "${factory.stock.snapshot.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        if (!enabled) return;
+
+        Map<Long, Long> versionsBefore = new HashMap<>();
+        factories.forEach((factoryId, stock) -> versionsBefore.put(factoryId, stock.version()));
+
+        Map<Long, LongDoubleMap> fresh = new HashMap<>();
+        jdbcTemplate.query("SELECT factory_id, material_id, COALESCE(quantity, 0) FROM factory_material", rs -> {
+            fresh.computeIfAbsent(rs.getLong(1), id -> new LongDoubleMap()).put(rs.getLong(2), rs.getDouble(3));
+        });
+
+        int replaced = 0;
+        int skipped = 0;
+        for (Map.Entry<Long, LongDoubleMap> entry : fresh.entrySet()) {
+            FactoryStock stock = factories.computeIfAbsent(entry.getKey(), id -> new FactoryStock());
+            Long before = versionsBefore.get(entry.getKey());
+            if (stock.replaceIfUnchanged(before == null ? 0L : before, entry.getValue())) {
+                replaced++;
+            } else {
+                skipped++;
+            }
+        }
+        log.info("재고 스냅샷 동기화 - 공장: {}개, 반영: {}개, 적재 중 변경으로 건너뜀: {}개", fresh.size(), replaced, skipped);
+    }
+
+    // 공장 하나의 재고. 읽기/쓰기 모두 짧은 임계 구역이라 모니터 락으로 충분하다.
+    private static final class FactoryStock {
+        private LongDoubleMap quantities = new LongDoubleMap();
+        private long version;
+
+        synchronized Double get(long materialId) {
+            return quantities.containsKey(materialId) ? quantities.get(materialId) : null;
+        }
+
+        synchronized void add(Map<Long, Double> deltas) {
+            deltas.forEach((materialId, delta) -> quantities.put(materialId, quantities.get(materialId) + delta));
+            version++;
+        }
+
+        synchronized long version() {
+            return version;
+        }
+
+        synchronized boolean replaceIfUnchanged(long expectedVersion, LongDoubleMap fresh) {
+            if (version != expectedVersion) return false;
+            quantities = fresh;
+            return true;
+        }
+    }
+
+    /**
+     * 박싱 없는 long→double 오픈 어드레싱 해시맵. (선형 탐사, 삭제 미지원)
+     */
+    static final class LongDoubleMap {
+        private long[] keys = new long[16];
+        private double[] values = new double[16];
+        private boolean[] used = new boolean[16];
+        private int size;
+
+        double get(long key) {
+            int slot = find(key);
+            return slot >= 0 ? values[slot] : 0.0;
+        }
+
+        boolean containsKey(long key) {
+            return find(key) >= 0;
+        }
+
+        void put(long key, double value) {
+            if ((size + 1) * 4 > keys.length * 3) grow();
+            int mask = keys.length - 1;
+            int slot = slotOf(key, mask);
+            while (used[slot] && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (!used[slot]) {
+                used[slot] = true;
+                keys[slot] = key;
+                size++;
+            }
+            values[slot] = value;
+        }
+
+        private int find(long key) {
+            int mask = keys.length - 1;
+            int slot = slotOf(key, mask);
+            while (used[slot]) {
+                if (keys[slot] == key) return slot;
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            double[] oldValues = values;
+            boolean[] oldUsed = used;
+            keys = new long[oldKeys.length * 2];
+            values = new double[oldKeys.length * 2];
+            used = new boolean[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) put(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        private static int slotOf(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
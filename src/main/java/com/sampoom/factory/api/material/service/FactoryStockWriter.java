@@ -0,0 +1,416 @@
+package com.sampoom.factory.api.material.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 공장별 단일 writer 재고 반영 파이프라인.
+ *
+ * <ul>
+ *   <li>factoryId 해시로 레인(단일 스레드)을 고르므로 한 공장의 재고 변경은 항상 한 스레드에서 순서대로 반영된다.</li>
+ *   <li>레인은 짧은 윈도우(window-ms) 동안 요청을 모은 뒤, 공장별로 트랜잭션 하나에서
+ *       관련 자재 행을 material_id 순으로 한 번에 잠그고(SELECT ... FOR UPDATE) 요청을 도착 순서대로 메모리에서 평가한다.</li>
+ *   <li>차감 요청은 요청 단위로 전부 반영되거나 전혀 반영되지 않으며, 부족한 자재 ID 목록으로 응답한다.</li>
+ *   <li>반영 결과는 자재별 순증감으로 합산해 batch UPSERT 한 번으로 쓰고, 커밋 후 호출자에게 응답한다.</li>
+ *   <li>응답 대기(ack-timeout-ms)가 끝난 요청은 레인이 아직 집어 들지 않았다면 취소되어 반영되지 않는다.
+ *       이미 반영 중이면 호출자는 실제 결과가 나올 때까지 기다린다. 따라서 호출자가 예외를 받았는데 재고만 바뀌는 경우는 없다.</li>
+ *   <li>반영은 호출자 트랜잭션과 별도로 커밋되므로, 반영한 요청마다 되돌릴 증감을 같은 트랜잭션에서 factory_stock_reversal에 남긴다.
+ *       호출자는 자기 트랜잭션 안에서 그 행을 지우고({@link #confirm}), 롤백되면 행이 남아 {@link #reverse}가 되돌린다.
+ *       호출자 JVM이 중간에 죽어도 남은 행은 reversal-grace-ms가 지난 뒤 어느 인스턴스에서든 정리 작업이 되돌린다.</li>
+ * </ul>
+ * 행 잠금은 윈도우당 한 번만 잡히므로 MRP 반영, 스케줄러 완료, 입고가 같은 행을 두고 줄 서지 않는다.
+ * 여러 인스턴스가 떠 있어도 FOR UPDATE로 직렬화되므로 정합성은 유지된다.
+ */
+@Slf4j
+@Component
+public class FactoryStockWriter {
+
+    private static final String UPSERT_DELTA_SQL = """
+            INSERT INTO factory_material (factory_id, material_id, quantity) VALUES (?, ?, ?)
+            ON CONFLICT (factory_id, material_id) DO UPDATE SET quantity = COALESCE(factory_material.quantity, 0) + EXCLUDED.quantity
+            """;
+    private static final String INSERT_REVERSAL_SQL =
+            "INSERT INTO factory_stock_reversal (token, factory_id, material_id, quantity) VALUES (?, ?, ?, ?)";
+
+    enum Kind { DEDUCT, ADD }
+
+    /**
+     * @param reversalToken 반영 시 되돌릴 증감을 남길 키 (null이면 남기지 않음)
+     * @param decided 레인이 반영을 시작했거나(claim) 호출자가 취소했으면 true. 먼저 바꾼 쪽이 이긴다.
+     */
+    record StockMutation(Long factoryId, Kind kind, Map<Long, Double> quantities, UUID reversalToken,
+                         CompletableFuture<List<Long>> result, AtomicBoolean decided) {
+
+        boolean claim() {
+            return decided.compareAndSet(false, true);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FactoryStockSnapshot factoryStockSnapshot;
+    private final MaterialReorderMonitor materialReorderMonitor;
+    private final MaterialStockChangeStream materialStockChangeStream;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long windowMs;
+    private final int maxBatch;
+    private final long ackTimeoutMs;
+    private final long reversalGraceMs;
+    private final Lane[] lanes;
+
+    public FactoryStockWriter(JdbcTemplate jdbcTemplate,
+                              FactoryStockSnapshot factoryStockSnapshot,
+                              MaterialReorderMonitor materialReorderMonitor,
+                              MaterialStockChangeStream materialStockChangeStream,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${factory.stock.pipeline.enabled:false}") boolean enabled,
+                              @Value("${factory.stock.pipeline.stripes:0}") int stripes,
+                              @Value("${factory.stock.pipeline.window-ms:5}") long windowMs,
+                              @Value("${factory.stock.pipeline.max-batch:500}") int maxBatch,
+                              @Value("${factory.stock.pipeline.ack-timeout-ms:10000}") long ackTimeoutMs,
+                              @Value("${factory.stock.pipeline.reversal-grace-ms:60000}") long reversalGraceMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.factoryStockSnapshot = factoryStockSnapshot;
+        this.materialReorderMonitor = materialReorderMonitor;
+        this.materialStockChangeStream = materialStockChangeStream;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.windowMs = windowMs;
+        this.maxBatch = maxBatch;
+        this.ackTimeoutMs = ackTimeoutMs;
+        this.reversalGraceMs = reversalGraceMs;
+
+        if (enabled) {
+            int count = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+            this.lanes = new Lane[count];
+            for (int i = 0; i < count; i++) {
+                lanes[i] = new Lane(i);
+            }
+            log.info("공장별 재고 반영 파이프라인 활성화 - 레인: {}, 윈도우: {}ms, 최대 배치: {}", count, windowMs, maxBatch);
+        } else {
+            this.lanes = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        if (!enabled) return;
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS factory_stock_reversal (
+                    token uuid NOT NULL,
+                    factory_id bigint NOT NULL,
+                    material_id bigint NOT NULL,
+                    quantity double precision NOT NULL,
+                    created_at timestamp NOT NULL DEFAULT now(),
+                    PRIMARY KEY (token, material_id)
+                )
+                """);
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_factory_stock_reversal_created_at ON factory_stock_reversal (created_at)");
+    }
+
+    /**
+     * 차감을 요청하고 반영될 때까지 기다린다. 부족한 자재가 있으면 아무것도 차감하지 않고 그 자재 ID 목록을 돌려준다.
+     * 차감되면 reversalToken으로 되돌릴 증감(가산)이 남는다.
+     */
+    public List<Long> deduct(Long factoryId, Map<Long, Double> quantities, UUID reversalToken) {
+        return await(submit(factoryId, Kind.DEDUCT, quantities, reversalToken));
+    }
+
+    /**
+     * 입고를 요청하고 반영될 때까지 기다린다. 재고 행이 없으면 새로 만든다.
+     * reversalToken으로 되돌릴 증감(차감)이 남는다.
+     */
+    public void add(Long factoryId, Map<Long, Double> quantities, UUID reversalToken) {
+        await(submit(factoryId, Kind.ADD, quantities, reversalToken));
+    }
+
+    /**
+     * 호출자 트랜잭션 안에서 되돌림 기록을 지운다. 호출자가 커밋하면 반영이 확정되고, 롤백되면 기록이 남는다.
+     * 지울 행이 없으면 정리 작업이 이미 되돌린 것이므로 예외를 던져 호출자 트랜잭션도 롤백시킨다.
+     */
+    public void confirm(UUID reversalToken) {
+        int deleted = jdbcTemplate.update("DELETE FROM factory_stock_reversal WHERE token = ?", reversalToken);
+        if (deleted == 0) {
+            throw new IllegalStateException("Stock update " + reversalToken + " was already reversed");
+        }
+    }
+
+    /**
+     * 남아 있는 되돌림 기록을 별도 트랜잭션에서 반영하고 지운다. 이미 확정되었거나 다른 곳에서 처리 중이면 아무것도 하지 않는다.
+     * 입고를 되돌리는 차감은 부족 검사를 거치며, 부족하면 기록을 남긴 채 예외를 던진다. (다음 정리 주기에 다시 시도)
+     */
+    public void reverse(UUID reversalToken) {
+        Map<Long, Double> reversed = new LinkedHashMap<>();
+        Long factoryId = transactionTemplate.execute(status -> {
+            Long[] factory = new Long[1];
+            jdbcTemplate.query(
+                    "SELECT factory_id, material_id, quantity FROM factory_stock_reversal WHERE token = ?"
+                            + " ORDER BY material_id FOR UPDATE SKIP LOCKED",
+                    rs -> {
+                        factory[0] = rs.getLong(1);
+                        reversed.put(rs.getLong(2), rs.getDouble(3));
+                    }, reversalToken);
+            if (reversed.isEmpty()) return null;
+
+            Map<Long, Double> balance = lockBalances(factory[0], new TreeSet<>(reversed.keySet()));
+            List<Long> insufficient = new ArrayList<>();
+            reversed.forEach((materialId, quantity) -> {
+                if (quantity < 0 && balance.getOrDefault(materialId, 0.0) < -quantity) insufficient.add(materialId);
+            });
+            if (!insufficient.isEmpty()) {
+                throw new IllegalStateException("Cannot reverse stock update " + reversalToken + ", insufficient materials: " + insufficient);
+            }
+
+            List<Object[]> args = new ArrayList<>(reversed.size());
+            reversed.forEach((materialId, quantity) -> args.add(new Object[]{factory[0], materialId, quantity}));
+            jdbcTemplate.batchUpdate(UPSERT_DELTA_SQL, args);
+            jdbcTemplate.update("DELETE FROM factory_stock_reversal WHERE token = ?", reversalToken);
+            return factory[0];
+        });
+        if (factoryId == null) return;
+
+        log.warn("호출자 롤백으로 재고 반영 되돌림 - 공장ID: {}, 자재: {}", factoryId, reversed);
+        factoryStockSnapshot.apply(factoryId, reversed);
+        materialReorderMonitor.onStockChanged(factoryId, reversed);
+        materialStockChangeStream.onStockChanged(factoryId, reversed.keySet());
+    }
+
+    /**
+     * 유예 시간이 지나도 확정되지 않은 되돌림 기록을 처리한다. (롤백 직후 되돌림이 실패했거나 호출자 JVM이 죽은 경우)
+     */
+    @Scheduled(fixedDelayString = "${factory.stock.pipeline.reversal-sweep-ms:60000}")
+    public void sweepReversals() {
+        if (!enabled) return;
+        List<UUID> tokens = jdbcTemplate.queryForList(
+                "SELECT DISTINCT token FROM factory_stock_reversal WHERE created_at < now() - make_interval(secs => ?)",
+                UUID.class, reversalGraceMs / 1000.0);
+        for (UUID token : tokens) {
+            try {
+                reverse(token);
+            } catch (Exception e) {
+                log.error("재고 반영 되돌림 실패 - 토큰: {}, 오류: {}", token, e.getMessage(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (lanes == null) return;
+        for (Lane lane : lanes) {
+            lane.executor.shutdown();
+        }
+        for (Lane lane : lanes) {
+            try {
+                if (!lane.executor.awaitTermination(ackTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    log.warn("재고 반영 레인 종료 대기 초과 - 레인: {}, 미처리: {}건", lane.index, lane.queue.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private StockMutation submit(Long factoryId, Kind kind, Map<Long, Double> quantities, UUID reversalToken) {
+        if (lanes == null) throw new IllegalStateException("Stock pipeline is disabled");
+        StockMutation mutation = new StockMutation(factoryId, kind, quantities, reversalToken,
+                new CompletableFuture<>(), new AtomicBoolean());
+        lanes[Math.floorMod(Long.hashCode(factoryId), lanes.length)].submit(mutation);
+        return mutation;
+    }
+
+    // 대기 시간이 지나면 아직 반영 전인 요청은 취소하고, 이미 반영 중인 요청은 결과(커밋/롤백)가 나올 때까지 기다린다
+    private List<Long> await(StockMutation mutation) {
+        try {
+            try {
+                return mutation.result().get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (mutation.claim()) {
+                    throw new IllegalStateException("Stock update was not acknowledged within " + ackTimeoutMs + "ms and was cancelled", e);
+                }
+                log.warn("재고 반영 응답 대기 초과, 반영 중이므로 결과를 기다림 - 공장ID: {}", mutation.factoryId());
+                return mutation.result().get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (mutation.claim()) throw new IllegalStateException("Interrupted while waiting for stock update (cancelled)", e);
+            // 이미 반영 중이라 취소할 수 없으므로 결과를 끝까지 받아 호출자에게 정확히 알린다
+            return mutation.result().join();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void flush(List<StockMutation> batch) {
+        Map<Long, List<StockMutation>> byFactory = new LinkedHashMap<>();
+        for (StockMutation mutation : batch) {
+            byFactory.computeIfAbsent(mutation.factoryId(), id -> new ArrayList<>()).add(mutation);
+        }
+
+        byFactory.forEach((factoryId, claimed) -> {
+            // 대기 시간이 지나 호출자가 취소한 요청은 반영하지 않는다
+            List<StockMutation> mutations = claimed.stream().filter(StockMutation::claim).toList();
+            if (mutations.size() < claimed.size()) {
+                log.warn("취소된 재고 반영 요청 건너뜀 - 공장ID: {}, 취소: {}건", factoryId, claimed.size() - mutations.size());
+            }
+            if (mutations.isEmpty()) return;
+            try {
+                Map<StockMutation, List<Long>> results = transactionTemplate.execute(status -> apply(factoryId, mutations));
+                Map<Long, Double> committed = committedDelta(results);
+                factoryStockSnapshot.apply(factoryId, committed);
+                materialReorderMonitor.onStockChanged(factoryId, committed);
+                materialStockChangeStream.onStockChanged(factoryId, committed.keySet());
+                results.forEach((mutation, insufficient) -> mutation.result().complete(insufficient));
+            } catch (Exception e) {
+                log.error("재고 일괄 반영 실패 - 공장ID: {}, 요청: {}건, 오류: {}", factoryId, mutations.size(), e.getMessage(), e);
+                mutations.forEach(mutation -> mutation.result().completeExceptionally(e));
+            }
+        });
+    }
+
+    private Map<StockMutation, List<Long>> apply(Long factoryId, List<StockMutation> mutations) {
+        TreeSet<Long> materialIds = new TreeSet<>();
+        mutations.forEach(mutation -> materialIds.addAll(mutation.quantities().keySet()));
+
+        Map<Long, Double> balance = lockBalances(factoryId, materialIds);
+        Map<Long, Double> delta = new LinkedHashMap<>();
+        Map<StockMutation, List<Long>> results = new LinkedHashMap<>();
+
+        for (StockMutation mutation : mutations) {
+            if (mutation.kind() == Kind.ADD) {
+                mutation.quantities().forEach((materialId, quantity) -> {
+                    balance.merge(materialId, quantity, Double::sum);
+                    delta.merge(materialId, quantity, Double::sum);
+                });
+                results.put(mutation, List.of());
+                continue;
+            }
+
+            List<Long> insufficient = new ArrayList<>();
+            mutation.quantities().forEach((materialId, quantity) -> {
+                Double available = balance.get(materialId);
+                if (available == null || available < quantity) insufficient.add(materialId);
+            });
+            if (insufficient.isEmpty()) {
+                mutation.quantities().forEach((materialId, quantity) -> {
+                    balance.merge(materialId, -quantity, Double::sum);
+                    delta.merge(materialId, -quantity, Double::sum);
+                });
+            }
+            results.put(mutation, insufficient);
+        }
+
+        List<Object[]> args = new ArrayList<>(delta.size());
+        delta.forEach((materialId, quantity) -> {
+            if (quantity != 0) args.add(new Object[]{factoryId, materialId, quantity});
+        });
+        if (!args.isEmpty()) jdbcTemplate.batchUpdate(UPSERT_DELTA_SQL, args);
+
+        // 반영된 요청마다 되돌릴 증감을 같은 트랜잭션에 남긴다 (차감은 가산으로, 입고는 차감으로)
+        List<Object[]> reversals = new ArrayList<>();
+        results.forEach((mutation, insufficient) -> {
+            if (mutation.reversalToken() == null || !insufficient.isEmpty()) return;
+            double sign = mutation.kind() == Kind.DEDUCT ? 1 : -1;
+            mutation.quantities().forEach((materialId, quantity) ->
+                    reversals.add(new Object[]{mutation.reversalToken(), factoryId, materialId, sign * quantity}));
+        });
+        if (!reversals.isEmpty()) jdbcTemplate.batchUpdate(INSERT_REVERSAL_SQL, reversals);
+
+        log.debug("재고 일괄 반영 - 공장ID: {}, 요청: {}건, 자재: {}종, 반영 행: {}", factoryId, mutations.size(), materialIds.size(), args.size());
+        return results;
+    }
+
+    private static Map<Long, Double> committedDelta(Map<StockMutation, List<Long>> results) {
+        Map<Long, Double> delta = new LinkedHashMap<>();
+        results.forEach((mutation, insufficient) -> {
+            if (!insufficient.isEmpty()) return;
+            double sign = mutation.kind() == Kind.DEDUCT ? -1 : 1;
+            mutation.quantities().forEach((materialId, quantity) -> delta.merge(materialId, sign * quantity, Double::sum));
+        });
+        return delta;
+    }
+
+    // 교착을 피하려고 항상 material_id 순으로 잠근다
+    private Map<Long, Double> lockBalances(Long factoryId, TreeSet<Long> materialIds) {
+        Map<Long, Double> balance = new HashMap<>();
+        if (materialIds.isEmpty()) return balance;
+
+        List<Object> args = new ArrayList<>(materialIds.size() + 1);
+        args.add(factoryId);
+        args.addAll(materialIds);
+        jdbcTemplate.query(
+                "SELECT material_id, COALESCE(quantity, 0) FROM factory_material WHERE factory_id = ? AND material_id IN ("
+                        + String.join(", ", Collections.nCopies(materialIds.size(), "?"))
+                        + ") ORDER BY material_id FOR UPDATE",
+                rs -> {
+                    balance.put(rs.getLong(1), rs.getDouble(2));
+                }, args.toArray());
+        return balance;
+    }
+
+    private final class Lane {
+        private final int index;
+        private final ScheduledExecutorService executor;
+        private final ConcurrentLinkedQueue<StockMutation> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Lane(int index) {
+            this.index = index;
+            this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "factory-stock-lane-" + index);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        private void submit(StockMutation mutation) {
+            queue.add(mutation);
+            if (scheduled.compareAndSet(false, true)) {
+                executor.schedule(this::drain, windowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private void drain() {
+            scheduled.set(false);
+            List<StockMutation> batch = new ArrayList<>();
+            StockMutation mutation;
+            while (batch.size() < maxBatch && (mutation = queue.poll()) != null) {
+                batch.add(mutation);
+            }
+            // 한 번에 다 못 비웠으면 윈도우를 기다리지 않고 바로 이어서 처리
+            if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+            if (!batch.isEmpty()) flush(batch);
+        }
+    }
+}
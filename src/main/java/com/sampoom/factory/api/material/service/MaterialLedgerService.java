@@ -0,0 +1,253 @@
+package com.sampoom.factory.api.material.service;
+
+import com.sampoom.factory.api.material.dto.MaterialMovementResponseDto;
+import com.sampoom.factory.api.material.dto.MaterialStockAtResponseDto;
+import com.sampoom.factory.api.material.entity.MovementType;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 자재 재고 이동 원장 (append-only).
+ *
+ * <ul>
+ *   <li>material_movement: 입고/투입/조정 한 건마다 부호 있는 증감량과 원인 문서를 남긴다. occurred_at 기준 월별 RANGE 파티션이며,
+ *       다음 달 파티션은 미리 만들고 범위 밖의 행은 DEFAULT 파티션이 받는다.</li>
+ *   <li>material_stock_checkpoint: 주기적으로 (공장, 자재)별 누적 수량을 기록한다. 직전 체크포인트 이후 이동이 있었던 쌍만 새로 쓴다.</li>
+ *   <li>"시점 T의 재고" = T 이전 가장 가까운 체크포인트 + 그 이후 T까지의 이동 합. 마지막 체크포인트 시각 이후의 파티션만 읽는다.</li>
+ * </ul>
+ * 이동은 재고를 바꾼 트랜잭션 안에서 JDBC batch로 함께 쓰므로, 재고 변경이 롤백되면 원장도 남지 않는다.
+ * 체크포인트는 진행 중인 트랜잭션의 이동을 놓치지 않도록 현재보다 {@code checkpoint-lag-minutes}만큼 이전 시각까지만 접는다.
+ * 원장을 처음 켠 시점의 factory_material 수량이 시작 체크포인트가 되며, 그 이전 시점은 조회할 수 없다.
+ */
+@Slf4j
+@Service
+public class MaterialLedgerService {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+
+    private static final String INSERT_SQL = """
+            INSERT INTO material_movement (factory_id, material_id, movement_type, quantity, reference_type, reference_id)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int checkpointLagMinutes;
+    private final int partitionMonthsAhead;
+
+    public MaterialLedgerService(JdbcTemplate jdbcTemplate,
+                                 @Value("${factory.stock.ledger.enabled:false}") boolean enabled,
+                                 @Value("${factory.stock.ledger.checkpoint-lag-minutes:60}") int checkpointLagMinutes,
+                                 @Value("${factory.stock.ledger.partition-months-ahead:1}") int partitionMonthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.checkpointLagMinutes = checkpointLagMinutes;
+        this.partitionMonthsAhead = partitionMonthsAhead;
+    }
+
+    /**
+     * 호출자 트랜잭션 안에서 자재별 이동을 batch INSERT 한 번으로 기록한다.
+     *
+     * @param signedQuantities 자재별 부호 있는 증감량 (투입은 음수)
+     */
+    public void record(Long factoryId, MovementType type, StockMovementReference reference, Map<Long, Double> signedQuantities) {
+        if (!enabled || signedQuantities.isEmpty()) return;
+        String referenceType = reference != null ? reference.type() : null;
+        Long referenceId = reference != null ? reference.id() : null;
+
+        List<Object[]> args = new ArrayList<>(signedQuantities.size());
+        signedQuantities.forEach((materialId, quantity) ->
+                args.add(new Object[]{factoryId, materialId, type.name(), quantity, referenceType, referenceId}));
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+    }
+
+    /**
+     * 시점 at의 공장 자재별 재고. 체크포인트가 없는 시점(원장 시작 이전)의 자재는 포함되지 않는다.
+     */
+    @Transactional(readOnly = true)
+    public List<MaterialStockAtResponseDto> stockAt(Long factoryId, LocalDateTime at) {
+        if (!enabled) return List.of();
+        Timestamp atTs = Timestamp.valueOf(at);
+
+        // 체크포인트 작업은 이동이 있었던 쌍을 모두 접으므로, 이 공장의 마지막 체크포인트 이후 이동만 더하면 된다
+        Timestamp since = jdbcTemplate.queryForObject(
+                "SELECT MAX(checkpoint_at) FROM material_stock_checkpoint WHERE factory_id = ? AND checkpoint_at <= ?",
+                Timestamp.class, factoryId, atTs);
+
+        return jdbcTemplate.query("""
+                WITH cp AS (
+                    SELECT DISTINCT ON (material_id) material_id, quantity
+                    FROM material_stock_checkpoint
+                    WHERE factory_id = ? AND checkpoint_at <= ?
+                    ORDER BY material_id, checkpoint_at DESC
+                ), mv AS (
+                    SELECT material_id, SUM(quantity) AS delta
+                    FROM material_movement
+                    WHERE factory_id = ? AND occurred_at > COALESCE(CAST(? AS timestamp), '-infinity'::timestamp) AND occurred_at <= ?
+                    GROUP BY material_id
+                )
+                SELECT COALESCE(cp.material_id, mv.material_id), COALESCE(cp.quantity, 0) + COALESCE(mv.delta, 0)
+                FROM cp FULL JOIN mv ON cp.material_id = mv.material_id
+                ORDER BY 1
+                """,
+                (rs, rowNum) -> MaterialStockAtResponseDto.builder()
+                        .materialId(rs.getLong(1))
+                        .quantity(rs.getDouble(2))
+                        .at(at)
+                        .build(),
+                factoryId, atTs, factoryId, since, atTs);
+    }
+
+    /**
+     * 기간 내 자재 이동 내역 (최신순).
+     */
+    @Transactional(readOnly = true)
+    public List<MaterialMovementResponseDto> movements(Long factoryId, Long materialId, LocalDateTime from, LocalDateTime to) {
+        if (!enabled) return List.of();
+        return jdbcTemplate.query("""
+                SELECT id, material_id, movement_type, quantity, reference_type, reference_id, occurred_at
+                FROM material_movement
+                WHERE factory_id = ? AND material_id = ? AND occurred_at >= ? AND occurred_at < ?
+                ORDER BY occurred_at DESC, id DESC
+                """,
+                (rs, rowNum) -> MaterialMovementResponseDto.builder()
+                        .id(rs.getLong(1))
+                        .materialId(rs.getLong(2))
+                        .movementType(MovementType.valueOf(rs.getString(3)))
+                        .quantity(rs.getDouble(4))
+                        .referenceType(rs.getString(5))
+                        .referenceId(rs.getObject(6, Long.class))
+                        .occurredAt(rs.getTimestamp(7).toLocalDateTime())
+                        .build(),
+                factoryId, materialId, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    // 컨슈머가 재고를 바꾸기 시작하기 전에 테이블이 있어야 하므로 빈 초기화 시점에 만든다
+    @PostConstruct
+    public void initialize() {
+        if (!enabled) return;
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS material_movement (
+                    id bigserial,
+                    factory_id bigint NOT NULL,
+                    material_id bigint NOT NULL,
+                    movement_type varchar(20) NOT NULL,
+                    quantity double precision NOT NULL,
+                    reference_type varchar(30),
+                    reference_id bigint,
+                    occurred_at timestamp NOT NULL DEFAULT clock_timestamp(),
+                    PRIMARY KEY (id, occurred_at)
+                ) PARTITION BY RANGE (occurred_at)
+                """);
+        // 트랜잭션 시작 시각(now())이 아니라 실제 INSERT 시각으로 남겨야 시작 체크포인트와 경계가 맞는다
+        jdbcTemplate.execute("ALTER TABLE material_movement ALTER COLUMN occurred_at SET DEFAULT clock_timestamp()");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_material_movement_key"
+                + " ON material_movement (factory_id, material_id, occurred_at)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS material_movement_default PARTITION OF material_movement DEFAULT");
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS material_stock_checkpoint (
+                    factory_id bigint NOT NULL,
+                    material_id bigint NOT NULL,
+                    checkpoint_at timestamp NOT NULL,
+                    quantity double precision NOT NULL,
+                    PRIMARY KEY (factory_id, material_id, checkpoint_at)
+                )
+                """);
+        ensurePartitions();
+    }
+
+    /**
+     * 원장을 처음 켤 때 한 번, 현재 재고를 시작 체크포인트로 남긴다.
+     * <p>
+     * 재고와 원장 테이블을 쓰기 잠금한 상태에서 읽으므로, 진행 중이던 재고 변경은 모두 커밋된 뒤 수량에 포함되고
+     * 그 이동의 occurred_at(INSERT 시각)은 체크포인트 시각보다 앞선다. 잠금을 기다리던 변경은 해제 후에 이동을 쓰므로
+     * 체크포인트 이후 이동으로 합산된다. 컨슈머가 이미 돌고 있거나 다른 인스턴스가 쓰는 중이어도 누락/중복이 없다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void seedOpeningBalances() {
+        if (!enabled) return;
+        if (!checkpointsEmpty()) return;
+        jdbcTemplate.execute("LOCK TABLE factory_material, material_movement, material_stock_checkpoint"
+                + " IN SHARE ROW EXCLUSIVE MODE");
+        if (!checkpointsEmpty()) return;
+        int seeded = jdbcTemplate.update("""
+                INSERT INTO material_stock_checkpoint (factory_id, material_id, checkpoint_at, quantity)
+                SELECT factory_id, material_id, statement_timestamp(), COALESCE(quantity, 0) FROM factory_material
+                ON CONFLICT DO NOTHING
+                """);
+        log.info("자재 원장 시작 체크포인트 생성 - {}건", seeded);
+    }
+
+    private boolean checkpointsEmpty() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT NOT EXISTS (SELECT 1 FROM material_stock_checkpoint)", Boolean.class));
+    }
+
+    /**
+     * 다음 달 파티션을 미리 만들고, 체크포인트를 접는다.
+     */
+    @Scheduled(cron = "${factory.stock.ledger.checkpoint-cron:0 30 0 * * *}")
+    public void maintain() {
+        if (!enabled) return;
+        ensurePartitions();
+        checkpoint();
+    }
+
+    private void ensurePartitions() {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= partitionMonthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            String partition = "material_movement_" + month.format(PARTITION_SUFFIX);
+            try {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF material_movement"
+                        + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+            } catch (Exception e) {
+                // DEFAULT 파티션에 이미 해당 월의 행이 있으면 만들 수 없다. 조회에는 지장이 없다
+                log.warn("자재 원장 파티션 생성 실패 - {}: {}", partition, e.getMessage());
+            }
+        }
+    }
+
+    private void checkpoint() {
+        Timestamp until = Timestamp.valueOf(LocalDateTime.now().minusMinutes(checkpointLagMinutes));
+        Timestamp since = jdbcTemplate.queryForObject(
+                "SELECT MAX(checkpoint_at) FROM material_stock_checkpoint", Timestamp.class);
+        if (since != null && !since.before(until)) return;
+
+        // 직전 체크포인트 시각 이후 이동이 있었던 쌍만 (직전 누적 + 이동 합)으로 새 체크포인트를 쓴다
+        int written = jdbcTemplate.update("""
+                WITH mv AS (
+                    SELECT factory_id, material_id, SUM(quantity) AS delta
+                    FROM material_movement
+                    WHERE occurred_at > COALESCE(CAST(? AS timestamp), '-infinity'::timestamp) AND occurred_at <= ?
+                    GROUP BY factory_id, material_id
+                ), cp AS (
+                    SELECT DISTINCT ON (c.factory_id, c.material_id) c.factory_id, c.material_id, c.quantity
+                    FROM material_stock_checkpoint c
+                    JOIN mv ON mv.factory_id = c.factory_id AND mv.material_id = c.material_id
+                    ORDER BY c.factory_id, c.material_id, c.checkpoint_at DESC
+                )
+                INSERT INTO material_stock_checkpoint (factory_id, material_id, checkpoint_at, quantity)
+                SELECT mv.factory_id, mv.material_id, ?, COALESCE(cp.quantity, 0) + mv.delta
+                FROM mv LEFT JOIN cp ON cp.factory_id = mv.factory_id AND cp.material_id = mv.material_id
+                ON CONFLICT DO NOTHING
+                """, since, until, until);
+        log.info("자재 원장 체크포인트 - 기준 시각: {}, 기록: {}건", until, written);
+    }
+}
@@ -8,6 +8,7 @@ import com.sampoom.factory.api.factory.repository.FactoryProjectionRepository;
 import com.sampoom.factory.api.material.entity.OrderStatus;
 import com.sampoom.factory.api.material.repository.MaterialProjectionRepository;
 import com.sampoom.factory.api.material.entity.MaterialProjection;
+import com.sampoom.factory.api.material.dto.MaterialOrderItemRequestDto;
 import com.sampoom.factory.api.material.dto.MaterialOrderRequestDto;
 import com.sampoom.factory.api.material.dto.MaterialOrderResponseDto;
 import com.sampoom.factory.api.material.entity.MaterialOrder;
@@ -25,6 +26,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -42,6 +45,16 @@ public class MaterialOrderService {
         FactoryProjection factory = factoryProjectionRepository.findById(factoryId)
                 .orElseThrow(() -> new NotFoundException(ErrorStatus.FACTORY_NOT_FOUND));
 
+        // 요청한 자재를 한 번에 조회해 모두 존재하는지 검증
+        List<Long> materialIds = requestDto.getItems().stream()
+                .map(MaterialOrderItemRequestDto::getMaterialId)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, MaterialProjection> projections = findProjections(materialIds);
+        if (projections.size() < materialIds.size()) {
+            throw new NotFoundException(ErrorStatus.MATERIAL_NOT_FOUND);
+        }
+
         MaterialOrder order = MaterialOrder.builder()
                 .code(generateOrderCode())
                 .factoryId(factoryId)
@@ -52,39 +65,19 @@ public class MaterialOrderService {
         orderRepository.save(order);
 
         List<MaterialOrderItem> orderItems = requestDto.getItems().stream()
-                .map(item -> {
-                    MaterialProjection materialProjection = materialProjectionRepository.findByMaterialId(item.getMaterialId())
-                            .orElseThrow(() -> new NotFoundException(ErrorStatus.MATERIAL_NOT_FOUND));
-                    return MaterialOrderItem.builder()
-                            .materialOrder(order)
-                            .materialId(materialProjection.getMaterialId())
-                            .quantity(item.getQuantity())
-                            .build();
-                })
+                .map(item -> MaterialOrderItem.builder()
+                        .materialOrder(order)
+                        .materialId(item.getMaterialId())
+                        .quantity(item.getQuantity())
+                        .build())
                 .collect(Collectors.toList());
 
         orderItemRepository.saveAll(orderItems);
 
-        MaterialOrderResponseDto response = MaterialOrderResponseDto.from(order, orderItems, materialId ->
-            materialProjectionRepository.findByMaterialId(materialId)
-                .orElseThrow(() -> new NotFoundException(ErrorStatus.MATERIAL_NOT_FOUND))
-        );
-
-        // factoryName 설정
-        response = MaterialOrderResponseDto.builder()
-                .id(response.getId())
-                .code(response.getCode())
-                .factoryId(response.getFactoryId())
-                .factoryName(factory.getBranchName())
-                .status(response.getStatus())
-                .orderAt(response.getOrderAt())
-                .receivedAt(response.getReceivedAt())
-                .items(response.getItems())
-                .build();
-
-        return response;
+        return toResponse(order, orderItems, projections, factory.getBranchName());
     }
 
+    // 주문 페이지, 주문 항목, 자재 정보를 페이지당 고정 횟수(주문+count, 항목 IN, 자재 IN)로 조회
     @Transactional(readOnly = true)
     public PageResponseDto<MaterialOrderResponseDto> getMaterialOrdersByFactory(Long factoryId, int page, int size) {
         FactoryProjection factory = factoryProjectionRepository.findById(factoryId)
@@ -93,26 +86,19 @@ public class MaterialOrderService {
         PageRequest pageRequest = PageRequest.of(page, size);
         Page<MaterialOrder> ordersPage = orderRepository.findByFactoryId(factoryId, pageRequest);
 
+        List<Long> orderIds = ordersPage.getContent().stream().map(MaterialOrder::getId).collect(Collectors.toList());
+        Map<Long, List<MaterialOrderItem>> itemsByOrder = orderIds.isEmpty() ? Map.of()
+                : orderItemRepository.findWithOrderByMaterialOrderIdIn(orderIds).stream()
+                    .collect(Collectors.groupingBy(item -> item.getMaterialOrder().getId()));
+        Map<Long, MaterialProjection> projections = findProjections(itemsByOrder.values().stream()
+                .flatMap(List::stream)
+                .map(MaterialOrderItem::getMaterialId)
+                .distinct()
+                .collect(Collectors.toList()));
+
         List<MaterialOrderResponseDto> content = ordersPage.getContent().stream()
-                .map(order -> {
-                    List<MaterialOrderItem> items = orderItemRepository.findByMaterialOrderId(order.getId());
-                    MaterialOrderResponseDto response = MaterialOrderResponseDto.from(order, items, materialId ->
-                        materialProjectionRepository.findByMaterialId(materialId)
-                            .orElseThrow(() -> new NotFoundException(ErrorStatus.MATERIAL_NOT_FOUND))
-                    );
-
-                    // factoryName 설정
-                    return MaterialOrderResponseDto.builder()
-                            .id(response.getId())
-                            .code(response.getCode())
-                            .factoryId(response.getFactoryId())
-                            .factoryName(factory.getBranchName())
-                            .status(response.getStatus())
-                            .orderAt(response.getOrderAt())
-                            .receivedAt(response.getReceivedAt())
-                            .items(response.getItems())
-                            .build();
-                })
+                .map(order -> toResponse(order, itemsByOrder.getOrDefault(order.getId(), List.of()),
+                        projections, factory.getBranchName()))
                 .collect(Collectors.toList());
 
         return PageResponseDto.<MaterialOrderResponseDto>builder()
@@ -133,22 +119,7 @@ public class MaterialOrderService {
                 .orElseThrow(() -> new NotFoundException(ErrorStatus.ORDER_NOT_FOUND));
         order.cancel();
 
-        List<MaterialOrderItem> items = orderItemRepository.findByMaterialOrderId(orderId);
-        MaterialOrderResponseDto response = MaterialOrderResponseDto.from(order, items, materialId ->
-            materialProjectionRepository.findByMaterialId(materialId)
-                .orElseThrow(() -> new NotFoundException(ErrorStatus.MATERIAL_NOT_FOUND))
-        );
-
-        return MaterialOrderResponseDto.builder()
-                .id(response.getId())
-                .code(response.getCode())
-                .factoryId(response.getFactoryId())
-                .factoryName(factory.getBranchName())
-                .status(response.getStatus())
-                .orderAt(response.getOrderAt())
-                .receivedAt(response.getReceivedAt())
-                .items(response.getItems())
-                .build();
+        return toResponse(order, factory.getBranchName());
     }
 
     @Transactional
@@ -168,18 +139,36 @@ public class MaterialOrderService {
 
         MaterialOrder order = orderRepository.findByIdAndFactoryId(orderId, factoryId)
                 .orElseThrow(() -> new NotFoundException(ErrorStatus.ORDER_NOT_FOUND));
-        List<MaterialOrderItem> items = orderItemRepository.findByMaterialOrderId(orderId);
 
-        MaterialOrderResponseDto response = MaterialOrderResponseDto.from(order, items, materialId ->
-            materialProjectionRepository.findByMaterialId(materialId)
-                .orElseThrow(() -> new NotFoundException(ErrorStatus.MATERIAL_NOT_FOUND))
-        );
+        return toResponse(order, factory.getBranchName());
+    }
+
+    // 단건 주문: 항목 1회 + 자재 IN 1회
+    private MaterialOrderResponseDto toResponse(MaterialOrder order, String factoryName) {
+        List<MaterialOrderItem> items = orderItemRepository.findByMaterialOrderId(order.getId());
+        Map<Long, MaterialProjection> projections = findProjections(items.stream()
+                .map(MaterialOrderItem::getMaterialId)
+                .distinct()
+                .collect(Collectors.toList()));
+        return toResponse(order, items, projections, factoryName);
+    }
+
+    private MaterialOrderResponseDto toResponse(MaterialOrder order, List<MaterialOrderItem> items,
+                                                Map<Long, MaterialProjection> projections, String factoryName) {
+        MaterialOrderResponseDto response = MaterialOrderResponseDto.from(order, items, materialId -> {
+            MaterialProjection projection = projections.get(materialId);
+            if (projection == null) {
+                throw new NotFoundException(ErrorStatus.MATERIAL_NOT_FOUND);
+            }
+            return projection;
+        });
 
+        // factoryName 설정
         return MaterialOrderResponseDto.builder()
                 .id(response.getId())
                 .code(response.getCode())
                 .factoryId(response.getFactoryId())
-                .factoryName(factory.getBranchName())
+                .factoryName(factoryName)
                 .status(response.getStatus())
                 .orderAt(response.getOrderAt())
                 .receivedAt(response.getReceivedAt())
@@ -187,6 +176,14 @@ public class MaterialOrderService {
                 .build();
     }
 
+    private Map<Long, MaterialProjection> findProjections(List<Long> materialIds) {
+        if (materialIds.isEmpty()) {
+            return Map.of();
+        }
+        return materialProjectionRepository.findByMaterialIdIn(materialIds).stream()
+                .collect(Collectors.toMap(MaterialProjection::getMaterialId, Function.identity(), (first, second) -> first));
+    }
+
     private String generateOrderCode() {
         return "ORD-" + System.currentTimeMillis();
     }
@@ -1,181 +1,96 @@
 package com.sampoom.factory.api.material.service;
 
 import com.sampoom.factory.api.material.dto.MaterialEventDto;
-import com.sampoom.factory.api.material.entity.MaterialProjection;
-import com.sampoom.factory.api.material.entity.FactoryMaterial;
-import com.sampoom.factory.api.material.repository.MaterialProjectionRepository;
 import com.sampoom.factory.api.material.repository.FactoryMaterialRepository;
-import com.sampoom.factory.api.factory.entity.FactoryProjection;
-import com.sampoom.factory.api.factory.repository.FactoryProjectionRepository;
+import com.sampoom.factory.api.suggest.service.AutocompleteService;
+import com.sampoom.factory.common.projection.ProjectionApplyResult;
+import com.sampoom.factory.common.projection.ProjectionRow;
+import com.sampoom.factory.common.projection.ProjectionUpsertEngine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class MaterialProjectionService {
 
-    private final MaterialProjectionRepository materialProjectionRepository;
+    private static final String TABLE = "material_projection";
+    private static final String KEY = "material_id";
+
+    private final ProjectionUpsertEngine projectionUpsertEngine;
     private final FactoryMaterialRepository factoryMaterialRepository;
-    private final FactoryProjectionRepository factoryProjectionRepository;
+    private final AutocompleteService autocompleteService;
+    private final MaterialReorderMonitor materialReorderMonitor;
 
     @Transactional
-    public void handleMaterialEvent(MaterialEventDto eventDto) {
-        final Long materialId = eventDto.getPayload().getMaterialId();
-        final Long incomingVer = nvl(eventDto.getVersion(), 0L);
-
-        MaterialProjection mp = materialProjectionRepository.findByMaterialId(materialId).orElse(null);
-
-        // 멱등(같은 이벤트) 차단
-        if (mp != null && eventDto.getEventId() != null && mp.getLastEventId() != null) {
-            if (mp.getLastEventId().equals(eventDto.getEventId())) return;
-        }
-        // 역순(오래된 이벤트) 차단
-        if (mp != null && incomingVer <= nvl(mp.getVersion(), 0L)) return;
-
-        switch (eventDto.getEventType()) {
-            case "MaterialCreated":
-                handleMaterialCreated(eventDto);
-                break;
-            case "MaterialUpdated":
-                handleMaterialUpdated(eventDto);
-                break;
-            case "MaterialDeleted":
-                handleMaterialDeleted(eventDto);
-                break;
-            default:
-                log.warn("알 수 없는 이벤트 타입: {}", eventDto.getEventType());
-        }
-    }
-
-    private void handleMaterialCreated(MaterialEventDto eventDto) {
-        log.info("Material 생성 이벤트 처리: materialId={}", eventDto.getPayload().getMaterialId());
-
-        MaterialProjection mp = MaterialProjection.builder()
-                .materialId(eventDto.getPayload().getMaterialId())
-                .code(eventDto.getPayload().getMaterialCode())
-                .name(eventDto.getPayload().getName())
-                .baseQuantity(eventDto.getPayload().getBaseQuantity())
-                .standardQuantity(eventDto.getPayload().getStandardQuantity())     // 새로 추가된 필드
-                .categoryId(eventDto.getPayload().getMaterialCategoryId())
-                .standardCost(eventDto.getPayload().getStandardCost())
-                .standardTotalCost(eventDto.getPayload().getStandardTotalCost())   // 새로 추가된 필드
-                .materialUnit(eventDto.getPayload().getMaterialUnit())
-                .leadTime(eventDto.getPayload().getLeadTime())
-                .version(eventDto.getVersion())
-                .lastEventId(eventDto.getEventId())
-                .updatedAt(OffsetDateTime.now())          // 누락된 필드 추가
-                .sourceUpdatedAt(eventDto.getOccurredAt()) // 소스 업데이트 시간 추가
-                .deleted(false)
-                .build();
-
-        materialProjectionRepository.save(mp);
-        log.info("MaterialProjection 저장 완료: materialId={}", mp.getMaterialId());
-
-        // 모든 기존 공장에 새로운 자재를 수량 0으로 자동 연결
-        initializeMaterialToAllFactories(eventDto.getPayload().getMaterialId());
+    public ProjectionApplyResult handleMaterialEvent(MaterialEventDto eventDto) {
+        return handleMaterialEvents(List.of(eventDto));
     }
 
     /**
-     * 새로 생성된 자재를 모든 기존 공장에 수량 0으로 초기화
+     * 여러 Material 이벤트를 versioned UPSERT로 반영한다. (Created/Updated는 upsert)
+     * 실제로 새로 INSERT 된 자재만 모든 공장에 수량 0으로 연결한다.
      */
-    private void initializeMaterialToAllFactories(Long materialId) {
-        log.info("자재 공장 연결 초기화 시작: materialId={}", materialId);
-
-        // 모든 활성 공장 조회
-        List<FactoryProjection> allFactories = factoryProjectionRepository.findAll();
-
-        if (allFactories.isEmpty()) {
-            log.info("연결할 공장이 없습니다: materialId={}", materialId);
-            return;
-        }
-
-        // 각 공장에 새 자재를 수량 0으로 연결
-        List<FactoryMaterial> factoryMaterials = allFactories.stream()
-                .filter(factory -> !factory.getDeleted()) // 삭제되지 않은 공장만
-                .map(factory -> FactoryMaterial.builder()
-                        .factoryId(factory.getBranchId())
-                        .materialId(materialId)
-                        .quantity(0.0)
-                        .build())
-                .toList();
-
-        if (!factoryMaterials.isEmpty()) {
-            factoryMaterialRepository.saveAll(factoryMaterials);
-            log.info("자재 공장 연결 초기화 완료: materialId={}, 연결된 공장 수={}",
-                    materialId, factoryMaterials.size());
-        }
-    }
-
-    private void handleMaterialUpdated(MaterialEventDto eventDto) {
-        MaterialEventDto.Payload payload = eventDto.getPayload();
-
-        Optional<MaterialProjection> existingMaterial = materialProjectionRepository.findByMaterialId(payload.getMaterialId());
-        if (existingMaterial.isEmpty()) {
-            log.warn("존재하지 않는 Material materialId: {}", payload.getMaterialId());
-            return;
+    @Transactional
+    public ProjectionApplyResult handleMaterialEvents(List<MaterialEventDto> events) {
+        List<ProjectionRow> upserts = new ArrayList<>();
+        List<ProjectionRow> deletes = new ArrayList<>();
+
+        for (MaterialEventDto eventDto : ProjectionUpsertEngine.latestPerKey(events,
+                e -> e.getPayload().getMaterialId(), MaterialEventDto::getVersion)) {
+            switch (eventDto.getEventType()) {
+                case "MaterialCreated", "MaterialUpdated" -> upserts.add(toRow(eventDto));
+                case "MaterialDeleted" -> deletes.add(metaRow(eventDto));
+                default -> log.warn("알 수 없는 이벤트 타입: {}", eventDto.getEventType());
+            }
         }
 
-        MaterialProjection currentMaterial = existingMaterial.get();
+        ProjectionApplyResult result = projectionUpsertEngine.upsert(TABLE, KEY, upserts)
+                .merge(projectionUpsertEngine.markDeleted(TABLE, KEY, deletes));
+        log.info("Material 이벤트 반영 완료: 수신={}, 반영={}, 신규={}",
+                events.size(), result.applied().size(), result.inserted().size());
 
-        MaterialProjection updatedMaterial = currentMaterial.updateFromEvent(
-                payload.getMaterialCode(),
-                payload.getName(),
-                payload.getMaterialUnit(),
-                payload.getBaseQuantity(),
-                payload.getStandardQuantity(),        // 새로 추가된 필드
-                payload.getLeadTime(),
-                payload.getStandardCost(),
-                payload.getStandardTotalCost(),       // 새로 추가된 필드
-                payload.getDeleted(),
-                payload.getMaterialCategoryId(),
-                eventDto.getEventId(),
-                eventDto.getVersion(),
-                eventDto.getOccurredAt()
-        );
+        // 모든 기존 공장에 새로운 자재를 수량 0으로 자동 연결
+        initializeMaterialsToAllFactories(result.inserted());
 
-        materialProjectionRepository.save(updatedMaterial);
-        log.info("Material 업데이트 완료: materialId={}, name={}", payload.getMaterialId(), payload.getName());
+        autocompleteService.refreshMaterials(result.applied());
+        // 안전재고/리드타임 변경, 신규 연결, 삭제 모두 재주문점 판단에 영향을 준다
+        materialReorderMonitor.onMaterialsChanged(result.applied());
+        return result;
     }
 
-    private void handleMaterialDeleted(MaterialEventDto eventDto) {
+    private ProjectionRow toRow(MaterialEventDto eventDto) {
         MaterialEventDto.Payload payload = eventDto.getPayload();
-
-        Optional<MaterialProjection> existingMaterial = materialProjectionRepository.findByMaterialId(payload.getMaterialId());
-        if (existingMaterial.isEmpty()) {
-            log.warn("존재하지 않는 Material. materialId: {}", payload.getMaterialId());
-            return;
-        }
-
-        MaterialProjection currentMaterial = existingMaterial.get();
-
-        // Soft Delete 처리
-        MaterialProjection deletedMaterial = currentMaterial.updateFromEvent(
-                currentMaterial.getCode(),
-                currentMaterial.getName(),
-                currentMaterial.getMaterialUnit(),
-                currentMaterial.getBaseQuantity(),
-                currentMaterial.getStandardQuantity(),     // 새로 추가된 필드
-                currentMaterial.getLeadTime(),
-                currentMaterial.getStandardCost(),
-                currentMaterial.getStandardTotalCost(),   // 새로 추가된 필드
-                true, // deleted = true
-                currentMaterial.getCategoryId(),
-                eventDto.getEventId(),
-                eventDto.getVersion(),
-                eventDto.getOccurredAt()
-        );
-
-        materialProjectionRepository.save(deletedMaterial);
-        log.info("Material 삭제 완료: materialId={}", payload.getMaterialId());
+        return metaRow(eventDto)
+                .set("code", payload.getMaterialCode())
+                .set("name", payload.getName())
+                .set("material_unit", payload.getMaterialUnit())
+                .set("base_quantity", payload.getBaseQuantity())
+                .set("standard_quantity", payload.getStandardQuantity())
+                .set("lead_time", payload.getLeadTime())
+                .set("standard_cost", payload.getStandardCost())
+                .set("standard_total_cost", payload.getStandardTotalCost())
+                .set("category_id", payload.getMaterialCategoryId())
+                .set("deleted", Boolean.TRUE.equals(payload.getDeleted()));
     }
 
-    private long nvl(Long v, long def) { return v == null ? def : v; }
+    private ProjectionRow metaRow(MaterialEventDto eventDto) {
+        return ProjectionRow.of(eventDto.getPayload().getMaterialId(), eventDto.getEventId(),
+                eventDto.getVersion(), eventDto.getOccurredAt());
+    }
 
+    /**
+     * 새로 생성된 자재들을 모든 기존 공장에 수량 0으로 초기화 (INSERT ... SELECT 한 번)
+     */
+    private void initializeMaterialsToAllFactories(Collection<Long> materialIds) {
+        if (materialIds.isEmpty()) return;
+        int inserted = factoryMaterialRepository.insertZeroStockForAllFactories(materialIds);
+        log.info("자재 공장 연결 초기화 완료: materialIds={}, 생성된 공장 자재 수={}", materialIds, inserted);
+    }
 }
@@ -0,0 +1,326 @@
+package com.sampoom.factory.api.material.service;
+
+import com.sampoom.factory.api.material.event.MaterialReorderPointCrossedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * 공장 자재별 재주문점(reorder point) 감시.
+ *
+ * <ul>
+ *   <li>재주문점 = 안전재고({@code MaterialProjection.baseQuantity}) + 일평균 사용량 × 리드타임({@code leadTime}, 일).
+ *       일평균 사용량은 관찰한 차감량의 일 단위 지수이동평균이며, 기동 직후에는 0이라 안전재고만으로 판단한다.</li>
+ *   <li>기동 시 factory_material 전체를 한 번 적재하고, 이후에는 커밋된 재고 변경이 건드린 (공장, 자재) 행만 다시 읽어 판단한다.</li>
+ *   <li>재주문점 이하인 자재는 공장별 집합으로 유지하므로 대시보드는 factory_material을 훑지 않고 바로 읽는다.
+ *       경계를 넘을 때마다 {@link MaterialReorderPointCrossedEvent}를 발행한다.</li>
+ * </ul>
+ * 상태 변경은 전용 스레드 하나에서만 일어나며, 재고 변경 호출자는 대기하지 않는다.
+ */
+@Slf4j
+@Component
+public class MaterialReorderMonitor {
+
+    private static final String LEVEL_SQL = """
+            SELECT fm.factory_id, fm.material_id, COALESCE(fm.quantity, 0), mp.base_quantity, mp.lead_time
+            FROM factory_material fm
+            JOIN material_projection mp ON mp.material_id = fm.material_id AND mp.deleted = false
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final double usageSmoothing;
+
+    private final Map<Long, FactoryLevels> factories = new ConcurrentHashMap<>();
+    private final Map<Long, Map<Long, Double>> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final ExecutorService evaluator = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "reorder-monitor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public MaterialReorderMonitor(JdbcTemplate jdbcTemplate,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${factory.stock.reorder.enabled:false}") boolean enabled,
+                                  @Value("${factory.stock.reorder.usage-smoothing:0.3}") double usageSmoothing) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.usageSmoothing = usageSmoothing;
+    }
+
+    public record LowStock(Long materialId, double quantity, double reorderPoint,
+                           int safetyStock, int leadTime, LocalDateTime belowSince) {}
+
+    /**
+     * 공장에서 재주문점 이하인 자재. 부족분(재주문점 - 현재고)이 큰 순서.
+     */
+    public List<LowStock> belowReorderPoint(Long factoryId) {
+        FactoryLevels levels = factories.get(factoryId);
+        return levels == null ? List.of() : levels.below();
+    }
+
+    /**
+     * 커밋된 재고 증감분을 알린다. 건드린 자재만 다시 평가하며, 같은 공장의 연속 변경은 한 번의 조회로 합친다.
+     */
+    public void onStockChanged(Long factoryId, Map<Long, Double> deltas) {
+        if (!enabled || deltas.isEmpty()) return;
+        pending.compute(factoryId, (id, touched) -> {
+            Map<Long, Double> merged = touched == null ? new HashMap<>() : touched;
+            deltas.forEach((materialId, delta) -> merged.merge(materialId, delta, Double::sum));
+            return merged;
+        });
+        if (drainScheduled.compareAndSet(false, true)) {
+            evaluator.execute(this::drain);
+        }
+    }
+
+    /**
+     * 자재 기준정보(안전재고, 리드타임)가 바뀌었거나 자재가 새로 연결/삭제되었을 때 커밋 후 해당 자재 행을 다시 평가한다.
+     */
+    public void onMaterialsChanged(Collection<Long> materialIds) {
+        if (!enabled || materialIds.isEmpty()) return;
+        Set<Long> ids = new HashSet<>(materialIds);
+        afterCommit(() -> evaluator.execute(() -> refresh("fm.material_id", ids)));
+    }
+
+    /**
+     * 공장에 자재가 새로 연결되었을 때 커밋 후 해당 공장 행을 다시 평가한다.
+     */
+    public void onFactoriesAdded(Collection<Long> factoryIds) {
+        if (!enabled || factoryIds.isEmpty()) return;
+        Set<Long> ids = new HashSet<>(factoryIds);
+        afterCommit(() -> evaluator.execute(() -> refresh("fm.factory_id", ids)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) return;
+        evaluator.execute(() -> {
+            Map<Long, Map<Long, Row>> rows = new HashMap<>();
+            jdbcTemplate.query(LEVEL_SQL, rs -> {
+                Row row = Row.of(rs);
+                rows.computeIfAbsent(row.factoryId(), id -> new HashMap<>()).put(row.materialId(), row);
+            });
+            rows.forEach((factoryId, byMaterial) -> {
+                FactoryLevels levels = factories.computeIfAbsent(factoryId, id -> new FactoryLevels());
+                byMaterial.values().forEach(row -> evaluate(levels, row));
+            });
+            long below = factories.values().stream().mapToLong(FactoryLevels::belowCount).sum();
+            log.info("재주문점 감시 적재 - 공장: {}개, 재주문점 이하: {}건", rows.size(), below);
+        });
+    }
+
+    /**
+     * 하루 사용량을 일평균에 반영하고, 바뀐 재주문점으로 메모리 상태만 다시 평가한다. (DB 조회 없음)
+     */
+    @Scheduled(cron = "${factory.stock.reorder.usage-rollover-cron:0 0 0 * * *}")
+    public void rolloverDailyUsage() {
+        if (!enabled) return;
+        evaluator.execute(() -> factories.forEach((factoryId, levels) -> {
+            for (Crossing crossing : levels.rollover(usageSmoothing)) {
+                publish(factoryId, crossing);
+            }
+        }));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        evaluator.shutdownNow();
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        for (Long factoryId : new ArrayList<>(pending.keySet())) {
+            Map<Long, Double> touched = pending.remove(factoryId);
+            if (touched == null || touched.isEmpty()) continue;
+            try {
+                FactoryLevels levels = factories.computeIfAbsent(factoryId, id -> new FactoryLevels());
+                touched.forEach((materialId, delta) -> {
+                    if (delta < 0) levels.recordUsage(materialId, -delta);
+                });
+                List<Long> materialIds = new ArrayList<>(touched.keySet());
+                String placeholders = materialIds.stream().map(id -> "?").collect(Collectors.joining(","));
+                List<Object> args = new ArrayList<>(materialIds.size() + 1);
+                args.add(factoryId);
+                args.addAll(materialIds);
+                jdbcTemplate.query(LEVEL_SQL + " WHERE fm.factory_id = ? AND fm.material_id IN (" + placeholders + ")",
+                        rs -> { evaluate(levels, Row.of(rs)); }, args.toArray());
+            } catch (Exception e) {
+                // 판단 누락은 다음 변경이나 재기동 때 맞춰진다. 재고 반영 자체에는 영향이 없다
+                log.warn("재주문점 평가 실패 - 공장ID: {}, 오류: {}", factoryId, e.getMessage());
+            }
+        }
+    }
+
+    // 해당 키의 행을 다시 읽고, 더 이상 조회되지 않는 (삭제된 자재) 상태는 버린다
+    private void refresh(String keyColumn, Set<Long> ids) {
+        try {
+            String placeholders = ids.stream().map(id -> "?").collect(Collectors.joining(","));
+            Map<Long, Set<Long>> seenByFactory = new HashMap<>();
+            jdbcTemplate.query(LEVEL_SQL + " WHERE " + keyColumn + " IN (" + placeholders + ")", rs -> {
+                Row row = Row.of(rs);
+                evaluate(factories.computeIfAbsent(row.factoryId(), id -> new FactoryLevels()), row);
+                seenByFactory.computeIfAbsent(row.factoryId(), id -> new HashSet<>()).add(row.materialId());
+            }, ids.toArray());
+
+            if ("fm.material_id".equals(keyColumn)) {
+                factories.forEach((factoryId, levels) -> {
+                    Set<Long> stale = new HashSet<>(ids);
+                    stale.removeAll(seenByFactory.getOrDefault(factoryId, Set.of()));
+                    levels.removeAll(stale);
+                });
+            }
+        } catch (Exception e) {
+            log.warn("재주문점 재평가 실패 - {}: {}, 오류: {}", keyColumn, ids, e.getMessage());
+        }
+    }
+
+    private void evaluate(FactoryLevels levels, Row row) {
+        Crossing crossing = levels.update(row);
+        if (crossing != null) publish(row.factoryId(), crossing);
+    }
+
+    private void publish(Long factoryId, Crossing crossing) {
+        if (crossing.direction() == MaterialReorderPointCrossedEvent.Direction.BELOW) {
+            log.info("재주문점 이하 - 공장ID: {}, 자재ID: {}, 재고: {}, 재주문점: {}",
+                    factoryId, crossing.materialId(), crossing.quantity(), crossing.reorderPoint());
+        }
+        eventPublisher.publishEvent(new MaterialReorderPointCrossedEvent(factoryId, crossing.materialId(),
+                crossing.quantity(), crossing.reorderPoint(), crossing.direction()));
+    }
+
+    private void afterCommit(Runnable task) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            task.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                task.run();
+            }
+        });
+    }
+
+    private record Row(Long factoryId, Long materialId, double quantity, int safetyStock, int leadTime) {
+        static Row of(ResultSet rs) throws SQLException {
+            return new Row(rs.getLong(1), rs.getLong(2), rs.getDouble(3), rs.getInt(4), rs.getInt(5));
+        }
+    }
+
+    private record Crossing(Long materialId, double quantity, double reorderPoint,
+                            MaterialReorderPointCrossedEvent.Direction direction) {}
+
+    private static final class Level {
+        double quantity;
+        int safetyStock;
+        int leadTime;
+        double dailyUsage;
+        double usageToday;
+        LocalDateTime belowSince;
+
+        double reorderPoint() {
+            return safetyStock + dailyUsage * leadTime;
+        }
+
+        boolean isBelow() {
+            double reorderPoint = reorderPoint();
+            return reorderPoint > 0 && quantity <= reorderPoint;
+        }
+    }
+
+    // 공장 하나의 상태. 쓰기는 감시 스레드에서만, 읽기는 API 스레드에서도 하므로 모니터 락으로 감싼다
+    private static final class FactoryLevels {
+        private final Map<Long, Level> levels = new HashMap<>();
+        private final Set<Long> below = new LinkedHashSet<>();
+
+        synchronized void recordUsage(Long materialId, double consumed) {
+            levels.computeIfAbsent(materialId, id -> new Level()).usageToday += consumed;
+        }
+
+        synchronized Crossing update(Row row) {
+            Level level = levels.computeIfAbsent(row.materialId(), id -> new Level());
+            level.quantity = row.quantity();
+            level.safetyStock = row.safetyStock();
+            level.leadTime = row.leadTime();
+            return reevaluate(row.materialId(), level);
+        }
+
+        synchronized List<Crossing> rollover(double smoothing) {
+            List<Crossing> crossings = new ArrayList<>();
+            levels.forEach((materialId, level) -> {
+                level.dailyUsage = smoothing * level.usageToday + (1 - smoothing) * level.dailyUsage;
+                level.usageToday = 0;
+                Crossing crossing = reevaluate(materialId, level);
+                if (crossing != null) crossings.add(crossing);
+            });
+            return crossings;
+        }
+
+        synchronized void removeAll(Set<Long> materialIds) {
+            materialIds.forEach(levels::remove);
+            below.removeAll(materialIds);
+        }
+
+        synchronized long belowCount() {
+            return below.size();
+        }
+
+        synchronized List<LowStock> below() {
+            return below.stream()
+                    .map(materialId -> {
+                        Level level = levels.get(materialId);
+                        return new LowStock(materialId, level.quantity, level.reorderPoint(),
+                                level.safetyStock, level.leadTime, level.belowSince);
+                    })
+                    .sorted(Comparator.comparingDouble((LowStock s) -> s.quantity() - s.reorderPoint()))
+                    .toList();
+        }
+
+        private Crossing reevaluate(Long materialId, Level level) {
+            boolean nowBelow = level.isBelow();
+            boolean wasBelow = below.contains(materialId);
+            if (nowBelow == wasBelow) return null;
+
+            if (nowBelow) {
+                below.add(materialId);
+                level.belowSince = LocalDateTime.now();
+            } else {
+                below.remove(materialId);
+                level.belowSince = null;
+            }
+            return new Crossing(materialId, level.quantity, level.reorderPoint(), nowBelow
+                    ? MaterialReorderPointCrossedEvent.Direction.BELOW
+                    : MaterialReorderPointCrossedEvent.Direction.RECOVERED);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.sampoom.factory.api.material.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sampoom.factory.api.factory.outbox.FactoryOutboxService;
+import com.sampoom.factory.api.material.event.MaterialStockChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 공장 자재 재고 변경 스트림. 다른 서비스가 GET /{factoryId}/material을 폴링하지 않고 재고를 따라올 수 있도록
+ * {@link MaterialStockChangedEvent}를 Outbox로 발행한다.
+ * <p>
+ * 커밋된 변경은 (공장, 자재) 키만 모아 두고, {@code window-ms}마다 키별 현재 수량을 공장당 한 번의 조회로 읽어
+ * 키당 이벤트 하나로 적재한다. 구간 안에서 여러 번 바뀐 자재도 마지막 수량 하나만 나간다.
+ * 적재에 실패한 키는 다음 구간에 다시 시도한다. Outbox에서는 FACTORY_STOCK 네임스페이스의 공장 단위 aggregate로 발행 순서가 보장된다.
+ * <p>
+ * 수량 조회와 Outbox 적재는 공장별 advisory lock을 잡은 한 트랜잭션에서 한다. 여러 인스턴스나 재시도된 구간이 같은 공장을 다뤄도
+ * 먼저 읽은 쪽이 먼저 적재하므로, aggregate의 마지막 이벤트가 더 오래된 수량을 담는 일이 없다.
+ */
+@Slf4j
+@Component
+public class MaterialStockChangeStream {
+
+    // 부품 주문 이벤트(aggregateId = 주문 ID)와 같은 aggregate로 묶여 서로 막지 않도록 별도 네임스페이스를 쓴다
+    static final String AGGREGATE_TYPE = "FACTORY_STOCK";
+    private static final int STREAM_LOCK_NAMESPACE = 26_002; // pg advisory lock 네임스페이스 (공장별 재고 변경 스트림)
+
+    private final FactoryOutboxService outboxService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    private final Map<Long, Set<Long>> pending = new ConcurrentHashMap<>();
+
+    public MaterialStockChangeStream(FactoryOutboxService outboxService,
+                                     JdbcTemplate jdbcTemplate,
+                                     ObjectMapper objectMapper,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${factory.stock.change-stream.enabled:false}") boolean enabled) {
+        this.outboxService = outboxService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+    }
+
+    /**
+     * 커밋된 재고 변경이 건드린 자재를 알린다. 다음 구간에 현재 수량으로 발행된다.
+     */
+    public void onStockChanged(Long factoryId, Collection<Long> materialIds) {
+        if (!enabled || materialIds.isEmpty()) return;
+        pending.compute(factoryId, (id, touched) -> {
+            Set<Long> merged = touched == null ? new HashSet<>() : touched;
+            merged.addAll(materialIds);
+            return merged;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${factory.stock.change-stream.window-ms:1000}")
+    public void flush() {
+        if (!enabled || pending.isEmpty()) return;
+
+        Map<Long, Set<Long>> touched = new LinkedHashMap<>();
+        for (Long factoryId : new ArrayList<>(pending.keySet())) {
+            Set<Long> materialIds = pending.remove(factoryId);
+            if (materialIds != null && !materialIds.isEmpty()) touched.put(factoryId, materialIds);
+        }
+        if (touched.isEmpty()) return;
+
+        touched.forEach((factoryId, materialIds) -> {
+            try {
+                Integer enqueued = transactionTemplate.execute(status -> enqueue(factoryId, materialIds));
+                log.debug("자재 재고 변경 이벤트 적재 - 공장ID: {}, 이벤트: {}건", factoryId, enqueued);
+            } catch (Exception e) {
+                onStockChanged(factoryId, materialIds);
+                log.warn("자재 재고 변경 이벤트 적재 실패, 다음 구간에 재시도 - 공장ID: {}, 오류: {}", factoryId, e.getMessage());
+            }
+        });
+    }
+
+    // 같은 공장의 조회~적재를 직렬화한다. 락은 커밋까지 유지되므로 다음 조회는 이 적재 이후의 수량을 본다
+    private int enqueue(Long factoryId, Set<Long> materialIds) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?, hashtext(?))", rs -> {},
+                STREAM_LOCK_NAMESPACE, String.valueOf(factoryId));
+        List<FactoryOutboxService.OutboxEntry> entries = new ArrayList<>();
+        quantitiesOf(factoryId, materialIds).forEach((materialId, quantity) -> entries.add(toEntry(factoryId, materialId, quantity)));
+        outboxService.enqueueAll(entries);
+        return entries.size();
+    }
+
+    private Map<Long, Double> quantitiesOf(Long factoryId, Set<Long> materialIds) {
+        String placeholders = materialIds.stream().map(id -> "?").collect(Collectors.joining(","));
+        List<Object> args = new ArrayList<>(materialIds.size() + 1);
+        args.add(factoryId);
+        args.addAll(materialIds);
+
+        Map<Long, Double> quantities = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT material_id, COALESCE(quantity, 0) FROM factory_material"
+                        + " WHERE factory_id = ? AND material_id IN (" + placeholders + ") ORDER BY material_id",
+                rs -> { quantities.put(rs.getLong(1), rs.getDouble(2)); }, args.toArray());
+        return quantities;
+    }
+
+    private FactoryOutboxService.OutboxEntry toEntry(Long factoryId, Long materialId, Double quantity) {
+        MaterialStockChangedEvent evt = new MaterialStockChangedEvent(
+                UUID.randomUUID().toString(),
+                MaterialStockChangedEvent.EVENT_TYPE,
+                System.currentTimeMillis(),
+                OffsetDateTime.now().toString(),
+                new MaterialStockChangedEvent.Payload(factoryId, materialId, quantity)
+        );
+        return new FactoryOutboxService.OutboxEntry(AGGREGATE_TYPE, factoryId, MaterialStockChangedEvent.EVENT_TYPE,
+                UUID.fromString(evt.eventId()), objectMapper.valueToTree(evt));
+    }
+}
@@ -0,0 +1,15 @@
+package com.sampoom.factory.api.material.service;
+
+/**
+ * 재고 증감을 일으킨 원인 문서. 자재 원장에 그대로 남는다.
+ */
+public record StockMovementReference(String type, Long id) {
+
+    public static StockMovementReference partOrder(Long partOrderId) {
+        return new StockMovementReference("PART_ORDER", partOrderId);
+    }
+
+    public static StockMovementReference purchaseOrder(Long purchaseOrderId) {
+        return new StockMovementReference("PURCHASE_ORDER", purchaseOrderId);
+    }
+}
@@ -30,6 +30,7 @@ public class PartOrderResponseDto {
     private String priority; // 우선순위 (HIGH, MEDIUM, LOW)
     private String materialAvailability; // 자재가용성 (SUFFICIENT, INSUFFICIENT)
     private String orderType; // 주문 유형 (GENERAL, MPS)
+    private String purchaseDeliveryStatus; // 자재 구매요청 전달 상태 (PENDING, RETRYING, DELIVERED, FAILED)
 
     private List<PartOrderItemDto> items;
 
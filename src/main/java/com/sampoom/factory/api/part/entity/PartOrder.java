@@ -86,6 +86,18 @@ public class PartOrder extends BaseTimeEntity {
     @Column(name = "previous_status")
     private PartOrderStatus previousStatus; // 이전 상태 (생산계획에서 보여줄 상태)
 
+    // 자재 구매요청 전달 상태 (구매요청이 없으면 null)
+    // 구매요청 전달 워커가 주문과 별개로 갱신하므로 엔티티 flush로는 쓰지 않는다. 저장은 PartOrderRepository.updatePurchaseDeliveryStatus로만 한다
+    @Enumerated(EnumType.STRING)
+    @Column(name = "purchase_delivery_status", insertable = false, updatable = false)
+    private PurchaseDeliveryStatus purchaseDeliveryStatus;
+
+    // 마지막 전체 스냅샷 이벤트 이후 발행한 이벤트 수 (delta 모드의 체크포인트 판단용)
+    // PartOrderEventService가 PartOrderRepository의 벌크 쿼리로만 갱신하므로 엔티티 값은 조회 시점 기준이다
+    @Column(name = "events_since_snapshot", insertable = false, updatable = false,
+            columnDefinition = "integer default 0 not null")
+    private Integer eventsSinceSnapshot;
+
     @OneToMany(mappedBy = "partOrder", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<PartOrderItem> items = new ArrayList<>();
@@ -141,6 +153,11 @@ public class PartOrder extends BaseTimeEntity {
         this.status = PartOrderStatus.PURCHASE_REQUEST;
     }
 
+    // 메모리 값만 바꾼다 (응답용). DB 반영은 PartOrderRepository.updatePurchaseDeliveryStatus
+    public void updatePurchaseDeliveryStatus(PurchaseDeliveryStatus purchaseDeliveryStatus) {
+        this.purchaseDeliveryStatus = purchaseDeliveryStatus;
+    }
+
     // 우선순위 계산 및 설정 (필요일까지의 남은 일수 기준)
     public void calculateAndSetPriority() {
         if (requiredDate != null) {
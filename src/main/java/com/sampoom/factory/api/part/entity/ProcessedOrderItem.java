@@ -0,0 +1,47 @@
+package com.sampoom.factory.api.part.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * order-to-factory 이벤트로 이미 주문을 만든 (원본 레코드, 부품 ID) 기록.
+ * Kafka 재전달 시 같은 레코드로 PartOrder를 다시 만들지 않도록 유니크 제약으로 선점한다.
+ * 같은 주문 라인의 다음 이벤트는 새 수량 변경(delta)이므로 레코드가 다르면 중복이 아니다.
+ */
+@Entity
+@Table(
+        name = "processed_order_item",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uq_processed_order_item_source_part", columnNames = {"source_record", "part_id"})
+        },
+        indexes = {
+                @Index(name = "idx_processed_order_item_processed_at", columnList = "processed_at")
+        }
+)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+public class ProcessedOrderItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "processed_order_item_id")
+    private Long id;
+
+    // 원본 Kafka 레코드 ({topic}-{partition}@{offset})
+    @Column(name = "source_record", length = 255)
+    private String sourceRecord;
+
+    // 조회/추적용 외부 주문 ID (중복 판별에는 쓰지 않는다)
+    @Column(name = "external_part_order_id")
+    private Long externalPartOrderId;
+
+    @Column(name = "part_id", nullable = false)
+    private Long partId;
+
+    @Column(name = "processed_at", nullable = false)
+    private LocalDateTime processedAt;
+}
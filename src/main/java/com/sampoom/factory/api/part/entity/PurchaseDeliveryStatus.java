@@ -0,0 +1,15 @@
+package com.sampoom.factory.api.part.entity;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum PurchaseDeliveryStatus {
+    PENDING("전달 대기"),
+    RETRYING("재시도 중"),
+    DELIVERED("전달 완료"),
+    FAILED("전달 실패");
+
+    private final String description;
+}
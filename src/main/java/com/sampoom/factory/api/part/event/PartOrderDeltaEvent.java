@@ -0,0 +1,27 @@
+package com.sampoom.factory.api.part.event;
+
+/**
+ * 상태 변경(*StatusChanged) 전용 경량 이벤트.
+ * 상태 변경 시 바뀔 수 있는 필드만 담고, 공장/창고/품목 정보는 생성 이벤트나 주기적 스냅샷({@link PartOrderEvent})으로 전달한다.
+ * 소비자는 자신이 가진 version보다 큰 경우에만 적용해야 한다.
+ */
+public record PartOrderDeltaEvent(
+        String eventId,
+        String eventType,        // "PartOrderStatusChanged" | "MpsStatusChanged"
+        Long version,
+        String occurredAt,       // ISO-8601
+        String encoding,         // 항상 "DELTA"
+        StatusDelta payload
+) {
+    public static final String ENCODING = "DELTA";
+
+    public record StatusDelta(
+            Long partOrderId,
+            String orderCode,
+            String status,
+            String scheduledDate,
+            Double progressRate,
+            String priority,
+            String materialAvailability
+    ) {}
+}
@@ -0,0 +1,25 @@
+package com.sampoom.factory.api.part.event;
+
+import com.sampoom.factory.api.part.entity.PartOrder;
+import com.sampoom.factory.api.part.entity.PartOrderType;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum PartOrderEventType {
+    CREATED("Created", false, false),
+    STATUS_CHANGED("StatusChanged", false, true),
+    COMPLETED("Completed", false, false),
+    DELETED("Deleted", true, false);
+
+    private final String suffix;
+    private final boolean deleted;
+    private final boolean deltaCapable; // 상태 필드만 담은 PartOrderDeltaEvent로 발행 가능 여부
+
+    // MPS 타입 주문은 "Mps" 접두어, 일반 주문은 "PartOrder" 접두어 사용 (예: MpsStatusChanged, PartOrderStatusChanged)
+    public String eventTypeFor(PartOrder partOrder) {
+        String prefix = partOrder.getOrderType() == PartOrderType.MPS ? "Mps" : "PartOrder";
+        return prefix + suffix;
+    }
+}
@@ -4,10 +4,14 @@ import com.sampoom.factory.api.part.entity.PartGroupProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PartGroupProjectionRepository extends JpaRepository<PartGroupProjection, Long> {
 
     Optional<PartGroupProjection> findByGroupId(Long groupId);
+
+    List<PartGroupProjection> findByGroupIdIn(Collection<Long> groupIds);
 }
@@ -4,16 +4,19 @@ import com.sampoom.factory.api.part.entity.PartOrder;
 import com.sampoom.factory.api.part.entity.PartOrderPriority;
 import com.sampoom.factory.api.part.entity.PartOrderStatus;
 import com.sampoom.factory.api.part.entity.PartOrderType;
+import com.sampoom.factory.api.part.entity.PurchaseDeliveryStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -232,4 +235,21 @@ public interface PartOrderRepository extends JpaRepository<PartOrder, Long> {
                                                                               @Param("groupId") Long groupId,
                                                                               @Param("query") String query,
                                                                               Pageable pageable);
+
+    // 구매요청 전달 상태만 갱신 (version을 올리지 않음). 컬럼이 updatable = false라 엔티티 flush가 이 값을 덮어쓰지 않는다
+    @Modifying
+    @Query("UPDATE PartOrder po SET po.purchaseDeliveryStatus = :status WHERE po.id = :id")
+    int updatePurchaseDeliveryStatus(@Param("id") Long id, @Param("status") PurchaseDeliveryStatus status);
+
+    // 스냅샷 이후 이벤트 수를 올린다 (version을 올리지 않음). 행 잠금을 잡으므로 같은 주문의 동시 이벤트도 빠짐없이 센다
+    @Modifying
+    @Query("UPDATE PartOrder po SET po.eventsSinceSnapshot = po.eventsSinceSnapshot + 1 WHERE po.id IN :ids")
+    int incrementEventsSinceSnapshot(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT po.id FROM PartOrder po WHERE po.id IN :ids AND po.eventsSinceSnapshot >= :threshold")
+    List<Long> findIdsWithEventsSinceSnapshotAtLeast(@Param("ids") Collection<Long> ids, @Param("threshold") int threshold);
+
+    @Modifying
+    @Query("UPDATE PartOrder po SET po.eventsSinceSnapshot = 0 WHERE po.id IN :ids")
+    int resetEventsSinceSnapshot(@Param("ids") Collection<Long> ids);
 }
@@ -4,10 +4,14 @@ import com.sampoom.factory.api.part.entity.PartProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PartProjectionRepository extends JpaRepository<PartProjection, Long> {
 
     Optional<PartProjection> findByPartId(Long partId);
+
+    List<PartProjection> findByPartIdIn(Collection<Long> partIds);
 }
@@ -0,0 +1,35 @@
+package com.sampoom.factory.api.part.repository;
+
+import com.sampoom.factory.api.part.entity.ProcessedOrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ProcessedOrderItemRepository extends JpaRepository<ProcessedOrderItem, Long> {
+
+    @Query("SELECT p.partId FROM ProcessedOrderItem p WHERE p.sourceRecord = :sourceRecord AND p.partId IN :partIds")
+    List<Long> findProcessedPartIds(@Param("sourceRecord") String sourceRecord,
+                                    @Param("partIds") Collection<Long> partIds);
+
+    @Query(value = """
+        SELECT p.source_record || ':' || p.part_id
+        FROM processed_order_item p
+        WHERE p.processed_at >= :since
+          AND p.source_record IS NOT NULL
+        """, nativeQuery = true)
+    List<String> findKeysProcessedSince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM ProcessedOrderItem p WHERE p.sourceRecord = :sourceRecord AND p.partId IN :partIds")
+    int deleteBySourceRecordAndPartIdIn(@Param("sourceRecord") String sourceRecord,
+                                        @Param("partIds") Collection<Long> partIds);
+
+    @Modifying
+    @Query("DELETE FROM ProcessedOrderItem p WHERE p.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,159 @@
+package com.sampoom.factory.api.part.service;
+
+import com.sampoom.factory.api.part.repository.ProcessedOrderItemRepository;
+import com.sampoom.factory.common.dedup.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * order-to-factory 이벤트 중복 수신 방지.
+ * 판별 키는 (원본 레코드 {topic}-{partition}@{offset}, 부품 ID)다. 같은 주문 라인이라도 다음 이벤트는 새 수량 변경(delta)이므로
+ * 주문 ID가 아니라 레코드 자체로 재전달인지 판단한다. 재시도 토픽을 거친 레코드도 원본 위치를 키로 쓴다.
+ * <ol>
+ *     <li>Bloom filter로 처음 보는 키를 DB 조회 없이 판별한다.</li>
+ *     <li>filter가 "있을 수도 있음"이라고 한 키만 processed_order_item에서 확인해 이미 처리된 부품을 제외한다.</li>
+ *     <li>남은 키는 INSERT ... ON CONFLICT DO NOTHING으로 선점한다. 동시에 들어온 재전달은 여기서 걸러진다.</li>
+ * </ol>
+ * 선점 행은 주문 생성과 같은 트랜잭션에 묶이므로 주문 생성이 롤백되면 선점도 함께 취소된다.
+ * filter는 최적화일 뿐이며, 중복 여부의 최종 판단은 항상 테이블의 유니크 제약이다.
+ */
+@Slf4j
+@Component
+public class OrderIngestionDeduplicator {
+
+    private final ProcessedOrderItemRepository processedOrderItemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final int retentionDays;
+
+    private volatile BloomFilter filter;
+
+    public OrderIngestionDeduplicator(ProcessedOrderItemRepository processedOrderItemRepository,
+                                      JdbcTemplate jdbcTemplate,
+                                      @Value("${factory.order-dedup.expected-insertions:1000000}") long expectedInsertions,
+                                      @Value("${factory.order-dedup.false-positive-rate:0.01}") double falsePositiveRate,
+                                      @Value("${factory.order-dedup.retention-days:30}") int retentionDays) {
+        this.processedOrderItemRepository = processedOrderItemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.retentionDays = retentionDays;
+        this.filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    // 예전 (외부 주문 ID, 부품 ID) 유니크 제약이 남아 있으면 같은 주문 라인의 다음 이벤트가 INSERT에서 막히므로 지운다
+    @PostConstruct
+    public void dropLegacyKey() {
+        jdbcTemplate.execute("ALTER TABLE processed_order_item DROP CONSTRAINT IF EXISTS uq_processed_order_item_external_part");
+        jdbcTemplate.execute("ALTER TABLE processed_order_item ALTER COLUMN external_part_order_id DROP NOT NULL");
+    }
+
+    /**
+     * 아직 처리되지 않은 부품 ID만 선점해 돌려준다. 호출자의 트랜잭션 안에서 실행되어야 한다.
+     *
+     * @param sourceRecord 원본 레코드 식별자 ({topic}-{partition}@{offset})
+     */
+    @Transactional
+    public Set<Long> claim(String sourceRecord, Long externalPartOrderId, Collection<Long> partIds) {
+        Set<Long> candidates = new LinkedHashSet<>(partIds);
+        candidates.remove(null);
+        if (sourceRecord == null || candidates.isEmpty()) return candidates;
+
+        BloomFilter current = filter;
+        List<Long> suspects = new ArrayList<>();
+        for (Long partId : candidates) {
+            if (current.mightContain(key(sourceRecord, partId))) suspects.add(partId);
+        }
+        if (!suspects.isEmpty()) {
+            List<Long> processed = processedOrderItemRepository.findProcessedPartIds(sourceRecord, suspects);
+            processed.forEach(candidates::remove);
+            if (!processed.isEmpty()) {
+                log.info("중복 주문 이벤트 무시 - 레코드: {}, 외부주문ID: {}, 이미 처리된 부품: {}",
+                        sourceRecord, externalPartOrderId, processed);
+            }
+        }
+        if (candidates.isEmpty()) return Collections.emptySet();
+
+        Set<Long> claimed = insertClaims(sourceRecord, externalPartOrderId, candidates);
+        if (claimed.size() < candidates.size()) {
+            Set<Long> raced = new HashSet<>(candidates);
+            raced.removeAll(claimed);
+            log.info("동시 재전달 주문 이벤트 무시 - 레코드: {}, 외부주문ID: {}, 부품: {}", sourceRecord, externalPartOrderId, raced);
+        }
+        claimed.forEach(partId -> current.put(key(sourceRecord, partId)));
+        return claimed;
+    }
+
+    /**
+     * 주문 생성에 실패한 부품의 선점을 취소한다. filter에는 남지만 오탐 한 번만 늘어날 뿐 다음 재전달은 정상 처리된다.
+     */
+    @Transactional
+    public void release(String sourceRecord, Collection<Long> partIds) {
+        if (sourceRecord == null || partIds.isEmpty()) return;
+        int released = processedOrderItemRepository.deleteBySourceRecordAndPartIdIn(sourceRecord, partIds);
+        log.warn("주문 생성 실패 부품 선점 취소 - 레코드: {}, 부품: {}, 취소: {}건", sourceRecord, partIds, released);
+    }
+
+    /**
+     * 보존 기간 안의 처리 기록으로 filter를 채운다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuildFilter();
+    }
+
+    /**
+     * 보존 기간이 지난 처리 기록을 지우고 filter를 다시 만든다. (삭제된 키가 filter에 남아 오탐을 늘리지 않도록)
+     */
+    @Scheduled(cron = "${factory.order-dedup.purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = processedOrderItemRepository.deleteProcessedBefore(LocalDateTime.now().minusDays(retentionDays));
+        log.info("주문 중복 방지 기록 정리 - 삭제: {}건, 보존기간: {}일", deleted, retentionDays);
+        rebuildFilter();
+    }
+
+    private void rebuildFilter() {
+        BloomFilter rebuilt = new BloomFilter(expectedInsertions, falsePositiveRate);
+        List<String> keys = processedOrderItemRepository.findKeysProcessedSince(LocalDateTime.now().minusDays(retentionDays));
+        keys.forEach(rebuilt::put);
+        this.filter = rebuilt;
+        log.info("주문 중복 방지 filter 적재 - 키: {}개, 비트: {}, 해시: {}개", keys.size(), rebuilt.bitSize(), rebuilt.hashCount());
+    }
+
+    private Set<Long> insertClaims(String sourceRecord, Long externalPartOrderId, Set<Long> partIds) {
+        String values = String.join(", ", Collections.nCopies(partIds.size(), "(?, ?, ?, now())"));
+        List<Object> args = new ArrayList<>(partIds.size() * 3);
+        for (Long partId : partIds) {
+            args.add(sourceRecord);
+            args.add(externalPartOrderId);
+            args.add(partId);
+        }
+        List<Long> claimed = jdbcTemplate.queryForList(
+                "INSERT INTO processed_order_item (source_record, external_part_order_id, part_id, processed_at) VALUES " + values
+                        + " ON CONFLICT (source_record, part_id) DO NOTHING RETURNING part_id",
+                Long.class, args.toArray());
+        return new LinkedHashSet<>(claimed);
+    }
+
+    static String key(String sourceRecord, Long partId) {
+        return sourceRecord + ":" + partId;
+    }
+}
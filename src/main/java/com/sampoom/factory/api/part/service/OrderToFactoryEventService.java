@@ -11,6 +11,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -18,22 +19,70 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class OrderToFactoryEventService {
     private final PartOrderService partOrderService;
+    private final OrderIngestionDeduplicator orderIngestionDeduplicator;
 
+    /**
+     * @param sourceRecord 이벤트를 실은 Kafka 레코드 식별자 ({topic}-{partition}@{offset}). 재전달 판별 기준이다
+     */
     @Transactional
-    public void processOrderToFactoryEvent(OrderToFactoryEventDto event) {
+    public void processOrderToFactoryEvent(OrderToFactoryEventDto event, String sourceRecord) {
         log.info("Processing order-to-factory event for partOrderId: {}, warehouseId: {}",
                 event.getPartOrderId(), event.getWarehouseId());
 
         // 이벤트 데이터를 PartOrderRequestDto로 변환
         PartOrderRequestDto request = convertEventToRequest(event);
 
+        // 재전달된 이벤트면 이미 주문을 만든 부품을 BOM 전개/공장 선정 전에 제외
+        request = excludeProcessedItems(request, sourceRecord);
+        if (request.getItems().isEmpty()) {
+            log.info("이미 처리된 order-to-factory 이벤트 - PartOrderId: {}, WarehouseId: {}",
+                    event.getPartOrderId(), event.getWarehouseId());
+            return;
+        }
+
         // 부품 주문 생성
         List<PartOrderResponseDto> responses = partOrderService.createPartOrdersSeparately(request);
 
+        // 생성에 실패한 부품은 선점을 풀어 다음 재전달 때 다시 시도되게 한다
+        releaseFailedItems(request, responses, sourceRecord);
+
         log.info("Created {} part orders from event. PartOrderId: {}, WarehouseId: {}",
                 responses.size(), event.getPartOrderId(), event.getWarehouseId());
     }
 
+    private PartOrderRequestDto excludeProcessedItems(PartOrderRequestDto request, String sourceRecord) {
+        if (sourceRecord == null) {
+            return request;
+        }
+        Set<Long> claimed = orderIngestionDeduplicator.claim(sourceRecord, request.getExternalPartOrderId(),
+                request.getItems().stream().map(PartOrderRequestDto.PartOrderItemRequestDto::getPartId).toList());
+        List<PartOrderRequestDto.PartOrderItemRequestDto> newItems = request.getItems().stream()
+                .filter(item -> claimed.contains(item.getPartId()))
+                .collect(Collectors.toList());
+        return PartOrderRequestDto.builder()
+                .items(newItems)
+                .warehouseId(request.getWarehouseId())
+                .warehouseName(request.getWarehouseName())
+                .requiredDate(request.getRequiredDate())
+                .externalPartOrderId(request.getExternalPartOrderId())
+                .build();
+    }
+
+    private void releaseFailedItems(PartOrderRequestDto request, List<PartOrderResponseDto> responses, String sourceRecord) {
+        if (sourceRecord == null) {
+            return;
+        }
+        Set<Long> created = responses.stream()
+                .flatMap(response -> response.getItems().stream())
+                .map(PartOrderResponseDto.PartOrderItemDto::getPartId)
+                .collect(Collectors.toSet());
+        List<Long> failed = request.getItems().stream()
+                .map(PartOrderRequestDto.PartOrderItemRequestDto::getPartId)
+                .filter(partId -> partId != null && !created.contains(partId))
+                .toList();
+        orderIngestionDeduplicator.release(sourceRecord, failed);
+    }
+
     private PartOrderRequestDto convertEventToRequest(OrderToFactoryEventDto event) {
 
         if (event.getItems() == null || event.getItems().isEmpty()) {
@@ -2,160 +2,239 @@ package com.sampoom.factory.api.part.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.sampoom.factory.api.factory.outbox.FactoryOutbox;
-import com.sampoom.factory.api.factory.outbox.FactoryOutboxRepository;
+import com.sampoom.factory.api.factory.entity.FactoryProjection;
+import com.sampoom.factory.api.factory.outbox.FactoryOutboxService;
 import com.sampoom.factory.api.part.entity.PartOrder;
-import com.sampoom.factory.api.part.entity.PartOrderType;
+import com.sampoom.factory.api.part.entity.PartOrderItem;
+import com.sampoom.factory.api.part.entity.PartProjection;
+import com.sampoom.factory.api.part.event.PartOrderDeltaEvent;
 import com.sampoom.factory.api.part.event.PartOrderEvent;
+import com.sampoom.factory.api.part.event.PartOrderEventType;
+import com.sampoom.factory.api.part.repository.PartOrderRepository;
 import com.sampoom.factory.api.part.repository.PartProjectionRepository;
 import com.sampoom.factory.api.factory.repository.FactoryProjectionRepository;
 import com.sampoom.factory.common.exception.NotFoundException;
 import com.sampoom.factory.common.response.ErrorStatus;
 import jakarta.transaction.Transactional;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class PartOrderEventService {
 
-    private final FactoryOutboxRepository outboxRepository;
+    private final FactoryOutboxService outboxService;
     private final ObjectMapper objectMapper;
     private final PartProjectionRepository partProjectionRepository;
     private final FactoryProjectionRepository factoryProjectionRepository;
+    private final PartOrderRepository partOrderRepository;
+    private final boolean deltaEnabled;
+    private final int snapshotInterval;
+
+    public PartOrderEventService(FactoryOutboxService outboxService,
+                                 ObjectMapper objectMapper,
+                                 PartProjectionRepository partProjectionRepository,
+                                 FactoryProjectionRepository factoryProjectionRepository,
+                                 PartOrderRepository partOrderRepository,
+                                 @Value("${factory.events.part-order.delta.enabled:false}") boolean deltaEnabled,
+                                 @Value("${factory.events.part-order.delta.snapshot-interval:20}") int snapshotInterval) {
+        this.outboxService = outboxService;
+        this.objectMapper = objectMapper;
+        this.partProjectionRepository = partProjectionRepository;
+        this.factoryProjectionRepository = factoryProjectionRepository;
+        this.partOrderRepository = partOrderRepository;
+        this.deltaEnabled = deltaEnabled;
+        this.snapshotInterval = Math.max(1, snapshotInterval);
+    }
 
     @Transactional
     public void recordPartOrderCreated(PartOrder partOrder) {
-        // MPS 타입인 경우 별도 이벤트 타입 사용
-        if (partOrder.getOrderType() == PartOrderType.MPS) {
-            log.info("MPS 주문 생성 이벤트 발행 - 주문 ID: {}, 주문 코드: {}", partOrder.getId(), partOrder.getOrderCode());
-            enqueueEvent("MpsCreated", partOrder, nvl(partOrder.getVersion(), 0L), false);
-        } else {
-            log.info("부품 주문 생성 이벤트 발행 - 주문 ID: {}, 주문 코드: {}", partOrder.getId(), partOrder.getOrderCode());
-            enqueueEvent("PartOrderCreated", partOrder, nvl(partOrder.getVersion(), 0L), false);
-        }
+        recordAll(List.of(partOrder), PartOrderEventType.CREATED);
     }
 
     @Transactional
     public void recordPartOrderStatusChanged(PartOrder partOrder) {
-        // MPS 타입인 경우 별도 이벤트 타입 사용
-        if (partOrder.getOrderType() == PartOrderType.MPS) {
-            log.info("MPS 주문 상태 변경 이벤트 발행 - 주문 ID: {}, 상태: {}", partOrder.getId(), partOrder.getStatus());
-            enqueueEvent("MpsStatusChanged", partOrder, nvl(partOrder.getVersion(), 0L), false);
-        } else {
-            log.info("부품 주문 상태 변경 이벤트 발행 - 주문 ID: {}, 상태: {}", partOrder.getId(), partOrder.getStatus());
-            enqueueEvent("PartOrderStatusChanged", partOrder, nvl(partOrder.getVersion(), 0L), false);
-        }
+        recordAll(List.of(partOrder), PartOrderEventType.STATUS_CHANGED);
     }
 
     @Transactional
     public void recordPartOrderCompleted(PartOrder partOrder) {
-        // MPS 타입인 경우 별도 이벤트 타입 사용
-        if (partOrder.getOrderType() == PartOrderType.MPS) {
-            log.info("MPS 주문 완료 이벤트 발행 - 주문 ID: {}, 주문 코드: {}, orderType: {}",
-                partOrder.getId(), partOrder.getOrderCode(), partOrder.getOrderType());
-            enqueueEvent("MpsCompleted", partOrder, nvl(partOrder.getVersion(), 0L), false);
-            log.info("MPS 주문 완료 이벤트 OUTBOX 저장 완료 - 주문 ID: {}, eventType: MpsCompleted", partOrder.getId());
-        } else {
-            log.info("부품 주문 완료 이벤트 발행 - 주문 ID: {}, 주문 코드: {}", partOrder.getId(), partOrder.getOrderCode());
-            enqueueEvent("PartOrderCompleted", partOrder, nvl(partOrder.getVersion(), 0L), false);
-        }
+        recordAll(List.of(partOrder), PartOrderEventType.COMPLETED);
     }
 
     @Transactional
     public void recordPartOrderDeleted(PartOrder partOrder) {
-        // MPS 타입인 경우 별도 이벤트 타입 사용
-        if (partOrder.getOrderType() == PartOrderType.MPS) {
-            log.info("MPS 주문 삭제 이벤트 발행 - 주문 ID: {}, 주문 코드: {}", partOrder.getId(), partOrder.getOrderCode());
-            enqueueEvent("MpsDeleted", partOrder, nvl(partOrder.getVersion(), 0L), true);
-        } else {
-            log.info("부품 주문 삭제 이벤트 발행 - 주문 ID: {}, 주문 코드: {}", partOrder.getId(), partOrder.getOrderCode());
-            enqueueEvent("PartOrderDeleted", partOrder, nvl(partOrder.getVersion(), 0L), true);
+        recordAll(List.of(partOrder), PartOrderEventType.DELETED);
+    }
+
+    /**
+     * 여러 주문의 이벤트를 한 번에 Outbox에 적재한다.
+     * 공장/부품 정보는 주문 수와 무관하게 각각 한 번의 IN 조회로 가져오고, Outbox 행은 multi-row INSERT로 저장한다.
+     * MPS 타입 주문은 Mps* 이벤트 타입을 사용한다.
+     * delta 모드에서는 상태 변경 이벤트를 상태 필드만 담은 {@link PartOrderDeltaEvent}로 보내고,
+     * 주문별로 마지막 스냅샷 이후 이벤트 수를 세어 snapshot-interval번째 이벤트마다 전체 스냅샷을 체크포인트로 보낸다.
+     * (version은 이벤트 없이도 오르므로 배수 여부로는 체크포인트를 건너뛸 수 있다)
+     */
+    @Transactional
+    public void recordAll(List<PartOrder> partOrders, PartOrderEventType eventType) {
+        if (partOrders.isEmpty()) return;
+
+        Set<Long> deltaIds = deltaOrderIds(partOrders, eventType);
+        List<PartOrder> snapshotOrders = partOrders.stream()
+                .filter(order -> !deltaIds.contains(order.getId()))
+                .collect(Collectors.toList());
+        References refs = loadReferences(snapshotOrders, eventType);
+
+        List<FactoryOutboxService.OutboxEntry> entries = new ArrayList<>(partOrders.size());
+        for (PartOrder partOrder : partOrders) {
+            String type = eventType.eventTypeFor(partOrder);
+            try {
+                Object evt = deltaIds.contains(partOrder.getId())
+                        ? buildDeltaEvent(type, partOrder)
+                        : buildEvent(type, partOrder, refs.factories(), refs.parts(), eventType.isDeleted());
+                JsonNode payload = objectMapper.valueToTree(evt);
+                entries.add(new FactoryOutboxService.OutboxEntry(
+                        partOrder.getId(), type, UUID.fromString(payload.get("eventId").asText()), payload));
+            } catch (Exception e) {
+                log.error("부품 주문 이벤트 직렬화 실패 - 주문 ID: {}, 이벤트 타입: {}, 오류: {}",
+                        partOrder.getId(), type, e.getMessage(), e);
+                throw new IllegalStateException("Serialize " + type + " event failed", e);
+            }
         }
+
+        outboxService.enqueueAll(entries);
+        log.debug("부품 주문 이벤트 Outbox 저장 완료 - 타입: {}, 건수: {}, 스냅샷: {}",
+                eventType, entries.size(), snapshotOrders.size());
     }
 
     // ===== 공통 헬퍼 =====
-    private void enqueueEvent(String eventType, PartOrder partOrder, long version, Boolean deleted) {
-        try {
-            // 디버깅: externalPartOrderId 값 로깅
-            log.info("디버깅 - PartOrder ID: {}, externalPartOrderId 값: {}",
-                    partOrder.getId(), partOrder.getExternalPartOrderId());
-
-            // Factory 정보 조회
-            var factory = factoryProjectionRepository.findById(partOrder.getFactoryId())
-                    .orElseThrow(() -> new NotFoundException(ErrorStatus.FACTORY_NOT_FOUND));
-
-            // PartOrderItem들을 PartOrderItemPayload로 변환
-            List<PartOrderEvent.PartOrderItemPayload> itemPayloads = partOrder.getItems().stream()
-                    .map(item -> {
-                        var part = partProjectionRepository.findByPartId(item.getPartId())
-                                .orElseThrow(() -> new NotFoundException(ErrorStatus.PART_NOT_FOUND));
-                        return new PartOrderEvent.PartOrderItemPayload(
-                                part.getPartId(),
-                                part.getName(),
-                                part.getCode(),
-                                item.getQuantity()
-                        );
-                    })
-                    .collect(Collectors.toList());
-
-            // 디버깅: 이벤트 생성 전 externalPartOrderId 값 다시 확인
-            Long externalPartOrderId = partOrder.getExternalPartOrderId();
-            log.info("디버깅 - 이벤트 생성 시 externalPartOrderId: {}", externalPartOrderId);
-
-            PartOrderEvent evt = new PartOrderEvent(
-                    UUID.randomUUID().toString(),
-                    eventType,
-                    version,
-                    OffsetDateTime.now().toString(),
-                    new PartOrderEvent.Payload(
-                            externalPartOrderId,
-                            partOrder.getOrderCode(),             // orderCode
-                            partOrder.getFactoryId(),             // factoryId
-                            factory.getBranchName(),              // factoryName
-                            partOrder.getWarehouseId(),           // warehouseId
-                            partOrder.getWarehouseName(),         // warehouseName
-                            partOrder.getStatus().name(),         // status
-                            partOrder.getRequiredDate() != null ? partOrder.getRequiredDate().toString() : null, // requiredDate
-                            partOrder.getScheduledDate() != null ? partOrder.getScheduledDate().toString() : null, // scheduledDate
-                            partOrder.getProgressRate(),          // progressRate
-                            partOrder.getPriority() != null ? partOrder.getPriority().name() : null, // priority
-                            partOrder.getMaterialAvailability() != null ? partOrder.getMaterialAvailability().name() : null, // materialAvailability
-                            itemPayloads,                         // items
-                            deleted                               // deleted
-                    )
-            );
-
-            // 디버깅: 최종 이벤트 페이로드의 partOrderId 확인
-            log.info("디버깅 - 최종 이벤트 페이로드 partOrderId: {}",
-                    evt.payload().partOrderId());
-
-            JsonNode payload = objectMapper.valueToTree(evt);
-            outboxRepository.save(
-                    FactoryOutbox.ready(
-                            partOrder.getId(),
-                            eventType,
-                            UUID.fromString(evt.eventId()),
-                            payload
-                    )
-            );
-
-            log.debug("부품 주문 이벤트 Outbox에 저장 완료 - 이벤트 ID: {}, 타입: {}", evt.eventId(), eventType);
+    private record References(Map<Long, FactoryProjection> factories, Map<Long, PartProjection> parts) {}
 
+    private References loadReferences(List<PartOrder> partOrders, PartOrderEventType eventType) {
+        if (partOrders.isEmpty()) return new References(Map.of(), Map.of());
+        try {
+            Set<Long> factoryIds = partOrders.stream()
+                    .map(PartOrder::getFactoryId)
+                    .collect(Collectors.toSet());
+            Set<Long> partIds = partOrders.stream()
+                    .flatMap(order -> order.getItems().stream())
+                    .map(PartOrderItem::getPartId)
+                    .collect(Collectors.toSet());
+
+            Map<Long, FactoryProjection> factories = factoryProjectionRepository.findAllById(factoryIds).stream()
+                    .collect(Collectors.toMap(FactoryProjection::getBranchId, Function.identity()));
+            Map<Long, PartProjection> parts = partIds.isEmpty() ? Map.of() : partProjectionRepository.findByPartIdIn(partIds).stream()
+                    .collect(Collectors.toMap(PartProjection::getPartId, Function.identity(), (a, b) -> a));
+            return new References(factories, parts);
         } catch (Exception e) {
-            log.error("부품 주문 이벤트 직렬화 실패 - 주문 ID: {}, 이벤트 타입: {}, 오류: {}",
-                partOrder.getId(), eventType, e.getMessage(), e);
-            throw new IllegalStateException("Serialize " + eventType + " event failed", e);
+            log.error("부품 주문 이벤트 참조 정보 조회 실패 - 주문 수: {}, 이벤트 타입: {}, 오류: {}",
+                    partOrders.size(), eventType, e.getMessage(), e);
+            throw new IllegalStateException("Load " + eventType + " event references failed", e);
         }
     }
 
+    /**
+     * delta로 보낼 주문 ID. 주문별 스냅샷 이후 이벤트 수를 올리고, snapshot-interval에 닿은 주문은 스냅샷으로 돌리며 0으로 되돌린다.
+     * delta를 만들 수 없는 이벤트(생성/완료/삭제)는 항상 스냅샷이므로 카운트만 초기화한다.
+     */
+    private Set<Long> deltaOrderIds(List<PartOrder> partOrders, PartOrderEventType eventType) {
+        if (!deltaEnabled) return Set.of();
+        Set<Long> ids = partOrders.stream()
+                .map(PartOrder::getId)
+                .collect(Collectors.toSet());
+        if (!eventType.isDeltaCapable()) {
+            partOrderRepository.resetEventsSinceSnapshot(ids);
+            return Set.of();
+        }
+
+        partOrderRepository.incrementEventsSinceSnapshot(ids);
+        List<Long> due = partOrderRepository.findIdsWithEventsSinceSnapshotAtLeast(ids, snapshotInterval);
+        if (!due.isEmpty()) partOrderRepository.resetEventsSinceSnapshot(due);
+
+        Set<Long> deltaIds = new HashSet<>(ids);
+        due.forEach(deltaIds::remove);
+        return deltaIds;
+    }
+
+    private PartOrderDeltaEvent buildDeltaEvent(String eventType, PartOrder partOrder) {
+        return new PartOrderDeltaEvent(
+                UUID.randomUUID().toString(),
+                eventType,
+                nvl(partOrder.getVersion(), 0L),
+                OffsetDateTime.now().toString(),
+                PartOrderDeltaEvent.ENCODING,
+                new PartOrderDeltaEvent.StatusDelta(
+                        partOrder.getExternalPartOrderId(),
+                        partOrder.getOrderCode(),
+                        partOrder.getStatus().name(),
+                        partOrder.getScheduledDate() != null ? partOrder.getScheduledDate().toString() : null,
+                        partOrder.getProgressRate(),
+                        partOrder.getPriority() != null ? partOrder.getPriority().name() : null,
+                        partOrder.getMaterialAvailability() != null ? partOrder.getMaterialAvailability().name() : null
+                )
+        );
+    }
+
+    private PartOrderEvent buildEvent(String eventType, PartOrder partOrder,
+                                      Map<Long, FactoryProjection> factories,
+                                      Map<Long, PartProjection> parts,
+                                      Boolean deleted) {
+        FactoryProjection factory = factories.get(partOrder.getFactoryId());
+        if (factory == null) {
+            throw new NotFoundException(ErrorStatus.FACTORY_NOT_FOUND);
+        }
+
+        // PartOrderItem들을 PartOrderItemPayload로 변환
+        List<PartOrderEvent.PartOrderItemPayload> itemPayloads = partOrder.getItems().stream()
+                .map(item -> {
+                    PartProjection part = parts.get(item.getPartId());
+                    if (part == null) {
+                        throw new NotFoundException(ErrorStatus.PART_NOT_FOUND);
+                    }
+                    return new PartOrderEvent.PartOrderItemPayload(
+                            part.getPartId(),
+                            part.getName(),
+                            part.getCode(),
+                            item.getQuantity()
+                    );
+                })
+                .collect(Collectors.toList());
+
+        return new PartOrderEvent(
+                UUID.randomUUID().toString(),
+                eventType,
+                nvl(partOrder.getVersion(), 0L),
+                OffsetDateTime.now().toString(),
+                new PartOrderEvent.Payload(
+                        partOrder.getExternalPartOrderId(),
+                        partOrder.getOrderCode(),             // orderCode
+                        partOrder.getFactoryId(),             // factoryId
+                        factory.getBranchName(),              // factoryName
+                        partOrder.getWarehouseId(),           // warehouseId
+                        partOrder.getWarehouseName(),         // warehouseName
+                        partOrder.getStatus().name(),         // status
+                        partOrder.getRequiredDate() != null ? partOrder.getRequiredDate().toString() : null, // requiredDate
+                        partOrder.getScheduledDate() != null ? partOrder.getScheduledDate().toString() : null, // scheduledDate
+                        partOrder.getProgressRate(),          // progressRate
+                        partOrder.getPriority() != null ? partOrder.getPriority().name() : null, // priority
+                        partOrder.getMaterialAvailability() != null ? partOrder.getMaterialAvailability().name() : null, // materialAvailability
+                        itemPayloads,                         // items
+                        deleted                               // deleted
+                )
+        );
+    }
+
     private long nvl(Long v, long def) {
         return v == null ? def : v;
     }
@@ -4,13 +4,14 @@ import com.sampoom.factory.api.bom.entity.BomMaterialProjection;
 import com.sampoom.factory.api.bom.entity.BomProjection;
 import com.sampoom.factory.api.bom.repository.BomMaterialProjectionRepository;
 import com.sampoom.factory.api.bom.repository.BomProjectionRepository;
-import com.sampoom.factory.api.material.entity.FactoryMaterial;
-import com.sampoom.factory.api.material.repository.FactoryMaterialRepository;
+import com.sampoom.factory.api.material.service.FactoryMaterialStockService;
+import com.sampoom.factory.api.material.service.StockMovementReference;
 import com.sampoom.factory.api.part.entity.MaterialAvailability;
 import com.sampoom.factory.api.part.entity.PartOrder;
 import com.sampoom.factory.api.part.entity.PartOrderItem;
 import com.sampoom.factory.api.part.entity.PartOrderStatus;
 import com.sampoom.factory.api.part.entity.PartOrderType;
+import com.sampoom.factory.api.part.event.PartOrderEventType;
 import com.sampoom.factory.api.part.repository.PartOrderRepository;
 import com.sampoom.factory.common.exception.NotFoundException;
 import com.sampoom.factory.common.response.ErrorStatus;
@@ -21,7 +22,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
@@ -31,7 +35,7 @@ public class PartOrderSchedulerService {
     private final PartOrderRepository partOrderRepository;
     private final BomProjectionRepository bomProjectionRepository;
     private final BomMaterialProjectionRepository bomMaterialProjectionRepository;
-    private final FactoryMaterialRepository factoryMaterialRepository;
+    private final FactoryMaterialStockService factoryMaterialStockService;
     private final PartOrderEventService partOrderEventService; // 이벤트 서비스 추가
     private final PartOrderService partOrderService; // MRP 결과 적용을 위한 서비스 추가
 
@@ -51,6 +55,7 @@ public class PartOrderSchedulerService {
 
         int completedCount = 0;
         int materialInsufficientCount = 0;
+        List<PartOrder> completedOrders = new ArrayList<>();
 
         for (PartOrder order : overdueOrders) {
             try {
@@ -73,8 +78,8 @@ public class PartOrderSchedulerService {
 
                 partOrderRepository.save(order);
 
-                // 자동 완료된 주문에 대해 이벤트 발행
-                partOrderEventService.recordPartOrderCompleted(order);
+                // 자동 완료된 주문에 대해 이벤트 발행 (루프 종료 후 일괄 적재)
+                completedOrders.add(order);
 
                 completedCount++;
 
@@ -84,24 +89,27 @@ public class PartOrderSchedulerService {
             }
         }
 
+        partOrderEventService.recordAll(completedOrders, PartOrderEventType.COMPLETED);
+
         log.info("예정일 기준 주문 자동 완료 처리 완료 - 완료된 주문: {}건 (자재부족: {}건)",
             completedCount, materialInsufficientCount);
     }
 
     // 자재 차감 로직 (PartOrderService와 동일)
     private void deductMaterials(PartOrder partOrder) {
+        // 주문의 모든 BOM 라인을 자재별로 합산해 조건부 UPDATE batch 한 번으로 차감
+        Map<Long, Double> requiredByMaterial = new LinkedHashMap<>();
         for (PartOrderItem item : partOrder.getItems()) {
             BomProjection bomProjection = bomProjectionRepository.findByPartId(item.getPartId())
                 .orElseThrow(() -> new NotFoundException(ErrorStatus.BOM_NOT_FOUND));
             List<BomMaterialProjection> materials = bomMaterialProjectionRepository.findByBomId(bomProjection.getBomId());
             for (BomMaterialProjection bomMaterial : materials) {
-                FactoryMaterial factoryMaterial = factoryMaterialRepository
-                    .findFirstByFactoryIdAndMaterialId(partOrder.getFactoryId(), bomMaterial.getMaterialId())
-                    .orElseThrow(() -> new NotFoundException(ErrorStatus.MATERIAL_NOT_FOUND));
                 double required = bomMaterial.getQuantity() * item.getQuantity(); // Double 값 직접 사용
-                factoryMaterial.decreaseQuantity(required);
+                requiredByMaterial.merge(bomMaterial.getMaterialId(), required, Double::sum);
             }
         }
+        factoryMaterialStockService.deduct(partOrder.getFactoryId(), requiredByMaterial,
+                StockMovementReference.partOrder(partOrder.getId()));
     }
 
     /**
@@ -118,6 +126,7 @@ public class PartOrderSchedulerService {
 
         int updatedCount = 0;
         int autoCompletedCount = 0;
+        List<PartOrder> completedOrders = new ArrayList<>();
 
         for (PartOrder order : inProgressOrders) {
             try {
@@ -133,8 +142,8 @@ public class PartOrderSchedulerService {
                 if (previousStatus == PartOrderStatus.IN_PROGRESS && order.getStatus() == PartOrderStatus.COMPLETED) {
                     autoCompletedCount++;
 
-                    // 진행률 업데이트 중 자동 완료된 주문에 대해 이벤트 발행
-                    partOrderEventService.recordPartOrderCompleted(order);
+                    // 진행률 업데이트 중 자동 완료된 주문에 대해 이벤트 발행 (루프 종료 후 일괄 적재)
+                    completedOrders.add(order);
 
                     log.info("진행률 업데이트 중 자동 완료된 주문: 주문ID={}, 주문코드={}",
                         order.getId(), order.getOrderCode());
@@ -146,6 +155,8 @@ public class PartOrderSchedulerService {
             }
         }
 
+        partOrderEventService.recordAll(completedOrders, PartOrderEventType.COMPLETED);
+
         log.info("주문 진행률 업데이트 완료 - 업데이트: {}건, 자동완료: {}건",
             updatedCount, autoCompletedCount);
     }
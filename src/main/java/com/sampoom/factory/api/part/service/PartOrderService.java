@@ -8,17 +8,22 @@ import com.sampoom.factory.api.factory.entity.FactoryProjection;
 import com.sampoom.factory.api.factory.repository.FactoryProjectionRepository;
 import com.sampoom.factory.api.factory.entity.BranchFactoryDistance;
 import com.sampoom.factory.api.factory.repository.BranchFactoryDistanceRepository;
-import com.sampoom.factory.api.material.entity.FactoryMaterial;
-import com.sampoom.factory.api.material.repository.FactoryMaterialRepository;
+import com.sampoom.factory.api.material.entity.MaterialProjection;
 import com.sampoom.factory.api.material.repository.MaterialProjectionRepository;
+import com.sampoom.factory.api.material.service.FactoryMaterialStockService;
+import com.sampoom.factory.api.material.service.FactoryStockSnapshot;
+import com.sampoom.factory.api.material.service.StockMovementReference;
 import com.sampoom.factory.api.part.dto.PartOrderRequestDto;
 import com.sampoom.factory.api.part.dto.PartOrderResponseDto;
 import com.sampoom.factory.api.part.entity.*;
+import com.sampoom.factory.api.part.event.PartOrderEventType;
 import com.sampoom.factory.api.part.repository.PartCategoryProjectionRepository;
 import com.sampoom.factory.api.part.repository.PartGroupProjectionRepository;
 import com.sampoom.factory.api.part.repository.PartOrderRepository;
 import com.sampoom.factory.api.part.repository.PartProjectionRepository;
+import com.sampoom.factory.api.purchase.dto.PurchaseDispatchResult;
 import com.sampoom.factory.api.purchase.dto.PurchaseRequestDto;
+import com.sampoom.factory.api.purchase.service.PurchaseRequestOutboxService;
 import com.sampoom.factory.api.purchase.service.PurchaseRequestService;
 import com.sampoom.factory.common.exception.BadRequestException;
 import com.sampoom.factory.common.exception.NotFoundException;
@@ -38,8 +43,10 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -48,12 +55,14 @@ import java.util.stream.Collectors;
 public class PartOrderService {
     private final BomProjectionRepository bomProjectionRepository;
     private final BomMaterialProjectionRepository bomMaterialProjectionRepository;
-    private final FactoryMaterialRepository factoryMaterialRepository;
+    private final FactoryMaterialStockService factoryMaterialStockService;
+    private final FactoryStockSnapshot factoryStockSnapshot;
     private final PartProjectionRepository partProjectionRepository;
     private final PartOrderRepository partOrderRepository;
     private final FactoryProjectionRepository factoryProjectionRepository;
     private final MaterialProjectionRepository materialProjectionRepository;
     private final PurchaseRequestService purchaseRequestService; // 구매요청 서비스 추가
+    private final PurchaseRequestOutboxService purchaseRequestOutboxService; // 구매요청 Outbox (비동기 전달)
     private final PartOrderCodeGenerator partOrderCodeGenerator; // 주문 코드 생성기 추가
     private final BranchFactoryDistanceRepository branchFactoryDistanceRepository; // 거리 정보 Repository 추가
     private final PartOrderEventService partOrderEventService; // 이벤트 서비스 추가
@@ -137,11 +146,9 @@ public class PartOrderService {
                 .orElseThrow(() -> new NotFoundException(ErrorStatus.BOM_NOT_FOUND));
             List<BomMaterialProjection> materials = bomMaterialProjectionRepository.findByBomId(bomProjection.getBomId());
             for (BomMaterialProjection bomMaterial : materials) {
-                FactoryMaterial factoryMaterial = factoryMaterialRepository
-                    .findFirstByFactoryIdAndMaterialId(partOrder.getFactoryId(), bomMaterial.getMaterialId())
-                    .orElse(null);
+                Double stock = factoryStockSnapshot.quantityOf(partOrder.getFactoryId(), bomMaterial.getMaterialId());
                 long required = Math.round(bomMaterial.getQuantity() * item.getQuantity()); // Double에서 long으로 변환
-                if (factoryMaterial == null || factoryMaterial.getQuantity() < required) {
+                if (stock == null || stock < required) {
                     return true; // 자재 부족
                 }
             }
@@ -314,13 +321,11 @@ public class PartOrderService {
                     .orElseThrow(() -> new NotFoundException(ErrorStatus.BOM_NOT_FOUND));
             List<BomMaterialProjection> materials = bomMaterialProjectionRepository.findByBomId(bomProjection.getBomId());
             for (BomMaterialProjection bomMaterial : materials) {
-                FactoryMaterial factoryMaterial = factoryMaterialRepository
-                        .findFirstByFactoryIdAndMaterialId(partOrder.getFactoryId(), bomMaterial.getMaterialId())
-                        .orElse(null);
+                Double stock = factoryStockSnapshot.committedQuantityOf(partOrder.getFactoryId(), bomMaterial.getMaterialId());
 
                 long required = Math.round(bomMaterial.getQuantity() * item.getQuantity()); // Double에서 long으로 변환
 
-                if (factoryMaterial == null || factoryMaterial.getQuantity() < required) {
+                if (stock == null || stock < required) {
                     materialShortage = true;
                     var materialProjection = materialProjectionRepository.findByMaterialId(bomMaterial.getMaterialId());
 
@@ -328,7 +333,7 @@ public class PartOrderService {
 
                     // standardQuantity를 기준으로 배수 계산
                     Integer standardQuantity = materialProjection.map(mp -> mp.getStandardQuantity()).orElse(100);
-                    long shortageAmount = required - (factoryMaterial != null ? Math.round(factoryMaterial.getQuantity()) : 0);
+                    long shortageAmount = required - (stock != null ? Math.round(stock) : 0);
                     int multiplier = (int) Math.ceil((double) shortageAmount / standardQuantity);
                     int totalMaterialLeadTime = baseMaterialLeadTime * multiplier;
 
@@ -337,7 +342,7 @@ public class PartOrderService {
 
                     log.info("자재 부족 - 자재ID: {}, 자재명: {}, 필요수량: {}, 재고수���: {}, 부족량: {}, 기본리드타임: {}일, 기준수량: {}, 배수: {}, 총 리드타임: {}일",
                         bomMaterial.getMaterialId(), materialName, required,
-                        factoryMaterial != null ? factoryMaterial.getQuantity() : 0,
+                        stock != null ? stock : 0,
                         shortageAmount, baseMaterialLeadTime, standardQuantity, multiplier, totalMaterialLeadTime);
                 }
             }
@@ -435,6 +440,7 @@ public class PartOrderService {
             partOrderPage = partOrderRepository.findByFactoryId(factoryId, pageable);
         }
 
+        List<PartOrder> completedOrders = new ArrayList<>();
         List<PartOrderResponseDto> content = partOrderPage.getContent().stream()
                 .map(partOrder -> {
                     PartOrderStatus originalStatus = partOrder.getStatus();
@@ -447,7 +453,7 @@ public class PartOrderService {
                         // IN_PROGRESS에서 COMPLETED로 변경된 경우 완료 이벤트 발행
                         if (originalStatus == PartOrderStatus.IN_PROGRESS &&
                             partOrder.getStatus() == PartOrderStatus.COMPLETED) {
-                            partOrderEventService.recordPartOrderCompleted(partOrder);
+                            completedOrders.add(partOrder);
                         }
                     }
 
@@ -455,6 +461,8 @@ public class PartOrderService {
                 })
                 .collect(Collectors.toList());
 
+        partOrderEventService.recordAll(completedOrders, PartOrderEventType.COMPLETED);
+
         return PageResponseDto.<PartOrderResponseDto>builder()
                 .content(content)
                 .totalElements(partOrderPage.getTotalElements())
@@ -762,6 +770,7 @@ public class PartOrderService {
                 .priority(partOrder.getPriority() != null ? partOrder.getPriority().name() : null)
                 .materialAvailability(partOrder.getMaterialAvailability() != null ? partOrder.getMaterialAvailability().name() : null)
                 .orderType(partOrder.getOrderType() != null ? partOrder.getOrderType().name() : null)
+                .purchaseDeliveryStatus(partOrder.getPurchaseDeliveryStatus() != null ? partOrder.getPurchaseDeliveryStatus().name() : null)
                 .items(itemDtos)
                 .build();
     }
@@ -830,6 +839,7 @@ public class PartOrderService {
                 .priority(partOrder.getPriority() != null ? partOrder.getPriority().name() : null)
                 .materialAvailability(partOrder.getMaterialAvailability() != null ? partOrder.getMaterialAvailability().name() : null)
                 .orderType(partOrder.getOrderType() != null ? partOrder.getOrderType().name() : null)
+                .purchaseDeliveryStatus(partOrder.getPurchaseDeliveryStatus() != null ? partOrder.getPurchaseDeliveryStatus().name() : null)
                 .items(itemDtos)
                 .build();
     }
@@ -845,11 +855,9 @@ public class PartOrderService {
 
             // 자재 재고량 확인
             for (Map.Entry<Long, Long> entry : requiredMaterials.entrySet()) {
-                FactoryMaterial factoryMaterial = factoryMaterialRepository
-                        .findFirstByFactoryIdAndMaterialId(factory.getBranchId(), entry.getKey())
-                        .orElse(null);
+                Double stock = factoryStockSnapshot.quantityOf(factory.getBranchId(), entry.getKey());
 
-                if (factoryMaterial != null && factoryMaterial.getQuantity() >= entry.getValue()) {
+                if (stock != null && stock >= entry.getValue()) {
                     score += 10; // 자재 충분 시 점수 추가
                 } else {
                     score -= 5; // 자재 부족 시 점수 차감
@@ -917,21 +925,22 @@ public class PartOrderService {
 
     // 자재 차감 projection 기반으로 변경
     private void deductMaterials(PartOrder partOrder) {
+        // 주문의 모든 BOM 라인을 자재별로 합산해 조건부 UPDATE batch 한 번으로 차감
+        Map<Long, Double> requiredByMaterial = new LinkedHashMap<>();
         for (PartOrderItem item : partOrder.getItems()) {
             BomProjection bomProjection = bomProjectionRepository.findByPartId(item.getPartId())
                 .orElseThrow(() -> new NotFoundException(ErrorStatus.BOM_NOT_FOUND));
             List<BomMaterialProjection> materials = bomMaterialProjectionRepository.findByBomId(bomProjection.getBomId());
             for (BomMaterialProjection bomMaterial : materials) {
-                FactoryMaterial factoryMaterial = factoryMaterialRepository
-                    .findFirstByFactoryIdAndMaterialId(partOrder.getFactoryId(), bomMaterial.getMaterialId())
-                    .orElseThrow(() -> new NotFoundException(ErrorStatus.MATERIAL_NOT_FOUND));
                 double required = bomMaterial.getQuantity() * item.getQuantity(); // Double 값 직접 사용
-                factoryMaterial.decreaseQuantity(required);
+                requiredByMaterial.merge(bomMaterial.getMaterialId(), required, Double::sum);
             }
         }
+        factoryMaterialStockService.deduct(partOrder.getFactoryId(), requiredByMaterial,
+                StockMovementReference.partOrder(partOrder.getId()));
     }
 
-    // 자재 구매요청 처리 (자재 부족 시 호출) - 종류별 단건 요청으로 변경
+    // 자재 구매요청 처리 (자재 부족 시 호출) - 종류별 단건 요청을 병렬로 전송하거나 Outbox에 적재
     private void requestMaterialPurchase(PartOrder partOrder) {
         log.info("자재 구매요청 처리 시작 - 주문 ID: {}", partOrder.getId());
 
@@ -944,12 +953,10 @@ public class PartOrderService {
             List<BomMaterialProjection> materials = bomMaterialProjectionRepository.findByBomId(bomProjection.getBomId());
 
             for (BomMaterialProjection bomMaterial : materials) {
-                FactoryMaterial factoryMaterial = factoryMaterialRepository
-                    .findFirstByFactoryIdAndMaterialId(partOrder.getFactoryId(), bomMaterial.getMaterialId())
-                    .orElse(null);
+                Double stock = factoryStockSnapshot.committedQuantityOf(partOrder.getFactoryId(), bomMaterial.getMaterialId());
 
                 long required = Math.round(bomMaterial.getQuantity() * item.getQuantity()); // Double에서 long으로 변환
-                long currentStock = factoryMaterial != null ? Math.round(factoryMaterial.getQuantity()) : 0; // Double을 long으로 변환
+                long currentStock = stock != null ? Math.round(stock) : 0; // Double을 long으로 변환
 
                 if (currentStock < required) {
                     long shortageAmount = required - currentStock;
@@ -969,83 +976,82 @@ public class PartOrderService {
         FactoryProjection factory = factoryProjectionRepository.findById(partOrder.getFactoryId())
                 .orElseThrow(() -> new NotFoundException(ErrorStatus.FACTORY_NOT_FOUND));
 
-        // 자재별로 개별 구매요청 생성 및 전송
-        int successCount = 0;
-        int failCount = 0;
-        List<String> failedMaterials = new ArrayList<>();
-        
-        for (MaterialPurchaseInfo materialInfo : materialRequirements.values()) {
-            try {
-                var materialProjection = materialProjectionRepository.findByMaterialId(materialInfo.getMaterialId());
-
-                String materialCode = materialProjection.map(mp -> mp.getCode()).orElse("MTL-" + materialInfo.getMaterialId());
-                String materialName = materialProjection.map(mp -> mp.getName()).orElse("UNKNOWN");
-                String unit = materialProjection.map(mp -> mp.getMaterialUnit()).orElse("EA");
-                Long unitPrice = materialProjection.map(mp -> mp.getStandardCost()).orElse(1000L);
-                Integer leadTimeDays = materialProjection.map(mp -> mp.getLeadTime()).orElse(7);
-
-                // standardQuantity를 고려한 주문 수량 계산
-                Integer standardQuantity = materialProjection.map(mp -> mp.getStandardQuantity()).orElse(1);
-                long actualOrderQuantity = calculateOrderQuantityWithStandardUnit(materialInfo.getShortageAmount(), standardQuantity);
-
-                log.info("자재 주문 수량 계산 - 자재코드: {}, 부족량: {}, 표준수량: {}, 실제주문량: {}",
-                    materialCode, materialInfo.getShortageAmount(), standardQuantity, actualOrderQuantity);
-
-                List<PurchaseRequestDto.PurchaseItemDto> singleMaterialItem = List.of(
-                    PurchaseRequestDto.PurchaseItemDto.builder()
-                            .materialCode(materialCode)
-                            .materialName(materialName)
-                            .unit(unit)
-                            .quantity(actualOrderQuantity)  // 계산된 배수 수량으로 변경
-                            .unitPrice(unitPrice)
-                            .leadTimeDays(leadTimeDays)
-                            .standardQuantity(standardQuantity)  // standardQuantity 추가
-                            .build()
-                );
-
-                PurchaseRequestDto purchaseRequest = PurchaseRequestDto.builder()
-                        .factoryId(factory.getBranchId())
-                        .factoryName(factory.getBranchName())
-                        .requiredAt(partOrder.getRequiredDate())
-                        .requesterName("MRP 시스템")
-                        .items(singleMaterialItem)
-                        .build();
+        if (materialRequirements.isEmpty()) {
+            log.info("구매요청할 자재가 없습니다 - 주문 ID: {}", partOrder.getId());
+            return;
+        }
 
-                purchaseRequestService.sendPurchaseRequest(purchaseRequest);
-                
-                log.info("자재 개별 구매요청 성공 - 주문 ID: {}, 자재코드: {}, 자재명: {}, 부족수량: {}, 주문수량: {}",
-                    partOrder.getId(), materialCode, materialName, materialInfo.getShortageAmount(), actualOrderQuantity);
+        // 자재 정보는 IN 조회 한 번으로 가져온다
+        Map<Long, MaterialProjection> projections = materialProjectionRepository
+                .findByMaterialIdIn(new ArrayList<>(materialRequirements.keySet())).stream()
+                .collect(Collectors.toMap(MaterialProjection::getMaterialId, mp -> mp, (first, second) -> first));
 
-                successCount++;
-                
-            } catch (Exception e) {
-                String materialName = materialProjectionRepository.findByMaterialId(materialInfo.getMaterialId())
-                    .map(mp -> mp.getName())
-                    .orElse("UNKNOWN");
-                
-                failedMaterials.add(materialName);
-                
-                log.error("자재 개별 구매요청 실패 - 주문 ID: {}, 자재 ID: {}, 자재명: {}, 오류: {}",
-                    partOrder.getId(), materialInfo.getMaterialId(), materialName, e.getMessage());
-                failCount++;
-            }
+        // 자재별 개별 구매요청을 만든 뒤 병렬로 한 번에 전송 (구매 서비스는 요청당 자재 한 종류를 받는다)
+        List<PurchaseRequestDto> purchaseRequests = new ArrayList<>(materialRequirements.size());
+        for (MaterialPurchaseInfo materialInfo : materialRequirements.values()) {
+            Optional<MaterialProjection> materialProjection = Optional.ofNullable(projections.get(materialInfo.getMaterialId()));
+
+            String materialCode = materialProjection.map(mp -> mp.getCode()).orElse("MTL-" + materialInfo.getMaterialId());
+            String materialName = materialProjection.map(mp -> mp.getName()).orElse("UNKNOWN");
+            String unit = materialProjection.map(mp -> mp.getMaterialUnit()).orElse("EA");
+            Long unitPrice = materialProjection.map(mp -> mp.getStandardCost()).orElse(1000L);
+            Integer leadTimeDays = materialProjection.map(mp -> mp.getLeadTime()).orElse(7);
+
+            // standardQuantity를 고려한 주문 수량 계산
+            Integer standardQuantity = materialProjection.map(mp -> mp.getStandardQuantity()).orElse(1);
+            long actualOrderQuantity = calculateOrderQuantityWithStandardUnit(materialInfo.getShortageAmount(), standardQuantity);
+
+            log.info("자재 주문 수량 계산 - 자재코드: {}, 부족량: {}, 표준수량: {}, 실제주문량: {}",
+                materialCode, materialInfo.getShortageAmount(), standardQuantity, actualOrderQuantity);
+
+            List<PurchaseRequestDto.PurchaseItemDto> singleMaterialItem = List.of(
+                PurchaseRequestDto.PurchaseItemDto.builder()
+                        .materialCode(materialCode)
+                        .materialName(materialName)
+                        .unit(unit)
+                        .quantity(actualOrderQuantity)  // 계산된 배수 수량으로 변경
+                        .unitPrice(unitPrice)
+                        .leadTimeDays(leadTimeDays)
+                        .standardQuantity(standardQuantity)  // standardQuantity 추가
+                        .build()
+            );
+
+            purchaseRequests.add(PurchaseRequestDto.builder()
+                    .factoryId(factory.getBranchId())
+                    .factoryName(factory.getBranchName())
+                    .requiredAt(partOrder.getRequiredDate())
+                    .requesterName("MRP 시스템")
+                    .items(singleMaterialItem)
+                    .build());
         }
 
-        if (materialRequirements.isEmpty()) {
-            log.info("구매요청할 자재가 없습니다 - 주문 ID: {}", partOrder.getId());
-        } else {
-            log.info("자재 구매요청 처리 완료 - 주문 ID: {}, 성공: {}, 실패: {}, 총 자재 종류: {}", 
-                partOrder.getId(), successCount, failCount, materialRequirements.size());
+        // Outbox 모드: 같은 트랜잭션에 적재만 하고 전달은 커밋 이후 PurchaseRequestDispatcher가 재시도와 함께 수행
+        if (purchaseRequestOutboxService.isEnabled()) {
+            purchaseRequestOutboxService.enqueue(partOrder.getId(), purchaseRequests);
+            partOrder.updatePurchaseDeliveryStatus(PurchaseDeliveryStatus.PENDING);
+            partOrderRepository.updatePurchaseDeliveryStatus(partOrder.getId(), PurchaseDeliveryStatus.PENDING);
+            log.info("자재 구매요청 Outbox 적재 완료 - 주문 ID: {}, 총 자재 종류: {}", partOrder.getId(), purchaseRequests.size());
+            return;
         }
 
+        PurchaseDispatchResult result = purchaseRequestService.sendAll(purchaseRequests);
+        result.failures().forEach(failure -> log.error("자재 개별 구매요청 실패 - 주문 ID: {}, 자재코드: {}, 자재명: {}, 오류: {}",
+                partOrder.getId(), failure.materialCode(), failure.materialName(), failure.reason()));
+        log.info("자재 구매요청 처리 완료 - 주문 ID: {}, 성공: {}, 실패: {}, 총 자재 종류: {}",
+            partOrder.getId(), result.succeededCount(), result.failures().size(), materialRequirements.size());
+
         // 하나라도 실패한 경우 상세한 예외 발생
-        if (failCount > 0) {
+        if (result.hasFailures()) {
             String errorMessage = String.format(
                 "자재 구매요청이 실패했습니다. 성공: %d, 실패: %d. 실패한 자재: %s",
-                successCount, failCount, String.join(", ", failedMaterials)
+                result.succeededCount(), result.failures().size(),
+                result.failures().stream().map(PurchaseDispatchResult.RequestFailure::materialName).collect(Collectors.joining(", "))
             );
             throw new RuntimeException(errorMessage);
         }
+
+        partOrder.updatePurchaseDeliveryStatus(PurchaseDeliveryStatus.DELIVERED);
+        partOrderRepository.updatePurchaseDeliveryStatus(partOrder.getId(), PurchaseDeliveryStatus.DELIVERED);
     }
 
     // 표준 수량 단위로 배수 계산하는 메서드 추가
@@ -1228,6 +1234,7 @@ public class PartOrderService {
         List<PartOrderResponseDto> results = new ArrayList<>();
         int successCount = 0;
         int failCount = 0;
+        List<PartOrder> changedOrders = new ArrayList<>();
 
         for (Long orderId : orderIds) {
             try {
@@ -1272,8 +1279,8 @@ public class PartOrderService {
 
                 partOrderRepository.save(partOrder);
 
-                // MRP 결과 적용으로 상태가 변경된 경우 이벤트 발행
-                partOrderEventService.recordPartOrderStatusChanged(partOrder);
+                // MRP 결과 적용으로 상태가 변경된 경우 이벤트 발행 (루프 종료 후 일괄 적재)
+                changedOrders.add(partOrder);
 
                 results.add(toResponseDto(partOrder));
                 successCount++;
@@ -1285,6 +1292,8 @@ public class PartOrderService {
             }
         }
 
+        partOrderEventService.recordAll(changedOrders, PartOrderEventType.STATUS_CHANGED);
+
         log.info("일괄 MRP 결과 적용 완료 - 공장 ID: {}, 성공: {}, 실패: {}", factoryId, successCount, failCount);
         return results;
     }
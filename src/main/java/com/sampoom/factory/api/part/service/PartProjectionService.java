@@ -1,146 +1,81 @@
 package com.sampoom.factory.api.part.service;
 
 import com.sampoom.factory.api.part.dto.PartEventDto;
-import com.sampoom.factory.api.part.entity.PartProjection;
 import com.sampoom.factory.api.part.entity.PartStatus;
-import com.sampoom.factory.api.part.repository.PartProjectionRepository;
+import com.sampoom.factory.api.suggest.service.AutocompleteService;
+import com.sampoom.factory.common.projection.ProjectionApplyResult;
+import com.sampoom.factory.common.projection.ProjectionRow;
+import com.sampoom.factory.common.projection.ProjectionUpsertEngine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.OffsetDateTime;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PartProjectionService {
 
-    private final PartProjectionRepository partProjectionRepository;
+    private static final String TABLE = "part_projection";
+    private static final String KEY = "part_id";
 
-    @Transactional
-    public void handlePartEvent(PartEventDto eventDto) {
-        final Long partId = eventDto.getPayload().getPartId();
-        final Long incomingVer = nvl(eventDto.getVersion(), 0L);
-
-        PartProjection pp = partProjectionRepository.findByPartId(partId).orElse(null);
-
-        // 멱등(같은 이벤트) 차단
-        if (pp != null && eventDto.getEventId() != null && pp.getLastEventId() != null) {
-            if (pp.getLastEventId().equals(eventDto.getEventId())) return;
-        }
-        // 역순(오래된 이벤트) 차단
-        if (pp != null && incomingVer <= nvl(pp.getVersion(), 0L)) return;
-
-        switch (eventDto.getEventType()) {
-            case "PartCreated":
-                handlePartCreated(eventDto);
-                break;
-            case "PartUpdated":
-                handlePartUpdated(eventDto);
-                break;
-            case "PartDeleted":
-                handlePartDeleted(eventDto);
-                break;
-            default:
-                log.warn("알 수 없는 이벤트 타입: {}", eventDto.getEventType());
-        }
-    }
-
-    private void handlePartCreated(PartEventDto eventDto) {
-        PartEventDto.PartPayload payload = eventDto.getPayload();
-
-        PartProjection partProjection = PartProjection.builder()
-                .partId(payload.getPartId())
-                .code(payload.getCode())
-                .name(payload.getName())
-                .partUnit(payload.getPartUnit())
-                .baseQuantity(payload.getBaseQuantity())
-                .leadTime(payload.getLeadTime())
-                .standardQuantity(payload.getStandardQuantity())     // 새로 추가된 필드
-                .status(PartStatus.valueOf(payload.getStatus()))
-                .deleted(payload.getDeleted())
-                .groupId(payload.getGroupId())
-                .categoryId(payload.getCategoryId())
-                .standardCost(payload.getStandardCost())
-                .standardTotalCost(payload.getStandardTotalCost())   // 새로 추가된 필드
-                .lastEventId(eventDto.getEventId())
-                .version(eventDto.getVersion())
-                .sourceUpdatedAt(eventDto.getOccurredAt())
-                .updatedAt(OffsetDateTime.now())
-                .build();
+    private final ProjectionUpsertEngine projectionUpsertEngine;
+    private final AutocompleteService autocompleteService;
 
-        partProjectionRepository.save(partProjection);
-        log.info("Part 생성 완료: partId={}, name={}", payload.getPartId(), payload.getName());
+    @Transactional
+    public ProjectionApplyResult handlePartEvent(PartEventDto eventDto) {
+        return handlePartEvents(List.of(eventDto));
     }
 
-    private void handlePartUpdated(PartEventDto eventDto) {
-        PartEventDto.PartPayload payload = eventDto.getPayload();
-
-        Optional<PartProjection> existingPart = partProjectionRepository.findByPartId(payload.getPartId());
-        if (existingPart.isEmpty()) {
-            log.warn("존재하지 않는 Part입니다. partId: {}", payload.getPartId());
-            return;
+    /**
+     * 여러 Part 이벤트를 versioned UPSERT 한 문장(삭제는 UPDATE 한 문장)으로 반영한다.
+     * 중복/역순 이벤트는 SQL의 version 조건으로 걸러지며, 실제 반영된 partId를 돌려준다.
+     */
+    @Transactional
+    public ProjectionApplyResult handlePartEvents(List<PartEventDto> events) {
+        List<ProjectionRow> upserts = new ArrayList<>();
+        List<ProjectionRow> deletes = new ArrayList<>();
+
+        for (PartEventDto eventDto : ProjectionUpsertEngine.latestPerKey(events,
+                e -> e.getPayload().getPartId(), PartEventDto::getVersion)) {
+            switch (eventDto.getEventType()) {
+                case "PartCreated", "PartUpdated" -> upserts.add(toRow(eventDto));
+                case "PartDeleted" -> deletes.add(metaRow(eventDto));
+                default -> log.warn("알 수 없는 이벤트 타입: {}", eventDto.getEventType());
+            }
         }
 
-        PartProjection currentPart = existingPart.get();
-
-        PartProjection updatedPart = currentPart.updateFromEvent(
-                payload.getCode(),
-                payload.getName(),
-                payload.getPartUnit(),
-                payload.getBaseQuantity(),
-                payload.getLeadTime(),
-                payload.getStandardQuantity(),        // 새로 추가된 필드
-                PartStatus.valueOf(payload.getStatus()),
-                payload.getDeleted(),
-                payload.getGroupId(),
-                payload.getCategoryId(),
-                payload.getStandardCost(),
-                payload.getStandardTotalCost(),       // 새로 추가된 필드
-                eventDto.getEventId(),
-                eventDto.getVersion(),
-                eventDto.getOccurredAt()
-        );
+        ProjectionApplyResult result = projectionUpsertEngine.upsert(TABLE, KEY, upserts)
+                .merge(projectionUpsertEngine.markDeleted(TABLE, KEY, deletes));
+        log.info("Part 이벤트 반영 완료: 수신={}, 반영={}, 신규={}", events.size(), result.applied().size(), result.inserted().size());
 
-        partProjectionRepository.save(updatedPart);
-        log.info("Part 업데이트 완료: partId={}, name={}", payload.getPartId(), payload.getName());
+        autocompleteService.refreshParts(result.applied());
+        return result;
     }
 
-    private void handlePartDeleted(PartEventDto eventDto) {
+    private ProjectionRow toRow(PartEventDto eventDto) {
         PartEventDto.PartPayload payload = eventDto.getPayload();
 
-        Optional<PartProjection> existingPart = partProjectionRepository.findByPartId(payload.getPartId());
-        if (existingPart.isEmpty()) {
-            log.warn("존재하지 않는 Part입니다. partId: {}", payload.getPartId());
-            return;
-        }
-
-        PartProjection currentPart = existingPart.get();
-
-        // Soft Delete 처리
-        PartProjection deletedPart = currentPart.updateFromEvent(
-                currentPart.getCode(),
-                currentPart.getName(),
-                currentPart.getPartUnit(),
-                currentPart.getBaseQuantity(),
-                currentPart.getLeadTime(),
-                currentPart.getStandardQuantity(),     // 새로 추가된 필드
-                currentPart.getStatus(),
-                true, // deleted = true
-                currentPart.getGroupId(),
-                currentPart.getCategoryId(),
-                currentPart.getStandardCost(),
-                currentPart.getStandardTotalCost(),   // 새로 추가된 필드
-                eventDto.getEventId(),
-                eventDto.getVersion(),
-                eventDto.getOccurredAt()
-        );
-
-        partProjectionRepository.save(deletedPart);
-        log.info("Part 삭제 완료: partId={}", payload.getPartId());
+        return metaRow(eventDto)
+                .set("code", payload.getCode())
+                .set("name", payload.getName())
+                .set("part_unit", payload.getPartUnit())
+                .set("base_quantity", payload.getBaseQuantity())
+                .set("lead_time", payload.getLeadTime())
+                .set("standard_quantity", payload.getStandardQuantity())     // 새로 추가된 필드
+                .set("status", PartStatus.valueOf(payload.getStatus()).name())
+                .set("deleted", Boolean.TRUE.equals(payload.getDeleted()))
+                .set("group_id", payload.getGroupId())
+                .set("category_id", payload.getCategoryId())
+                .set("standard_cost", payload.getStandardCost())
+                .set("standard_total_cost", payload.getStandardTotalCost());  // 새로 추가된 필드
     }
 
-    private long nvl(Long v, long def) { return v == null ? def : v; }
+    private ProjectionRow metaRow(PartEventDto eventDto) {
+        return ProjectionRow.of(eventDto.getPayload().getPartId(), eventDto.getEventId(),
+                eventDto.getVersion(), eventDto.getOccurredAt());
+    }
 }
@@ -0,0 +1,36 @@
+package com.sampoom.factory.api.projection.controller;
+
+import com.sampoom.factory.api.projection.dto.ProjectionRebuildProgressDto;
+import com.sampoom.factory.api.projection.service.ProjectionRebuildService;
+import com.sampoom.factory.api.projection.service.ProjectionRebuildTarget;
+import com.sampoom.factory.common.response.ApiResponse;
+import com.sampoom.factory.common.response.SuccessStatus;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Tag(name = "Projection", description = "프로젝션 재구축 API")
+@RestController
+@RequestMapping("/projections")
+@RequiredArgsConstructor
+public class ProjectionRebuildController {
+
+    private final ProjectionRebuildService projectionRebuildService;
+
+    @Operation(summary = "프로젝션 재구축 시작", description = "토픽을 처음부터 읽어 프로젝션 테이블을 다시 만들고 교체합니다. (비동기)")
+    @PostMapping("/{target}/rebuild")
+    public ResponseEntity<ApiResponse<ProjectionRebuildProgressDto>> rebuild(
+            @Parameter(description = "재구축 대상 (PART, MATERIAL)") @PathVariable ProjectionRebuildTarget target) {
+        return ApiResponse.success(SuccessStatus.OK, projectionRebuildService.start(target));
+    }
+
+    @Operation(summary = "프로젝션 재구축 진행 상황 조회")
+    @GetMapping("/{target}/rebuild")
+    public ResponseEntity<ApiResponse<ProjectionRebuildProgressDto>> getProgress(
+            @Parameter(description = "재구축 대상 (PART, MATERIAL)") @PathVariable ProjectionRebuildTarget target) {
+        return ApiResponse.success(SuccessStatus.OK, projectionRebuildService.getProgress(target));
+    }
+}
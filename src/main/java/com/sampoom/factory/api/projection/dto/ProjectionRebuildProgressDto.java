@@ -0,0 +1,26 @@
+package com.sampoom.factory.api.projection.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectionRebuildProgressDto {
+    private String target;
+    private String status;          // IDLE / RUNNING / COMPLETED / FAILED
+    private String phase;           // CONSUMING / RESOLVING / SWAPPING
+    private long totalRecords;      // 시작 시점 기준 토픽 전체 레코드 수 (compaction 공백 포함 상한)
+    private long consumedRecords;
+    private long loadedRecords;     // staging에 적재된 이벤트 수
+    private long rebuiltRows;       // 최신 버전으로 확정된 행 수
+    private double progressRate;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
@@ -0,0 +1,310 @@
+package com.sampoom.factory.api.projection.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sampoom.factory.api.projection.dto.ProjectionRebuildProgressDto;
+import com.sampoom.factory.api.suggest.service.AutocompleteService;
+import com.sampoom.factory.api.suggest.service.SuggestType;
+import com.sampoom.factory.common.exception.BadRequestException;
+import com.sampoom.factory.common.response.ErrorStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.postgresql.PGConnection;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * 컴팩션된 토픽을 처음부터 읽어 프로젝션을 통째로 다시 만든다.
+ *
+ * <ol>
+ *   <li>CONSUMING: 별도 컨슈머(assign, 오프셋 커밋 없음)로 시작 시점의 끝 오프셋까지 읽어 UNLOGGED raw 테이블에 COPY로 적재</li>
+ *   <li>RESOLVING: 키별 최신 version 이벤트를 SQL(DISTINCT ON)로 골라 staging 테이블(LIKE 원본)에 INSERT</li>
+ *   <li>SWAPPING: 한 트랜잭션에서 원본을 잠그고, 재구축 중 라이브 컨슈머가 반영한 더 새로운 행을 staging에 합친 뒤 테이블 이름을 교체</li>
+ * </ol>
+ * 라이브 리스너는 그대로 원본 테이블에 쓰며, 교체 순간의 짧은 잠금 외에는 영향을 받지 않는다.
+ * 재구축은 부수 효과(공장 자재 초기화 등)를 다시 실행하지 않는다.
+ */
+@Slf4j
+@Service
+public class ProjectionRebuildService {
+
+    private static final int COPY_BATCH = 5_000;
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+    private final KafkaProperties kafkaProperties;
+    private final ObjectMapper objectMapper;
+    private final AutocompleteService autocompleteService;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "projection-rebuild");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Map<ProjectionRebuildTarget, Progress> progresses = new ConcurrentHashMap<>();
+
+    public ProjectionRebuildService(JdbcTemplate jdbcTemplate, DataSource dataSource,
+                                    TransactionTemplate transactionTemplate, KafkaProperties kafkaProperties,
+                                    ObjectMapper objectMapper, AutocompleteService autocompleteService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.transactionTemplate = transactionTemplate;
+        this.kafkaProperties = kafkaProperties;
+        this.objectMapper = objectMapper;
+        this.autocompleteService = autocompleteService;
+    }
+
+    public ProjectionRebuildProgressDto start(ProjectionRebuildTarget target) {
+        Progress progress = new Progress();
+        Progress running = progresses.compute(target, (t, current) ->
+                current != null && current.isRunning() ? current : progress);
+        if (running != progress) {
+            throw new BadRequestException(ErrorStatus.PROJECTION_REBUILD_IN_PROGRESS);
+        }
+        executor.submit(() -> rebuild(target, progress));
+        return progress.toDto(target);
+    }
+
+    public ProjectionRebuildProgressDto getProgress(ProjectionRebuildTarget target) {
+        Progress progress = progresses.get(target);
+        if (progress == null) {
+            return ProjectionRebuildProgressDto.builder().target(target.name()).status("IDLE").build();
+        }
+        return progress.toDto(target);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void rebuild(ProjectionRebuildTarget target, Progress progress) {
+        log.info("프로젝션 재구축 시작 - target: {}, topic: {}", target, target.getTopic());
+        try {
+            prepareTables(target);
+
+            progress.phase = "CONSUMING";
+            consumeIntoRaw(target, progress);
+
+            progress.phase = "RESOLVING";
+            progress.rebuiltRows = resolveLatest(target);
+
+            progress.phase = "SWAPPING";
+            swap(target);
+
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + target.rawTable());
+            // 테이블이 통째로 바뀌었으므로 자동완성 색인도 다시 적재한다
+            autocompleteService.reload(target == ProjectionRebuildTarget.PART ? SuggestType.PART : SuggestType.MATERIAL);
+            progress.finish("COMPLETED", null);
+            log.info("프로젝션 재구축 완료 - target: {}, 이벤트: {}, 행: {}", target, progress.loadedRecords, progress.rebuiltRows);
+        } catch (Exception e) {
+            progress.finish("FAILED", e.toString());
+            log.error("프로젝션 재구축 실패 - target: {}, 단계: {}", target, progress.phase, e);
+        }
+    }
+
+    private void prepareTables(ProjectionRebuildTarget target) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + target.rawTable());
+        jdbcTemplate.execute("CREATE UNLOGGED TABLE " + target.rawTable() + " ("
+                + "natural_key bigint NOT NULL, version bigint NOT NULL, event_id uuid, event_type text NOT NULL,"
+                + " occurred_at timestamptz, kafka_partition int NOT NULL, kafka_offset bigint NOT NULL, payload jsonb)");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + target.stagingTable());
+        jdbcTemplate.execute("CREATE TABLE " + target.stagingTable() + " (LIKE " + target.getTable() + " INCLUDING ALL)");
+    }
+
+    private void consumeIntoRaw(ProjectionRebuildTarget target, Progress progress) throws Exception {
+        Map<String, Object> props = kafkaProperties.buildConsumerProperties(null);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "projection-rebuild-" + UUID.randomUUID());
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, COPY_BATCH);
+
+        try (KafkaConsumer<String, byte[]> consumer =
+                     new KafkaConsumer<>(props, new StringDeserializer(), new ByteArrayDeserializer())) {
+            List<TopicPartition> partitions = consumer.partitionsFor(target.getTopic()).stream()
+                    .map(p -> new TopicPartition(p.topic(), p.partition()))
+                    .toList();
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> begin = consumer.beginningOffsets(partitions);
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+            consumer.seekToBeginning(partitions);
+
+            progress.totalRecords = partitions.stream().mapToLong(tp -> end.get(tp) - begin.get(tp)).sum();
+            Set<TopicPartition> remaining = partitions.stream()
+                    .filter(tp -> end.get(tp) > begin.get(tp))
+                    .collect(Collectors.toCollection(HashSet::new));
+
+            StringBuilder csv = new StringBuilder();
+            int buffered = 0;
+            while (!remaining.isEmpty()) {
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                    TopicPartition tp = new TopicPartition(record.topic(), record.partition());
+                    if (record.offset() >= end.get(tp)) continue; // 시작 이후 유입분은 라이브 컨슈머가 반영
+                    progress.consumedRecords++;
+                    if (appendRow(csv, target, record)) buffered++;
+                }
+                remaining.removeIf(tp -> consumer.position(tp) >= end.get(tp));
+
+                if (buffered >= COPY_BATCH || (remaining.isEmpty() && buffered > 0)) {
+                    copy(target, csv.toString());
+                    progress.loadedRecords += buffered;
+                    csv.setLength(0);
+                    buffered = 0;
+                }
+            }
+        }
+    }
+
+    // 이벤트 한 건을 raw 테이블 CSV 행으로 추가 (tombstone/키 없는 이벤트는 제외)
+    private boolean appendRow(StringBuilder csv, ProjectionRebuildTarget target, ConsumerRecord<String, byte[]> record)
+            throws Exception {
+        if (record.value() == null) return false;
+        JsonNode event = objectMapper.readTree(record.value());
+        JsonNode payload = event.path("payload");
+        JsonNode key = payload.path(target.getKeyField());
+        if (!key.canConvertToLong()) return false;
+
+        csv.append(key.asLong()).append(',')
+                .append(event.path("version").asLong(0)).append(',')
+                .append(text(event.get("eventId"))).append(',')
+                .append(quote(event.path("eventType").asText())).append(',')
+                .append(text(event.get("occurredAt"))).append(',')
+                .append(record.partition()).append(',')
+                .append(record.offset()).append(',')
+                .append(quote(objectMapper.writeValueAsString(payload))).append('\n');
+        return true;
+    }
+
+    private void copy(ProjectionRebuildTarget target, String csv) throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                    "COPY " + target.rawTable()
+                            + " (natural_key, version, event_id, event_type, occurred_at, kafka_partition, kafka_offset, payload)"
+                            + " FROM STDIN WITH (FORMAT csv)",
+                    new StringReader(csv));
+        }
+    }
+
+    /**
+     * 키별 최신 이벤트(l)와 최신 스냅샷 이벤트(s)를 골라 staging에 넣는다.
+     * 최신 이벤트가 삭제면 마지막 스냅샷 값에 deleted = true로 남기고, 삭제 이벤트만 있는 키는 만들지 않는다.
+     */
+    private int resolveLatest(ProjectionRebuildTarget target) {
+        String raw = target.rawTable();
+        String columns = String.join(", ", target.getColumns().keySet());
+        String values = String.join(", ", target.getColumns().values());
+
+        return jdbcTemplate.update("INSERT INTO " + target.stagingTable()
+                + " (" + target.getKeyColumn() + ", " + columns
+                + ", deleted, version, last_event_id, source_updated_at, updated_at)"
+                + " SELECT l.natural_key, " + values + ","
+                + " (l.event_type = '" + target.getDeletedEventType() + "'"
+                + " OR COALESCE((s.payload->>'deleted')::boolean, false)),"
+                + " l.version, l.event_id, l.occurred_at, now()"
+                + " FROM (SELECT DISTINCT ON (natural_key) * FROM " + raw
+                + " ORDER BY natural_key, version DESC, kafka_offset DESC) l"
+                + " JOIN (SELECT DISTINCT ON (natural_key) * FROM " + raw
+                + " WHERE event_type <> '" + target.getDeletedEventType() + "'"
+                + " ORDER BY natural_key, version DESC, kafka_offset DESC) s ON s.natural_key = l.natural_key");
+    }
+
+    private void swap(ProjectionRebuildTarget target) {
+        String live = target.getTable();
+        String staging = target.stagingTable();
+        List<String> columns = jdbcTemplate.queryForList(
+                "SELECT column_name FROM information_schema.columns"
+                        + " WHERE table_schema = current_schema() AND table_name = ? AND column_name <> 'id'"
+                        + " ORDER BY ordinal_position",
+                String.class, live);
+        String columnList = String.join(", ", columns);
+        List<String> updates = new ArrayList<>();
+        for (String column : columns) {
+            if (!column.equals(target.getKeyColumn())) updates.add(column + " = EXCLUDED." + column);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("LOCK TABLE " + live + " IN SHARE ROW EXCLUSIVE MODE");
+            // 재구축 중 라이브 컨슈머가 반영한 더 새로운 행을 합친다
+            int merged = jdbcTemplate.update("INSERT INTO " + staging + " (" + columnList + ")"
+                    + " SELECT " + columnList + " FROM " + live
+                    + " ON CONFLICT (" + target.getKeyColumn() + ") DO UPDATE SET " + String.join(", ", updates)
+                    + " WHERE " + staging + ".version < EXCLUDED.version");
+            jdbcTemplate.execute("ALTER TABLE " + live + " RENAME TO " + live + "_old");
+            jdbcTemplate.execute("ALTER TABLE " + staging + " RENAME TO " + live);
+            jdbcTemplate.execute("DROP TABLE " + live + "_old");
+            log.info("프로젝션 테이블 교체 - table: {}, 라이브 반영분 병합: {}", live, merged);
+        });
+    }
+
+    private static String text(JsonNode node) {
+        return node == null || node.isNull() ? "" : quote(node.asText());
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static class Progress {
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private volatile String status = "RUNNING";
+        private volatile String phase = "PREPARING";
+        private volatile long totalRecords;
+        private volatile long consumedRecords;
+        private volatile long loadedRecords;
+        private volatile long rebuiltRows;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        boolean isRunning() {
+            return "RUNNING".equals(status);
+        }
+
+        void finish(String status, String error) {
+            this.error = error;
+            this.finishedAt = LocalDateTime.now();
+            this.status = status;
+        }
+
+        ProjectionRebuildProgressDto toDto(ProjectionRebuildTarget target) {
+            double rate = totalRecords == 0 ? (isRunning() ? 0.0 : 100.0)
+                    : Math.min(100.0, consumedRecords * 100.0 / totalRecords);
+            return ProjectionRebuildProgressDto.builder()
+                    .target(target.name())
+                    .status(status)
+                    .phase(phase)
+                    .totalRecords(totalRecords)
+                    .consumedRecords(consumedRecords)
+                    .loadedRecords(loadedRecords)
+                    .rebuiltRows(rebuiltRows)
+                    .progressRate(Math.round(rate * 10) / 10.0)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+}
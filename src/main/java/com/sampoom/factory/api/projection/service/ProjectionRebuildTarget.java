@@ -0,0 +1,71 @@
+package com.sampoom.factory.api.projection.service;
+
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 재구축 가능한 프로젝션. 토픽 이벤트의 payload(jsonb, 별칭 s)에서 각 컬럼 값을 꺼내는 SQL 식을 가진다.
+ * 프로젝션에 컬럼을 추가하면 여기에도 추가한 뒤 재구축하면 된다.
+ */
+@Getter
+public enum ProjectionRebuildTarget {
+
+    PART("part-events", "part_projection", "part_id", "partId", "PartDeleted", columns(
+            "code", "s.payload->>'code'",
+            "name", "s.payload->>'name'",
+            "part_unit", "s.payload->>'partUnit'",
+            "base_quantity", "(s.payload->>'baseQuantity')::int",
+            "lead_time", "(s.payload->>'leadTime')::int",
+            "standard_quantity", "(s.payload->>'standardQuantity')::int",
+            "status", "s.payload->>'status'",
+            "group_id", "(s.payload->>'groupId')::bigint",
+            "category_id", "(s.payload->>'categoryId')::bigint",
+            "standard_cost", "(s.payload->>'standardCost')::bigint",
+            "standard_total_cost", "(s.payload->>'standardTotalCost')::bigint")),
+
+    MATERIAL("material-events", "material_projection", "material_id", "materialId", "MaterialDeleted", columns(
+            "code", "s.payload->>'materialCode'",
+            "name", "s.payload->>'name'",
+            "material_unit", "s.payload->>'materialUnit'",
+            "base_quantity", "(s.payload->>'baseQuantity')::int",
+            "standard_quantity", "(s.payload->>'standardQuantity')::int",
+            "lead_time", "(s.payload->>'leadTime')::int",
+            "standard_cost", "(s.payload->>'standardCost')::bigint",
+            "standard_total_cost", "(s.payload->>'standardTotalCost')::bigint",
+            "category_id", "(s.payload->>'materialCategoryId')::bigint"));
+
+    private final String topic;
+    private final String table;
+    private final String keyColumn;
+    private final String keyField;          // payload 안의 자연키 필드명
+    private final String deletedEventType;
+    private final Map<String, String> columns;
+
+    ProjectionRebuildTarget(String topic, String table, String keyColumn, String keyField, String deletedEventType,
+                            Map<String, String> columns) {
+        this.topic = topic;
+        this.table = table;
+        this.keyColumn = keyColumn;
+        this.keyField = keyField;
+        this.deletedEventType = deletedEventType;
+        this.columns = columns;
+    }
+
+    public String stagingTable() {
+        return table + "_rebuild";
+    }
+
+    public String rawTable() {
+        return table + "_rebuild_raw";
+    }
+
+    private static Map<String, String> columns(String... pairs) {
+        Map<String, String> columns = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            columns.put(pairs[i], pairs[i + 1]);
+        }
+        return columns;
+    }
+}
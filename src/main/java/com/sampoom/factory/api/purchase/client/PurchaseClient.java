@@ -2,6 +2,7 @@ package com.sampoom.factory.api.purchase.client;
 
 import com.sampoom.factory.api.purchase.dto.PurchaseRequestDto;
 import com.sampoom.factory.common.response.ApiResponse;
+import feign.Request;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -15,4 +16,8 @@ public interface PurchaseClient {
 
     @PostMapping
     ApiResponse<Void> createPurchaseRequest(@RequestBody PurchaseRequestDto request);
+
+    // 호출 단위 연결/응답 타임아웃을 지정하는 버전 (타임아웃은 실제 호출이 시작될 때부터 잰다)
+    @PostMapping
+    ApiResponse<Void> createPurchaseRequest(@RequestBody PurchaseRequestDto request, Request.Options options);
 }
@@ -3,6 +3,7 @@ package com.sampoom.factory.api.purchase.client;
 import com.sampoom.factory.api.purchase.dto.PurchaseRequestDto;
 import com.sampoom.factory.common.response.ApiResponse;
 import com.sampoom.factory.common.response.ErrorStatus;
+import feign.Request;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
@@ -20,4 +21,9 @@ public class PurchaseClientFallback implements PurchaseClient {
 
         return ApiResponse.fail_only(ErrorStatus.EXTERNAL_API_ERROR);
     }
+
+    @Override
+    public ApiResponse<Void> createPurchaseRequest(PurchaseRequestDto request, Request.Options options) {
+        return createPurchaseRequest(request);
+    }
 }
@@ -0,0 +1,20 @@
+package com.sampoom.factory.api.purchase.dto;
+
+import java.util.List;
+
+/**
+ * 구매요청 일괄 전송 결과. 요청별 실패는 나머지 전송을 막지 않고 여기에 모아 보고한다.
+ * {@code index}는 전송한 요청 목록에서의 위치다.
+ */
+public record PurchaseDispatchResult(int requestedCount, List<RequestFailure> failures) {
+
+    public record RequestFailure(int index, String materialCode, String materialName, String reason) {}
+
+    public int succeededCount() {
+        return requestedCount - failures.size();
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+}
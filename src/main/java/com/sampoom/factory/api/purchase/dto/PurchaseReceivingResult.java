@@ -0,0 +1,19 @@
+package com.sampoom.factory.api.purchase.dto;
+
+import java.util.List;
+
+/**
+ * 구매 주문 입고 처리 결과. 실패 라인은 이벤트 전체를 실패시키지 않고 여기에 모아 보고한다.
+ */
+public record PurchaseReceivingResult(Long orderId, int receivedCount, List<LineFailure> failures) {
+
+    public record LineFailure(String materialCode, String materialName, Long quantity, String reason) {}
+
+    public static PurchaseReceivingResult skipped(Long orderId) {
+        return new PurchaseReceivingResult(orderId, 0, List.of());
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+}
@@ -1,13 +1,17 @@
 package com.sampoom.factory.api.purchase.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class PurchaseRequestDto {
     private Long factoryId;
     private String factoryName;
@@ -17,6 +21,8 @@ public class PurchaseRequestDto {
 
     @Data
     @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
     public static class PurchaseItemDto {
         private String materialCode;
         private String materialName;
@@ -0,0 +1,112 @@
+package com.sampoom.factory.api.purchase.entity;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sampoom.factory.api.factory.outbox.OutboxStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 구매 서비스로 보낼 자재 구매요청 Outbox. MRP 결과 적용 트랜잭션 안에서 함께 저장되고,
+ * PurchaseRequestDispatcher가 커밋 이후 비동기로 전달한다. 행 하나가 구매요청 하나(자재 한 종류)다.
+ */
+@Entity
+@Table(
+        name = "purchase_request_outbox",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uq_purchase_request_outbox_event_id", columnNames = {"event_id"})
+        },
+        indexes = {
+                @Index(name = "idx_purchase_request_outbox_part_order", columnList = "part_order_id"),
+                @Index(name = "idx_purchase_request_outbox_status_next_retry", columnList = "status, next_retry_at")
+        }
+)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+public class PurchaseRequestOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "purchase_request_outbox_id")
+    private Long id;
+
+    @Column(name = "part_order_id", nullable = false)
+    private Long partOrderId;  // 구매요청을 발생시킨 부품 주문 ID
+
+    @Column(name = "event_id", nullable = false, unique = true, columnDefinition = "uuid")
+    private UUID eventId;  // 요청 고유 ID (수신 측 멱등성 보장용)
+
+    @Column(name = "material_code")
+    private String materialCode;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false, columnDefinition = "jsonb")
+    private JsonNode payload;  // PurchaseRequestDto JSON
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OutboxStatus status;  // READY / PUBLISHED / FAILED / DEAD
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer retryCount = 0;
+
+    @Column(columnDefinition = "text")
+    private String lastError;
+
+    private LocalDateTime deliveredAt;
+
+    private LocalDateTime lastTriedAt;
+
+    private LocalDateTime nextRetryAt;
+
+    // 전달 중 표시: 임대 만료(leaseUntil) 전에는 다른 워커/노드가 다시 집어 가지 않는다. 결과 기록 전에 죽으면 만료 후 재시도된다
+    public void claim(LocalDateTime leaseUntil) {
+        this.lastTriedAt = LocalDateTime.now();
+        this.nextRetryAt = leaseUntil;
+    }
+
+    public void markDelivered() {
+        this.status = OutboxStatus.PUBLISHED;
+        this.deliveredAt = LocalDateTime.now();
+        this.lastTriedAt = LocalDateTime.now();
+        this.nextRetryAt = null;
+    }
+
+    public void markFailed(String error, LocalDateTime nextRetryAt) {
+        this.status = OutboxStatus.FAILED;
+        this.lastError = error;
+        this.retryCount = (this.retryCount == null ? 1 : this.retryCount + 1);
+        this.lastTriedAt = LocalDateTime.now();
+        this.nextRetryAt = nextRetryAt;
+    }
+
+    public void markDead(String error) {
+        this.status = OutboxStatus.DEAD;
+        this.lastError = error;
+        this.retryCount = (this.retryCount == null ? 1 : this.retryCount + 1);
+        this.lastTriedAt = LocalDateTime.now();
+        this.nextRetryAt = null;
+    }
+
+    public static PurchaseRequestOutbox ready(Long partOrderId, String materialCode, JsonNode payload) {
+        return PurchaseRequestOutbox.builder()
+                .partOrderId(partOrderId)
+                .eventId(UUID.randomUUID())
+                .materialCode(materialCode)
+                .payload(payload)
+                .status(OutboxStatus.READY)
+                .occurredAt(LocalDateTime.now())
+                .retryCount(0)
+                .build();
+    }
+}
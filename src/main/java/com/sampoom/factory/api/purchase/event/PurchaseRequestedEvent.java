@@ -0,0 +1,19 @@
+package com.sampoom.factory.api.purchase.event;
+
+import com.sampoom.factory.api.purchase.dto.PurchaseRequestDto;
+
+/**
+ * 자재 구매요청 이벤트 (purchase-request 토픽, key = partOrderId).
+ * Kafka 전달 방식일 때 구매 서비스가 소비한다. 재시도로 같은 eventId가 다시 올 수 있으므로 수신 측은 eventId로 중복을 걸러야 한다.
+ */
+public record PurchaseRequestedEvent(
+        String eventId,
+        String eventType,        // "PurchaseRequested"
+        Long version,
+        String occurredAt,       // ISO-8601
+        Payload payload
+) {
+    public static final String EVENT_TYPE = "PurchaseRequested";
+
+    public record Payload(Long partOrderId, PurchaseRequestDto request) {}
+}
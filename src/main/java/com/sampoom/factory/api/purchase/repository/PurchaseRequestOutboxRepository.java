@@ -0,0 +1,32 @@
+package com.sampoom.factory.api.purchase.repository;
+
+import com.sampoom.factory.api.purchase.entity.PurchaseRequestOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PurchaseRequestOutboxRepository extends JpaRepository<PurchaseRequestOutbox, Long> {
+
+    /**
+     * 지금 전달할 수 있는 구매요청을 오래된 순으로 잠근다. 다른 노드가 잡고 있는 행은 건너뛴다.
+     * 구매요청끼리는 순서 의존이 없으므로 aggregate 단위 잠금 없이 행 단위로 나눠 가진다.
+     */
+    @Query(value = """
+        SELECT *
+        FROM purchase_request_outbox
+        WHERE status IN ('READY','FAILED')
+          AND retry_count < :maxRetry
+          AND (next_retry_at IS NULL OR next_retry_at <= now())
+        ORDER BY occurred_at ASC, purchase_request_outbox_id ASC
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+        """, nativeQuery = true)
+    List<PurchaseRequestOutbox> lockDue(@Param("limit") int limit, @Param("maxRetry") int maxRetry);
+
+    List<PurchaseRequestOutbox> findByPartOrderIdIn(Collection<Long> partOrderIds);
+}
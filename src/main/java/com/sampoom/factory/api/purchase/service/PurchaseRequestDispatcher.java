@@ -0,0 +1,28 @@
+package com.sampoom.factory.api.purchase.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 자재 구매요청 Outbox 전달 워커. 주기마다 {@link PurchaseRequestOutboxService#deliverDue}를 호출한다.
+ * 이벤트 Outbox 발행 워커와 분리되어 있어 구매 서비스 장애가 Kafka 이벤트 발행을 지연시키지 않는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PurchaseRequestDispatcher {
+
+    private final PurchaseRequestOutboxService outboxService;
+
+    @Scheduled(fixedDelayString = "${factory.purchase.outbox.poll-ms:1000}")
+    public void dispatch() {
+        if (!outboxService.isEnabled()) return;
+        try {
+            outboxService.deliverDue();
+        } catch (Exception e) {
+            log.warn("자재 구매요청 전달 주기 실패 - 오류: {}", e.toString());
+        }
+    }
+}
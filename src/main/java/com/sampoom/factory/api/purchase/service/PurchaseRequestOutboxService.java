@@ -0,0 +1,229 @@
+package com.sampoom.factory.api.purchase.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sampoom.factory.api.factory.outbox.OutboxEventSender;
+import com.sampoom.factory.api.factory.outbox.OutboxStatus;
+import com.sampoom.factory.api.part.entity.PurchaseDeliveryStatus;
+import com.sampoom.factory.api.part.repository.PartOrderRepository;
+import com.sampoom.factory.api.purchase.dto.PurchaseDispatchResult;
+import com.sampoom.factory.api.purchase.dto.PurchaseRequestDto;
+import com.sampoom.factory.api.purchase.entity.PurchaseRequestOutbox;
+import com.sampoom.factory.api.purchase.event.PurchaseRequestedEvent;
+import com.sampoom.factory.api.purchase.repository.PurchaseRequestOutboxRepository;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 자재 구매요청 Outbox.
+ * 활성화되면 MRP 결과 적용은 구매요청을 purchase_request_outbox에 적재만 하고(같은 트랜잭션) 바로 끝나며,
+ * 실제 전달은 {@link PurchaseRequestDispatcher}가 커밋 이후 HTTP(PurchaseClient) 또는 purchase-request 토픽으로 수행한다.
+ * 실패한 요청은 지수 백오프로 재시도하고, 주문별 전달 상태(PENDING/RETRYING/DELIVERED/FAILED)를 part_order에 기록한다.
+ * <p>
+ * 전달은 세 단계로 나뉜다: 짧은 트랜잭션에서 행을 잠가 임대(lease-ms)로 표시하고 커밋 → 트랜잭션 밖에서 전송 → 새 트랜잭션에서 결과 기록.
+ * 원격 호출 동안 DB 트랜잭션과 행 잠금을 잡고 있지 않으며, 한 번에 집는 건수는 전송 스레드 수와 같아 모든 요청이 바로 전송을 시작한다.
+ */
+@Slf4j
+@Service
+public class PurchaseRequestOutboxService {
+
+    public static final String TRANSPORT_HTTP = "http";
+    public static final String TRANSPORT_KAFKA = "kafka";
+
+    private static final String TOPIC_PURCHASE_REQUEST = "purchase-request";
+    private static final int MAX_RETRY = 10;
+    private static final long BASE_BACKOFF_MS = 1_000;    // 1s
+    private static final long MAX_BACKOFF_MS  = 300_000;  // 5min
+
+    private final PurchaseRequestOutboxRepository outboxRepository;
+    private final PartOrderRepository partOrderRepository;
+    private final PurchaseRequestService purchaseRequestService;
+    private final OutboxEventSender eventSender;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final String transport;
+    private final long leaseMs;
+
+    public PurchaseRequestOutboxService(PurchaseRequestOutboxRepository outboxRepository,
+                                        PartOrderRepository partOrderRepository,
+                                        PurchaseRequestService purchaseRequestService,
+                                        OutboxEventSender eventSender,
+                                        ObjectMapper objectMapper,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${factory.purchase.outbox.enabled:false}") boolean enabled,
+                                        @Value("${factory.purchase.outbox.transport:http}") String transport,
+                                        @Value("${factory.purchase.outbox.lease-ms:60000}") long leaseMs) {
+        if (!TRANSPORT_HTTP.equalsIgnoreCase(transport) && !TRANSPORT_KAFKA.equalsIgnoreCase(transport)) {
+            throw new IllegalStateException("Unknown purchase request transport: " + transport);
+        }
+        this.outboxRepository = outboxRepository;
+        this.partOrderRepository = partOrderRepository;
+        this.purchaseRequestService = purchaseRequestService;
+        this.eventSender = eventSender;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.transport = transport.toLowerCase();
+        this.leaseMs = leaseMs;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 구매요청을 Outbox에 적재한다. 호출한 트랜잭션과 함께 커밋/롤백되며 외부 호출은 하지 않는다.
+     */
+    @Transactional
+    public void enqueue(Long partOrderId, List<PurchaseRequestDto> purchaseRequests) {
+        List<PurchaseRequestOutbox> rows = purchaseRequests.stream()
+                .map(request -> PurchaseRequestOutbox.ready(partOrderId, materialCodeOf(request), objectMapper.valueToTree(request)))
+                .toList();
+        outboxRepository.saveAll(rows);
+        log.info("자재 구매요청 Outbox 적재 - 주문 ID: {}, 요청 수: {}", partOrderId, rows.size());
+    }
+
+    /**
+     * 전달 시점이 된 구매요청을 한 묶음 집어(임대) 트랜잭션 밖에서 전달하고, 결과를 행과 주문의 전달 상태에 반영한다.
+     *
+     * @return 전달 성공 건수
+     */
+    public int deliverDue() {
+        List<PurchaseRequestOutbox> claimed = transactionTemplate.execute(status -> claimDue());
+        if (claimed == null || claimed.isEmpty()) return 0;
+
+        List<String> errors = TRANSPORT_KAFKA.equals(transport) ? sendToTopic(claimed) : sendOverHttp(claimed);
+
+        Integer delivered = transactionTemplate.execute(status -> recordResults(claimed, errors));
+        return delivered == null ? 0 : delivered;
+    }
+
+    private List<PurchaseRequestOutbox> claimDue() {
+        List<PurchaseRequestOutbox> due = outboxRepository.lockDue(purchaseRequestService.getConcurrency(), MAX_RETRY);
+        LocalDateTime leaseUntil = LocalDateTime.now().plusNanos(leaseMs * 1_000_000);
+        due.forEach(row -> row.claim(leaseUntil));
+        return due;
+    }
+
+    private int recordResults(List<PurchaseRequestOutbox> claimed, List<String> errors) {
+        Map<Long, PurchaseRequestOutbox> rows = outboxRepository.findAllById(
+                        claimed.stream().map(PurchaseRequestOutbox::getId).toList()).stream()
+                .collect(Collectors.toMap(PurchaseRequestOutbox::getId, row -> row));
+
+        int delivered = 0;
+        Set<Long> partOrderIds = new LinkedHashSet<>();
+        for (int i = 0; i < claimed.size(); i++) {
+            PurchaseRequestOutbox row = rows.get(claimed.get(i).getId());
+            if (row == null) continue;
+            partOrderIds.add(row.getPartOrderId());
+            String error = errors.get(i);
+            if (error == null) {
+                row.markDelivered();
+                delivered++;
+                continue;
+            }
+
+            int nextRetry = row.getRetryCount() + 1;
+            if (nextRetry >= MAX_RETRY) {
+                row.markDead(shorten(error, 2000));
+                log.error("자재 구매요청 전달 포기 - OUTBOX ID: {}, 주문 ID: {}, 자재코드: {}, 시도: {}, 오류: {}",
+                        row.getId(), row.getPartOrderId(), row.getMaterialCode(), row.getRetryCount(), error);
+            } else {
+                row.markFailed(shorten(error, 2000), LocalDateTime.now().plusNanos(computeBackoffMs(nextRetry) * 1_000_000));
+                log.warn("자재 구매요청 전달 실패, 재시도 예정 - OUTBOX ID: {}, 주문 ID: {}, 자재코드: {}, 시도: {}, 다음 시도: {}, 오류: {}",
+                        row.getId(), row.getPartOrderId(), row.getMaterialCode(), row.getRetryCount(), row.getNextRetryAt(), error);
+            }
+        }
+
+        outboxRepository.flush();
+        reportDeliveryStatus(partOrderIds);
+        log.info("자재 구매요청 전달 - 대상: {}건, 성공: {}건, 주문: {}건", claimed.size(), delivered, partOrderIds.size());
+        return delivered;
+    }
+
+    // 주문별 전달 상태: 하나라도 포기(DEAD)면 FAILED, 전부 전달되면 DELIVERED, 재시도 대기가 있으면 RETRYING
+    static PurchaseDeliveryStatus deliveryStatusOf(Collection<OutboxStatus> statuses) {
+        if (statuses.contains(OutboxStatus.DEAD)) return PurchaseDeliveryStatus.FAILED;
+        if (statuses.stream().allMatch(OutboxStatus.PUBLISHED::equals)) return PurchaseDeliveryStatus.DELIVERED;
+        if (statuses.contains(OutboxStatus.FAILED)) return PurchaseDeliveryStatus.RETRYING;
+        return PurchaseDeliveryStatus.PENDING;
+    }
+
+    private void reportDeliveryStatus(Set<Long> partOrderIds) {
+        Map<Long, List<OutboxStatus>> statusesByOrder = outboxRepository.findByPartOrderIdIn(partOrderIds).stream()
+                .collect(Collectors.groupingBy(PurchaseRequestOutbox::getPartOrderId,
+                        Collectors.mapping(PurchaseRequestOutbox::getStatus, Collectors.toList())));
+        statusesByOrder.forEach((partOrderId, statuses) ->
+                partOrderRepository.updatePurchaseDeliveryStatus(partOrderId, deliveryStatusOf(statuses)));
+    }
+
+    // HTTP 전달: 묶음 전체를 PurchaseRequestService.sendAll로 병렬 전송 (호출별 타임아웃 적용)
+    private List<String> sendOverHttp(List<PurchaseRequestOutbox> due) {
+        List<String> errors = new ArrayList<>(due.size());
+        List<PurchaseRequestDto> requests = new ArrayList<>(due.size());
+        List<Integer> positions = new ArrayList<>(due.size());
+        for (int i = 0; i < due.size(); i++) {
+            errors.add(null);
+            try {
+                requests.add(objectMapper.treeToValue(due.get(i).getPayload(), PurchaseRequestDto.class));
+                positions.add(i);
+            } catch (Exception e) {
+                errors.set(i, "구매요청 페이로드 변환 실패: " + e.getMessage());
+            }
+        }
+
+        PurchaseDispatchResult result = purchaseRequestService.sendAll(requests);
+        for (PurchaseDispatchResult.RequestFailure failure : result.failures()) {
+            errors.set(positions.get(failure.index()), failure.reason());
+        }
+        return errors;
+    }
+
+    // Kafka 전달: purchase-request 토픽으로 발행 (key = partOrderId). 바이너리 스키마가 없으므로 코덱 설정과 무관하게 JSON으로 보낸다
+    private List<String> sendToTopic(List<PurchaseRequestOutbox> due) {
+        List<String> errors = new ArrayList<>(due.size());
+        for (PurchaseRequestOutbox row : due) {
+            try {
+                PurchaseRequestedEvent evt = new PurchaseRequestedEvent(
+                        row.getEventId().toString(),
+                        PurchaseRequestedEvent.EVENT_TYPE,
+                        row.getOccurredAt().toInstant(ZoneOffset.UTC).toEpochMilli(),
+                        row.getOccurredAt().atOffset(ZoneOffset.UTC).toString(),
+                        new PurchaseRequestedEvent.Payload(row.getPartOrderId(),
+                                objectMapper.treeToValue(row.getPayload(), PurchaseRequestDto.class))
+                );
+                eventSender.sendJson(TOPIC_PURCHASE_REQUEST, String.valueOf(row.getPartOrderId()), PurchaseRequestedEvent.EVENT_TYPE, evt);
+                errors.add(null);
+            } catch (Exception e) {
+                errors.add(String.valueOf(e.getMessage()));
+            }
+        }
+        return errors;
+    }
+
+    private String materialCodeOf(PurchaseRequestDto request) {
+        return request.getItems() == null || request.getItems().isEmpty() ? null : request.getItems().get(0).getMaterialCode();
+    }
+
+    private String shorten(String s, int max){ return (s==null||s.length()<=max) ? s : s.substring(0,max); }
+
+    private long computeBackoffMs(int retry) {
+        double exp = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS * Math.pow(2, Math.max(0, retry - 1)));
+        double jitter = exp * (Math.random() * 0.1); // 0~10% 지터
+        return (long) Math.min(MAX_BACKOFF_MS, exp + jitter);
+    }
+}
@@ -1,18 +1,55 @@
 package com.sampoom.factory.api.purchase.service;
 
 import com.sampoom.factory.api.purchase.client.PurchaseClient;
+import com.sampoom.factory.api.purchase.dto.PurchaseDispatchResult;
 import com.sampoom.factory.api.purchase.dto.PurchaseRequestDto;
 import com.sampoom.factory.common.response.ApiResponse;
-import lombok.RequiredArgsConstructor;
+import feign.Request;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class PurchaseRequestService {
 
     private final PurchaseClient purchaseClient;
+    private final int concurrency;
+    private final long deadlineMs;
+    private final Request.Options callOptions;
+    private final ExecutorService dispatchExecutor;
+
+    public PurchaseRequestService(PurchaseClient purchaseClient,
+                                  @Value("${factory.purchase.dispatch.concurrency:8}") int concurrency,
+                                  @Value("${factory.purchase.dispatch.call-timeout-ms:5000}") long callTimeoutMs,
+                                  @Value("${factory.purchase.dispatch.deadline-ms:15000}") long deadlineMs) {
+        this.purchaseClient = purchaseClient;
+        this.concurrency = Math.max(1, concurrency);
+        this.deadlineMs = deadlineMs;
+        this.callOptions = new Request.Options(callTimeoutMs, TimeUnit.MILLISECONDS, callTimeoutMs, TimeUnit.MILLISECONDS, true);
+        AtomicInteger seq = new AtomicInteger();
+        this.dispatchExecutor = Executors.newFixedThreadPool(this.concurrency, r -> {
+            Thread t = new Thread(r, "purchase-dispatch-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
 
     public void sendPurchaseRequest(PurchaseRequestDto purchaseRequest) {
         try {
@@ -20,7 +57,7 @@ public class PurchaseRequestService {
                 purchaseRequest.getFactoryId(), purchaseRequest.getItems().size());
 
             // Feign Client를 통한 API 호출
-            ApiResponse<Void> response = purchaseClient.createPurchaseRequest(purchaseRequest);
+            ApiResponse<Void> response = purchaseClient.createPurchaseRequest(purchaseRequest, callOptions);
 
             if (response.getSuccess()) {
                 log.info("구매요청 API 호출 성공 - 공장ID: {}", purchaseRequest.getFactoryId());
@@ -35,4 +72,70 @@ public class PurchaseRequestService {
             throw new RuntimeException("구매요청 API 호출 실패: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * 여러 구매요청을 동시성 상한(concurrency) 안에서 병렬로 보내고 모두 끝날 때까지 기다린다.
+     * 각 호출은 실제로 시작된 시점부터 call-timeout-ms(Feign 연결/응답 타임아웃)로 제한된다.
+     * deadline-ms가 지나도록 스레드를 얻지 못한 요청은 보내지 않고 취소해 실패로 기록하므로, 실패로 보고된 요청이 나중에 전송되는 일은 없다.
+     * 실패는 예외로 던지지 않고 결과에 모아 돌려준다.
+     */
+    public PurchaseDispatchResult sendAll(List<PurchaseRequestDto> purchaseRequests) {
+        if (purchaseRequests.isEmpty()) return new PurchaseDispatchResult(0, List.of());
+
+        List<AtomicBoolean> started = new ArrayList<>(purchaseRequests.size());
+        List<CompletableFuture<Void>> calls = new ArrayList<>(purchaseRequests.size());
+        for (PurchaseRequestDto request : purchaseRequests) {
+            AtomicBoolean claim = new AtomicBoolean();
+            started.add(claim);
+            calls.add(CompletableFuture.runAsync(() -> {
+                if (claim.compareAndSet(false, true)) sendPurchaseRequest(request);
+            }, dispatchExecutor));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        List<PurchaseDispatchResult.RequestFailure> failures = new ArrayList<>();
+        for (int i = 0; i < calls.size(); i++) {
+            String reason = awaitCall(calls.get(i), started.get(i), deadline);
+            if (reason == null) continue;
+            PurchaseRequestDto request = purchaseRequests.get(i);
+            PurchaseRequestDto.PurchaseItemDto item = request.getItems().isEmpty() ? null : request.getItems().get(0);
+            failures.add(new PurchaseDispatchResult.RequestFailure(
+                    i,
+                    item != null ? item.getMaterialCode() : null,
+                    item != null ? item.getMaterialName() : null,
+                    reason));
+        }
+        return new PurchaseDispatchResult(purchaseRequests.size(), failures);
+    }
+
+    // 성공이면 null, 실패면 사유. 마감까지 시작하지 못한 호출은 취소하고, 이미 시작한 호출은 Feign 타임아웃 안에 끝나므로 결과를 기다린다
+    private String awaitCall(CompletableFuture<Void> call, AtomicBoolean started, long deadline) {
+        try {
+            call.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return null;
+        } catch (TimeoutException e) {
+            if (started.compareAndSet(false, true)) return "전송 전 취소 (전체 대기 시간 " + deadlineMs + "ms 초과)";
+            return joinStarted(call);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (started.compareAndSet(false, true)) return "전송 전 취소 (대기 중 인터럽트)";
+            return joinStarted(call);
+        } catch (ExecutionException e) {
+            return String.valueOf(e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+        }
+    }
+
+    private String joinStarted(CompletableFuture<Void> call) {
+        try {
+            call.join();
+            return null;
+        } catch (Exception e) {
+            return String.valueOf(e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatchExecutor.shutdownNow();
+    }
 }
@@ -0,0 +1,36 @@
+package com.sampoom.factory.api.suggest.controller;
+
+import com.sampoom.factory.api.suggest.dto.SuggestResponseDto;
+import com.sampoom.factory.api.suggest.service.AutocompleteService;
+import com.sampoom.factory.api.suggest.service.SuggestType;
+import com.sampoom.factory.common.response.ApiResponse;
+import com.sampoom.factory.common.response.SuccessStatus;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Tag(name = "Suggest", description = "부품/자재 자동완성 API")
+@RestController
+@RequestMapping("/suggest")
+@RequiredArgsConstructor
+public class SuggestController {
+
+    private final AutocompleteService autocompleteService;
+
+    @Operation(summary = "부품/자재 자동완성", description = "코드 또는 이름(한글 초성 포함)의 앞부분/중간 일치로 후보를 조회합니다.")
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<SuggestResponseDto>>> suggest(
+            @Parameter(description = "검색어") @RequestParam String q,
+            @Parameter(description = "대상 (PART, MATERIAL), 없으면 전체") @RequestParam(required = false) SuggestType type,
+            @Parameter(description = "최대 건수 (기본 10, 최대 50)") @RequestParam(required = false) Integer limit) {
+        return ApiResponse.success(SuccessStatus.OK, autocompleteService.suggest(q, type, limit));
+    }
+}
@@ -0,0 +1,28 @@
+package com.sampoom.factory.api.suggest.dto;
+
+import com.sampoom.factory.api.suggest.service.SuggestIndex;
+import com.sampoom.factory.api.suggest.service.SuggestType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestResponseDto {
+    private SuggestType type;
+    private Long id;
+    private String code;
+    private String name;
+
+    public static SuggestResponseDto from(SuggestIndex.Match match) {
+        return SuggestResponseDto.builder()
+                .type(match.entry().type())
+                .id(match.entry().id())
+                .code(match.entry().code())
+                .name(match.entry().name())
+                .build();
+    }
+}
@@ -0,0 +1,134 @@
+package com.sampoom.factory.api.suggest.service;
+
+import com.sampoom.factory.api.material.entity.MaterialProjection;
+import com.sampoom.factory.api.material.repository.MaterialProjectionRepository;
+import com.sampoom.factory.api.part.entity.PartProjection;
+import com.sampoom.factory.api.part.repository.PartProjectionRepository;
+import com.sampoom.factory.api.suggest.dto.SuggestResponseDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 부품/자재 코드·이름 자동완성. 매 키 입력마다 LIKE '%keyword%' 스캔을 돌리지 않도록 {@link SuggestIndex}에서 응답한다.
+ * 기동 시 전체를 적재하고, 프로젝션 이벤트가 반영된 키만 커밋 후 다시 읽어 갱신한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AutocompleteService {
+
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 50;
+
+    private final PartProjectionRepository partProjectionRepository;
+    private final MaterialProjectionRepository materialProjectionRepository;
+    private final SuggestIndex suggestIndex = new SuggestIndex();
+
+    public List<SuggestResponseDto> suggest(String query, SuggestType type, Integer limit) {
+        int size = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        return suggestIndex.search(query, type, size).stream()
+                .map(SuggestResponseDto::from)
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        reload(SuggestType.PART);
+        reload(SuggestType.MATERIAL);
+    }
+
+    /**
+     * 해당 타입을 테이블에서 다시 읽어 색인을 교체한다. (프로젝션 재구축 후)
+     */
+    public void reload(SuggestType type) {
+        List<SuggestIndex.Entry> entries = new ArrayList<>();
+        if (type == SuggestType.PART) {
+            partProjectionRepository.findAll().stream()
+                    .filter(p -> !Boolean.TRUE.equals(p.getDeleted()))
+                    .forEach(p -> entries.add(toEntry(p)));
+        } else {
+            materialProjectionRepository.findAll().stream()
+                    .filter(m -> !Boolean.TRUE.equals(m.getDeleted()))
+                    .forEach(m -> entries.add(toEntry(m)));
+        }
+        suggestIndex.replaceAll(type, entries);
+        log.info("자동완성 색인 적재 - 타입: {}, 항목: {}개", type, entries.size());
+    }
+
+    /**
+     * 반영된 부품을 커밋 후 다시 읽어 색인에 반영한다. 삭제되었으면 색인에서 뺀다.
+     */
+    public void refreshParts(Collection<Long> partIds) {
+        if (partIds.isEmpty()) return;
+        Set<Long> ids = new HashSet<>(partIds);
+        afterCommit(() -> {
+            Set<Long> missing = new HashSet<>(ids);
+            for (PartProjection part : partProjectionRepository.findByPartIdIn(ids)) {
+                missing.remove(part.getPartId());
+                if (Boolean.TRUE.equals(part.getDeleted())) {
+                    suggestIndex.remove(SuggestType.PART, part.getPartId());
+                } else {
+                    suggestIndex.put(toEntry(part));
+                }
+            }
+            missing.forEach(id -> suggestIndex.remove(SuggestType.PART, id));
+        });
+    }
+
+    /**
+     * 반영된 자재를 커밋 후 다시 읽어 색인에 반영한다. 삭제되었으면 색인에서 뺀다.
+     */
+    public void refreshMaterials(Collection<Long> materialIds) {
+        if (materialIds.isEmpty()) return;
+        List<Long> ids = new ArrayList<>(new HashSet<>(materialIds));
+        afterCommit(() -> {
+            Set<Long> missing = new HashSet<>(ids);
+            for (MaterialProjection material : materialProjectionRepository.findByMaterialIdIn(ids)) {
+                missing.remove(material.getMaterialId());
+                if (Boolean.TRUE.equals(material.getDeleted())) {
+                    suggestIndex.remove(SuggestType.MATERIAL, material.getMaterialId());
+                } else {
+                    suggestIndex.put(toEntry(material));
+                }
+            }
+            missing.forEach(id -> suggestIndex.remove(SuggestType.MATERIAL, id));
+        });
+    }
+
+    private void afterCommit(Runnable task) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            task.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    // 색인 갱신 실패가 이벤트 처리를 실패시키지 않도록 로그만 남긴다 (다음 재적재 때 맞춰진다)
+                    log.warn("자동완성 색인 갱신 실패: {}", e.getMessage(), e);
+                }
+            }
+        });
+    }
+
+    private static SuggestIndex.Entry toEntry(PartProjection part) {
+        return new SuggestIndex.Entry(SuggestType.PART, part.getPartId(), part.getCode(), part.getName());
+    }
+
+    private static SuggestIndex.Entry toEntry(MaterialProjection material) {
+        return new SuggestIndex.Entry(SuggestType.MATERIAL, material.getMaterialId(), material.getCode(), material.getName());
+    }
+}
@@ -0,0 +1,283 @@
+package com.sampoom.factory.api.suggest.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 코드/이름 자동완성용 메모리 색인.
+ *
+ * <ul>
+ *   <li>prefix trie: 코드, 이름 전체(공백 제거), 이름의 각 단어, 한글 이름의 초성열("볼트" → "ㅂㅌ")을 넣는다.</li>
+ *   <li>bigram 색인: 코드와 이름의 2글자 조각 → 항목. 두 글자 이상 질의는 조각 교집합으로 후보를 좁힌 뒤 포함 여부를 확인한다.
+ *       한글은 띄어쓰기 없이 붙여 쓰는 경우가 많아 단어 prefix만으로는 중간 일치를 찾을 수 없기 때문이다.</li>
+ * </ul>
+ * 순위: 코드/이름 완전 일치 &gt; prefix 일치 &gt; 중간 일치, 같은 순위에서는 짧은 이름 우선.
+ * 읽기는 동시에, 쓰기는 배타적으로 처리한다.
+ */
+public class SuggestIndex {
+
+    private static final char HANGUL_BASE = 0xAC00;
+    private static final char HANGUL_LAST = 0xD7A3;
+    private static final char[] CHOSEONG = {
+            'ㄱ', 'ㄲ', 'ㄴ', 'ㄷ', 'ㄸ', 'ㄹ', 'ㅁ', 'ㅂ', 'ㅃ', 'ㅅ',
+            'ㅆ', 'ㅇ', 'ㅈ', 'ㅉ', 'ㅊ', 'ㅋ', 'ㅌ', 'ㅍ', 'ㅎ'
+    };
+
+    private static final int RANK_EXACT = 0;
+    private static final int RANK_PREFIX = 1;
+    private static final int RANK_INFIX = 2;
+
+    public record Entry(SuggestType type, Long id, String code, String name) {}
+
+    public record Match(Entry entry, int rank) {}
+
+    // trie 노드/posting 집합에 들어가므로 equals/hashCode는 identity를 쓴다
+    private static final class Indexed {
+        private final Entry entry;
+        private final List<String> terms;
+        private final Set<String> grams;
+        private final String code;
+        private final String name;
+
+        private Indexed(Entry entry, List<String> terms, Set<String> grams, String code, String name) {
+            this.entry = entry;
+            this.terms = terms;
+            this.grams = grams;
+            this.code = code;
+            this.name = name;
+        }
+
+        Entry entry() { return entry; }
+        List<String> terms() { return terms; }
+        Set<String> grams() { return grams; }
+        String code() { return code; }
+        String name() { return name; }
+    }
+
+    private final TrieNode root = new TrieNode();
+    private final Map<String, Set<Indexed>> grams = new HashMap<>();
+    private final Map<String, Indexed> entries = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(Entry entry) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(entry.type(), entry.id());
+            Indexed indexed = index(entry);
+            entries.put(key(entry.type(), entry.id()), indexed);
+            for (String term : indexed.terms()) {
+                TrieNode node = root;
+                for (int i = 0; i < term.length(); i++) {
+                    node = node.children.computeIfAbsent(term.charAt(i), c -> new TrieNode());
+                    node.entries.add(indexed);
+                }
+            }
+            for (String gram : indexed.grams()) {
+                grams.computeIfAbsent(gram, g -> new HashSet<>()).add(indexed);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(SuggestType type, Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(type, id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 해당 타입의 색인을 통째로 교체한다. (기동 시 적재, 프로젝션 재구축 후)
+     */
+    public void replaceAll(SuggestType type, Collection<Entry> replacement) {
+        lock.writeLock().lock();
+        try {
+            List<Long> ids = entries.values().stream()
+                    .map(Indexed::entry)
+                    .filter(e -> e.type() == type)
+                    .map(Entry::id)
+                    .toList();
+            ids.forEach(id -> removeLocked(type, id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        replacement.forEach(this::put);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param type null이면 전체 타입
+     */
+    public List<Match> search(String query, SuggestType type, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            Map<Indexed, Integer> ranks = new HashMap<>();
+
+            TrieNode node = root;
+            for (int i = 0; i < q.length() && node != null; i++) {
+                node = node.children.get(q.charAt(i));
+            }
+            if (node != null) {
+                for (Indexed indexed : node.entries) {
+                    if (type != null && indexed.entry().type() != type) continue;
+                    boolean exact = q.equals(indexed.code()) || q.equals(indexed.name());
+                    ranks.put(indexed, exact ? RANK_EXACT : RANK_PREFIX);
+                }
+            }
+
+            if (q.length() >= 2) {
+                for (Indexed indexed : infixCandidates(q)) {
+                    if (type != null && indexed.entry().type() != type) continue;
+                    if (indexed.code().contains(q) || indexed.name().contains(q)) {
+                        ranks.putIfAbsent(indexed, RANK_INFIX);
+                    }
+                }
+            }
+
+            return top(ranks, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 질의의 모든 bigram을 가진 항목만 남긴다. 가장 작은 posting부터 교집합
+    private Set<Indexed> infixCandidates(String q) {
+        List<Set<Indexed>> postings = new ArrayList<>();
+        for (int i = 0; i + 2 <= q.length(); i++) {
+            Set<Indexed> posting = grams.get(q.substring(i, i + 2));
+            if (posting == null) return Set.of();
+            postings.add(posting);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        Set<Indexed> result = new HashSet<>(postings.get(0));
+        for (int i = 1; i < postings.size() && !result.isEmpty(); i++) {
+            result.retainAll(postings.get(i));
+        }
+        return result;
+    }
+
+    private static List<Match> top(Map<Indexed, Integer> ranks, int limit) {
+        Comparator<Map.Entry<Indexed, Integer>> order = Comparator
+                .<Map.Entry<Indexed, Integer>>comparingInt(Map.Entry::getValue)
+                .thenComparingInt(e -> e.getKey().name().length())
+                .thenComparing(e -> e.getKey().name());
+
+        // 상위 limit개만 유지 (최악 순위가 head)
+        PriorityQueue<Map.Entry<Indexed, Integer>> heap = new PriorityQueue<>(limit + 1, order.reversed());
+        for (Map.Entry<Indexed, Integer> e : ranks.entrySet()) {
+            heap.offer(e);
+            if (heap.size() > limit) heap.poll();
+        }
+        List<Map.Entry<Indexed, Integer>> sorted = new ArrayList<>(heap);
+        sorted.sort(order);
+        return sorted.stream().map(e -> new Match(e.getKey().entry(), e.getValue())).toList();
+    }
+
+    private void removeLocked(SuggestType type, Long id) {
+        Indexed indexed = entries.remove(key(type, id));
+        if (indexed == null) return;
+
+        for (String term : indexed.terms()) {
+            TrieNode node = root;
+            for (int i = 0; i < term.length() && node != null; i++) {
+                TrieNode child = node.children.get(term.charAt(i));
+                if (child == null) break;
+                child.entries.remove(indexed);
+                if (child.entries.isEmpty()) {
+                    node.children.remove(term.charAt(i)); // 하위 노드도 모두 이 항목 외에는 비어 있다
+                    break;
+                }
+                node = child;
+            }
+        }
+        for (String gram : indexed.grams()) {
+            Set<Indexed> posting = grams.get(gram);
+            if (posting == null) continue;
+            posting.remove(indexed);
+            if (posting.isEmpty()) grams.remove(gram);
+        }
+    }
+
+    private static Indexed index(Entry entry) {
+        String code = normalize(entry.code());
+        String name = normalize(entry.name());
+
+        Set<String> terms = new LinkedHashSet<>();
+        if (!code.isEmpty()) terms.add(code);
+        if (!name.isEmpty()) terms.add(name);
+        if (entry.name() != null) {
+            for (String word : entry.name().toLowerCase(Locale.ROOT).split("\\s+")) {
+                String token = normalize(word);
+                if (!token.isEmpty()) terms.add(token);
+            }
+        }
+        String choseong = choseong(name);
+        if (!choseong.isEmpty()) terms.add(choseong);
+
+        Set<String> bigrams = new HashSet<>();
+        addBigrams(bigrams, code);
+        addBigrams(bigrams, name);
+
+        return new Indexed(entry, List.copyOf(terms), bigrams, code, name);
+    }
+
+    private static void addBigrams(Set<String> target, String text) {
+        for (int i = 0; i + 2 <= text.length(); i++) {
+            target.add(text.substring(i, i + 2));
+        }
+    }
+
+    // 소문자화 + 공백/구분자 제거
+    static String normalize(String text) {
+        if (text == null) return "";
+        StringBuilder sb = new StringBuilder(text.length());
+        for (char c : text.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (Character.isLetterOrDigit(c)) sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    // 한글 음절만으로 초성열을 만든다. 한글이 없으면 빈 문자열
+    static String choseong(String text) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : text.toCharArray()) {
+            if (c >= HANGUL_BASE && c <= HANGUL_LAST) {
+                sb.append(CHOSEONG[(c - HANGUL_BASE) / (21 * 28)]);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String key(SuggestType type, Long id) {
+        return type.name() + ":" + id;
+    }
+
+    private static final class TrieNode {
+        private final Map<Character, TrieNode> children = new HashMap<>();
+        private final Set<Indexed> entries = new HashSet<>();
+    }
+}
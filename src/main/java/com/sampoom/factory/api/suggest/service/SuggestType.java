@@ -0,0 +1,6 @@
+package com.sampoom.factory.api.suggest.service;
+
+public enum SuggestType {
+    PART,
+    MATERIAL
+}
@@ -0,0 +1,55 @@
+package com.sampoom.factory.common.config;
+
+import com.sampoom.factory.common.kafka.RetryTopicPublisher;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.ContainerProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 재시도 토픽 설정.
+ * <ul>
+ *   <li>리스너 전용 컨테이너 팩토리: 수동 ack + poll당 1건. 아직 실행 시각이 안 된 레코드는 그 파티션만 멈추고
+ *       같은 오프셋으로 되돌리는데, 한 poll에 한 건만 받으므로 되돌린 뒤 같은 파티션의 다음 레코드가 처리되는 일이 없다.</li>
+ *   <li>원본 토픽마다 {topic}-retry-N(티어 수만큼)과 {topic}-dlt 토픽을 기동 시 만든다. 파티션/복제 수는 브로커 기본값을 따른다.</li>
+ * </ul>
+ */
+@Configuration
+public class KafkaRetryConfig {
+
+    public static final String RETRY_CONTAINER_FACTORY = "retryKafkaListenerContainerFactory";
+
+    @Bean(RETRY_CONTAINER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> retryKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().getKafkaConsumerProperties()
+                .setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, "1");
+        return factory;
+    }
+
+    @Bean
+    public KafkaAdmin.NewTopics retryTopics(@Value("${factory.kafka.retry.delays-ms:10000,60000,300000}") List<Long> delaysMs) {
+        List<NewTopic> topics = new ArrayList<>();
+        for (String topic : RetryTopicPublisher.SOURCE_TOPICS) {
+            for (int tier = 1; tier <= delaysMs.size(); tier++) {
+                topics.add(TopicBuilder.name(topic + RetryTopicPublisher.RETRY_SUFFIX + tier).build());
+            }
+            topics.add(TopicBuilder.name(topic + RetryTopicPublisher.DLT_SUFFIX).build());
+        }
+        return new KafkaAdmin.NewTopics(topics.toArray(NewTopic[]::new));
+    }
+}
@@ -0,0 +1,78 @@
+package com.sampoom.factory.common.dedup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 문자열 키용 스레드 안전 Bloom filter.
+ * {@link #mightContain}이 false면 한 번도 넣지 않은 키가 확실하고, true면 오탐일 수 있으므로 원본 저장소로 확인해야 한다.
+ * 해시는 64비트 FNV-1a 두 개를 섞은 double hashing(h1 + i * h2)을 쓴다.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashCount;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) throw new IllegalArgumentException("expectedInsertions must be positive");
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) throw new IllegalArgumentException("falsePositiveRate must be in (0, 1)");
+
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitSize = Math.max(64, m);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+        this.bits = new AtomicLongArray((int) ((bitSize + 63) / 64));
+    }
+
+    public void put(String key) {
+        long[] h = hash(key);
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(h[0] + i * h[1], bitSize);
+            int word = (int) (index >>> 6);
+            long mask = 1L << (index & 63);
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) break;
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(String key) {
+        long[] h = hash(key);
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(h[0] + i * h[1], bitSize);
+            if ((bits.get((int) (index >>> 6)) & (1L << (index & 63))) == 0) return false;
+        }
+        return true;
+    }
+
+    public long bitSize() {
+        return bitSize;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    private static long[] hash(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        long h1 = 0xcbf29ce484222325L;
+        long h2 = 0x84222325cbf29ce4L;
+        for (byte b : bytes) {
+            h1 ^= (b & 0xff);
+            h1 *= 0x100000001b3L;
+            h2 ^= (b & 0xff);
+            h2 *= 0x100000001b3L;
+            h2 = Long.rotateLeft(h2, 31);
+        }
+        return new long[]{mix(h1), mix(h2) | 1L};
+    }
+
+    // splitmix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
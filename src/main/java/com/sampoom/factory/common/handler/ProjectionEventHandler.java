@@ -1,6 +1,5 @@
 package com.sampoom.factory.common.handler;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sampoom.factory.api.bom.dto.BomEventDto;
 import com.sampoom.factory.api.bom.service.BomProjectionService;
 import com.sampoom.factory.api.material.dto.MaterialCategoryEventDto;
@@ -20,18 +19,29 @@ import com.sampoom.factory.api.purchase.dto.PurchaseEventDto;
 import com.sampoom.factory.api.purchase.service.PurchaseEventService;
 import com.sampoom.factory.api.mps.dto.PartForecastEvent;
 import com.sampoom.factory.api.mps.service.MpsEventService;
+import com.sampoom.factory.common.kafka.KafkaMessageReader;
+import com.sampoom.factory.common.kafka.KeyOrderedRecordProcessor;
+import com.sampoom.factory.common.kafka.RetryTopicPublisher;
+import com.sampoom.factory.common.projection.ProjectionUpsertEngine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ProjectionEventHandler {
 
-    private final ObjectMapper objectMapper;
+    private final KafkaMessageReader kafkaMessageReader;
     private final PartProjectionService partProjectionService;
     private final PartCategoryProjectionService partCategoryProjectionService;
     private final PartGroupProjectionService partGroupProjectionService;
@@ -43,71 +53,156 @@ public class ProjectionEventHandler {
     private final PurchaseEventService purchaseEventService;
     private final OrderToFactoryEventService orderToFactoryEventService;
     private final MpsEventService mpsEventService;
+    private final KeyOrderedRecordProcessor keyOrderedRecordProcessor;
+    private final RetryTopicPublisher retryTopicPublisher;
+
+    @KafkaListener(topics = "part-events", groupId = "${spring.kafka.consumer.group-id}",
+            properties = KafkaMessageReader.BYTE_ARRAY_VALUE, batch = "true")
+    public void handlePartEvents(List<ConsumerRecord<String, byte[]>> records) {
+        handleBatch(records, "PartEvent", PartEventDto.class,
+                e -> e.getPayload().getPartId(), PartEventDto::getVersion, partProjectionService::handlePartEvents);
+    }
 
-    @KafkaListener(topics = "part-events", groupId = "${spring.kafka.consumer.group-id}")
-    public void handlePartEvent(String message) {
-        handleEvent(message, "PartEvent", PartEventDto.class, partProjectionService::handlePartEvent);
+    @KafkaListener(topics = "part-category-events", groupId = "${spring.kafka.consumer.group-id}",
+            properties = KafkaMessageReader.BYTE_ARRAY_VALUE, batch = "true")
+    public void handlePartCategoryEvents(List<ConsumerRecord<String, byte[]>> records) {
+        handleBatch(records, "PartCategoryEvent", PartCategoryEventDto.class,
+                e -> e.getPayload().getCategoryId(), PartCategoryEventDto::getVersion,
+                partCategoryProjectionService::handlePartCategoryEvents);
     }
 
-    @KafkaListener(topics = "part-category-events", groupId = "${spring.kafka.consumer.group-id}")
-    public void handlePartCategoryEvent(String message) {
-        handleEvent(message, "PartCategoryEvent", PartCategoryEventDto.class, partCategoryProjectionService::handlePartCategoryEvent);
+    @KafkaListener(topics = "part-group-events", groupId = "${spring.kafka.consumer.group-id}",
+            properties = KafkaMessageReader.BYTE_ARRAY_VALUE, batch = "true")
+    public void handlePartGroupEvents(List<ConsumerRecord<String, byte[]>> records) {
+        handleBatch(records, "PartGroupEvent", PartGroupEventDto.class,
+                e -> e.getPayload().getGroupId(), PartGroupEventDto::getVersion,
+                partGroupProjectionService::handlePartGroupEvents);
     }
 
-    @KafkaListener(topics = "part-group-events", groupId = "${spring.kafka.consumer.group-id}")
-    public void handlePartGroupEvent(String message) {
-        handleEvent(message, "PartGroupEvent", PartGroupEventDto.class, partGroupProjectionService::handlePartGroupEvent);
+    @KafkaListener(topics = "material-events", groupId = "${spring.kafka.consumer.group-id}",
+            properties = KafkaMessageReader.BYTE_ARRAY_VALUE, batch = "true")
+    public void handleMaterialEvents(List<ConsumerRecord<String, byte[]>> records) {
+        handleBatch(records, "MaterialEvent", MaterialEventDto.class,
+                e -> e.getPayload().getMaterialId(), MaterialEventDto::getVersion,
+                materialProjectionService::handleMaterialEvents);
     }
 
-    @KafkaListener(topics = "material-events", groupId = "${spring.kafka.consumer.group-id}")
-    public void handleMaterialEvent(String message) {
-        handleEvent(message, "MaterialEvent", MaterialEventDto.class, materialProjectionService::handleMaterialEvent);
+    @KafkaListener(topics = "material-category-events", groupId = "${spring.kafka.consumer.group-id}",
+            properties = KafkaMessageReader.BYTE_ARRAY_VALUE, batch = "true")
+    public void handleMaterialCategoryEvents(List<ConsumerRecord<String, byte[]>> records) {
+        handleBatch(records, "MaterialCategoryEvent", MaterialCategoryEventDto.class,
+                e -> e.getPayload().getCategoryId(), MaterialCategoryEventDto::getVersion,
+                materialCategoryProjectionService::handleMaterialCategoryEvents);
     }
 
-    @KafkaListener(topics = "material-category-events", groupId = "${spring.kafka.consumer.group-id}")
-    public void handleMaterialCategoryEvent(String message) {
-        handleEvent(message, "MaterialCategoryEvent", MaterialCategoryEventDto.class, materialCategoryProjectionService::handleMaterialCategoryEvent);
+    @KafkaListener(topics = "bom-events", groupId = "${spring.kafka.consumer.group-id}",
+            properties = KafkaMessageReader.BYTE_ARRAY_VALUE, batch = "true")
+    public void handleBomEvents(List<ConsumerRecord<String, byte[]>> records) {
+        handleBatch(records, "BomEvent", BomEventDto.class,
+                e -> e.getPayload().getBomId(), BomEventDto::getVersion, bomProjectionService::handleBomEvents);
     }
 
-    @KafkaListener(topics = "bom-events", groupId = "${spring.kafka.consumer.group-id}")
-    public void handleBomEvent(String message) {
-        handleEvent(message, "BomEvent", BomEventDto.class, bomProjectionService::handleBomEvent);
+    @KafkaListener(topics = "branch-factory-distance-events", groupId = "${spring.kafka.consumer.group-id}",
+            properties = KafkaMessageReader.BYTE_ARRAY_VALUE, batch = "true")
+    public void handleBranchFactoryDistanceEvents(List<ConsumerRecord<String, byte[]>> records) {
+        handleBatch(records, "BranchFactoryDistanceEvent", BranchFactoryDistanceEventDto.class,
+                e -> e.getPayload().getDistanceId(), BranchFactoryDistanceEventDto::getVersion,
+                branchFactoryDistanceService::handleDistanceEvents);
     }
 
-    @KafkaListener(topics = "branch-factory-distance-events", groupId = "${spring.kafka.consumer.group-id}")
-    public void handleBranchFactoryDistanceEvent(String message) {
-        handleEvent(message, "BranchFactoryDistanceEvent", BranchFactoryDistanceEventDto.class, branchFactoryDistanceService::handleDistanceEvent);
+    @KafkaListener(topics = "factory-branch-events", groupId = "${spring.kafka.consumer.group-id}",
+            properties = KafkaMessageReader.BYTE_ARRAY_VALUE, batch = "true")
+    public void handleBranchEvents(List<ConsumerRecord<String, byte[]>> records) {
+        handleBatch(records, "BranchEvent", BranchEventDto.class,
+                e -> e.getPayload().getBranchId(), BranchEventDto::getVersion, branchProjectionService::handleBranchEvents);
     }
 
-    @KafkaListener(topics = "factory-branch-events", groupId = "${spring.kafka.consumer.group-id}")
-    public void handleBranchEvent(String message) {
-        handleEvent(message, "BranchEvent", BranchEventDto.class, branchProjectionService::handleBranchEvent);
+    @KafkaListener(topics = "purchase-events", groupId = "${spring.kafka.consumer.group-id}",
+            properties = KafkaMessageReader.BYTE_ARRAY_VALUE)
+    public void handlePurchaseEvent(ConsumerRecord<String, byte[]> record) {
+        handleEvent(record, "PurchaseEvent", PurchaseEventDto.class, purchaseEventService::handlePurchaseEvent);
     }
 
-    @KafkaListener(topics = "purchase-events", groupId = "${spring.kafka.consumer.group-id}")
-    public void handlePurchaseEvent(String message) {
-        handleEvent(message, "PurchaseEvent", PurchaseEventDto.class, purchaseEventService::handlePurchaseEvent);
+    // 주문 생성은 건당 처리 시간이 길어 파티션 안에서도 키(주문)별로 병렬 처리한다
+    @KafkaListener(topics = "order-to-factory-events", groupId = "${spring.kafka.consumer.group-id}",
+            properties = KafkaMessageReader.BYTE_ARRAY_VALUE, batch = "true")
+    public void handleOrderToFactoryEvents(List<ConsumerRecord<String, byte[]>> records) {
+        keyOrderedRecordProcessor.process(records, record -> handleEvent(record, "OrderToFactoryEvent",
+                OrderToFactoryEventDto.class, event -> orderToFactoryEventService.processOrderToFactoryEvent(
+                        event, RetryTopicPublisher.sourceRecordOf(record))));
     }
 
-    @KafkaListener(topics = "order-to-factory-events", groupId = "${spring.kafka.consumer.group-id}")
-    public void handleOrderToFactoryEvent(String message) {
-        handleEvent(message, "OrderToFactoryEvent", OrderToFactoryEventDto.class, orderToFactoryEventService::processOrderToFactoryEvent);
+    @KafkaListener(topics = "part-forecast-events", groupId = "${spring.kafka.consumer.group-id}",
+            properties = KafkaMessageReader.BYTE_ARRAY_VALUE)
+    public void handlePartForecastEvent(ConsumerRecord<String, byte[]> record) {
+        handleEvent(record, "PartForecastEvent", PartForecastEvent.class, mpsEventService::processPartForecastEvent);
+    }
+
+    /**
+     * 재시도 토픽에서 꺼낸 메시지를 원본 토픽의 처리 로직으로 한 건 처리한다. 실패하면 예외를 그대로 던진다.
+     */
+    public void reprocess(String topic, ConsumerRecord<String, byte[]> record) throws Exception {
+        byte[] message = record.value();
+        switch (topic) {
+            case "part-events" -> partProjectionService.handlePartEvent(read(topic, message, PartEventDto.class));
+            case "part-category-events" ->
+                    partCategoryProjectionService.handlePartCategoryEvent(read(topic, message, PartCategoryEventDto.class));
+            case "part-group-events" -> partGroupProjectionService.handlePartGroupEvent(read(topic, message, PartGroupEventDto.class));
+            case "material-events" -> materialProjectionService.handleMaterialEvent(read(topic, message, MaterialEventDto.class));
+            case "material-category-events" ->
+                    materialCategoryProjectionService.handleMaterialCategoryEvent(read(topic, message, MaterialCategoryEventDto.class));
+            case "bom-events" -> bomProjectionService.handleBomEvent(read(topic, message, BomEventDto.class));
+            case "branch-factory-distance-events" ->
+                    branchFactoryDistanceService.handleDistanceEvent(read(topic, message, BranchFactoryDistanceEventDto.class));
+            case "factory-branch-events" -> branchProjectionService.handleBranchEvent(read(topic, message, BranchEventDto.class));
+            case "purchase-events" -> purchaseEventService.handlePurchaseEvent(read(topic, message, PurchaseEventDto.class));
+            case "order-to-factory-events" ->
+                    orderToFactoryEventService.processOrderToFactoryEvent(read(topic, message, OrderToFactoryEventDto.class),
+                            RetryTopicPublisher.sourceRecordOf(record));
+            case "part-forecast-events" -> mpsEventService.processPartForecastEvent(read(topic, message, PartForecastEvent.class));
+            default -> throw new IllegalArgumentException("Unknown topic for reprocess: " + topic);
+        }
     }
 
-    @KafkaListener(topics = "part-forecast-events", groupId = "${spring.kafka.consumer.group-id}")
-    public void handlePartForecastEvent(String message) {
-        handleEvent(message, "PartForecastEvent", PartForecastEvent.class, mpsEventService::processPartForecastEvent);
+    /**
+     * poll 한 번에 받은 레코드를 배치로 처리한다.
+     * 같은 키(원본 엔티티 ID)의 이벤트는 version이 가장 높은 것만 남기고, 엔티티 타입별로 한 번에 반영한다.
+     * 배치 반영이 실패하면 레코드 단위로 다시 처리해서 실패한 레코드만 재시도 토픽으로 넘기고 나머지는 그대로 진행한다.
+     */
+    private <T> void handleBatch(List<ConsumerRecord<String, byte[]>> records, String eventName, Class<T> eventClass,
+                                 Function<T, Long> keyOf, Function<T, Long> versionOf, Consumer<List<T>> handler) {
+        try {
+            List<T> events = new ArrayList<>(records.size());
+            for (ConsumerRecord<String, byte[]> record : records) {
+                events.add(read(record.topic(), record.value(), eventClass));
+            }
+            List<T> latest = ProjectionUpsertEngine.latestPerKey(events, keyOf, versionOf);
+            log.debug("{} 배치 수신: {}건 -> 키 중복 제거 후 {}건", eventName, records.size(), latest.size());
+            handler.accept(latest);
+        } catch (Exception ex) {
+            log.warn("{} 배치 반영 실패, 레코드 단위로 재처리: size={}, {}", eventName, records.size(), ex.toString());
+            for (ConsumerRecord<String, byte[]> record : records) {
+                handleEvent(record, eventName, eventClass, event -> handler.accept(List.of(event)));
+            }
+        }
     }
 
-    private <T> void handleEvent(String message, String eventName, Class<T> eventClass, java.util.function.Consumer<T> handler) {
+    /**
+     * 레코드 한 건을 처리한다. 실패하면 재시도 토픽(티어를 모두 소진하면 DLT)으로 넘기고 오프셋은 정상 진행한다.
+     * 재시도 토픽 발행마저 실패하면 예외를 던져 컨테이너가 오프셋을 커밋하지 않게 한다.
+     */
+    private <T> void handleEvent(ConsumerRecord<String, byte[]> record, String eventName, Class<T> eventClass, Consumer<T> handler) {
         try {
-            log.debug("{} 수신: {}", eventName, message);
-            T event = objectMapper.readValue(message, eventClass);
+            log.debug("{} 수신: {}@{}", eventName, record.topic(), record.offset());
+            T event = read(record.topic(), record.value(), eventClass);
             handler.accept(event);
         } catch (Exception ex) {
             log.error("{} handling failed: {}", eventName, ex.toString(), ex);
-            // 컨테이너가 오프셋 커밋을 하지 않도록 런타임 예외로 던져 재시도/ DLQ 흐름
-            throw new RuntimeException("Kafka handling failed", ex);
+            retryTopicPublisher.publishFailure(record, ex);
         }
     }
-}
\ No newline at end of file
+
+    private <T> T read(String topic, byte[] message, Class<T> eventClass) throws IOException {
+        return kafkaMessageReader.read(topic, message, eventClass);
+    }
+}
@@ -0,0 +1,93 @@
+package com.sampoom.factory.common.handler;
+
+import com.sampoom.factory.common.config.KafkaRetryConfig;
+import com.sampoom.factory.common.kafka.KafkaMessageReader;
+import com.sampoom.factory.common.kafka.RetryTopicPublisher;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 재시도 토픽({topic}-retry-N)을 소비한다.
+ * 실행 예정 시각(x-retry-due-at)이 되면 원본 토픽의 처리 로직으로 다시 처리하고, 또 실패하면 다음 티어로 넘긴다.
+ * <p>
+ * 아직 실행 시각 전이면 그 레코드의 파티션만 pause하고 같은 오프셋으로 seek한 뒤, 실행 시각(최대 max-wait-ms)에 resume한다.
+ * {@code nack(Duration)}은 컨슈머에 할당된 모든 파티션을 멈추므로, 한 컨슈머가 모든 티어/토픽을 받는 구조에서는
+ * 300초 티어의 레코드 하나가 10초 티어까지 막는다. 파티션 단위로 멈추면 다른 티어와 토픽은 계속 흐른다.
+ * 리스너 스레드는 잠들지 않고 레코드를 다시 발행하지도 않는다. ack하지 않았으므로 오프셋도 커밋되지 않는다.
+ * 한 티어 안의 레코드는 같은 지연으로 쌓이므로 파티션 앞 레코드가 가장 먼저 실행 시각이 된다.
+ */
+@Slf4j
+@Service
+public class RetryEventHandler {
+
+    static final String LISTENER_ID = "factoryRetryListener";
+
+    private final ProjectionEventHandler projectionEventHandler;
+    private final RetryTopicPublisher retryTopicPublisher;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final long maxWaitMs;
+    private final ScheduledExecutorService resumer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "retry-partition-resumer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RetryEventHandler(ProjectionEventHandler projectionEventHandler,
+                             RetryTopicPublisher retryTopicPublisher,
+                             KafkaListenerEndpointRegistry listenerRegistry,
+                             @Value("${factory.kafka.retry.max-wait-ms:30000}") long maxWaitMs) {
+        this.projectionEventHandler = projectionEventHandler;
+        this.retryTopicPublisher = retryTopicPublisher;
+        this.listenerRegistry = listenerRegistry;
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    @KafkaListener(id = LISTENER_ID, topicPattern = ".*-events-retry-\\d+", groupId = "${spring.kafka.consumer.group-id}-retry",
+            containerFactory = KafkaRetryConfig.RETRY_CONTAINER_FACTORY,
+            properties = KafkaMessageReader.BYTE_ARRAY_VALUE)
+    public void handleRetryEvent(ConsumerRecord<String, byte[]> record, Acknowledgment ack, Consumer<?, ?> consumer) {
+        long wait = RetryTopicPublisher.longHeader(record, RetryTopicPublisher.HEADER_DUE_AT, 0L) - System.currentTimeMillis();
+        if (wait > 0) {
+            deferPartition(record, consumer, Math.min(wait, maxWaitMs));
+            return;
+        }
+
+        String originalTopic = RetryTopicPublisher.originalTopicOf(record);
+        try {
+            projectionEventHandler.reprocess(originalTopic, record);
+            log.info("재시도 처리 성공 - topic: {}, 시도: {}", originalTopic,
+                    RetryTopicPublisher.longHeader(record, RetryTopicPublisher.HEADER_ATTEMPT, 0L));
+        } catch (Exception ex) {
+            retryTopicPublisher.publishFailure(record, ex);
+        }
+        ack.acknowledge();
+    }
+
+    // 컨테이너가 다음 poll 전에 이 파티션만 pause한다. poll당 1건이라 seek 이후 같은 파티션의 레코드가 더 전달되지 않는다
+    private void deferPartition(ConsumerRecord<String, byte[]> record, Consumer<?, ?> consumer, long delayMs) {
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        consumer.seek(partition, record.offset());
+        container.pausePartition(partition);
+        resumer.schedule(() -> container.resumePartition(partition), delayMs, TimeUnit.MILLISECONDS);
+        log.debug("재시도 실행 시각 전, 파티션 대기 - {}, offset: {}, 대기: {}ms", partition, record.offset(), delayMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        resumer.shutdownNow();
+    }
+}
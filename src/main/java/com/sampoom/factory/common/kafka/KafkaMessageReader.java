@@ -0,0 +1,89 @@
+package com.sampoom.factory.common.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Kafka 메시지(byte[])를 타입별로 미리 만들어 둔 {@link ObjectReader}로 바로 역직렬화한다.
+ * 중간 String 생성과 메시지마다의 타입 조회가 없고, 토픽별 역직렬화 소요 시간/실패 건수를 주기적으로 집계해 로그로 남긴다.
+ */
+@Slf4j
+@Component
+public class KafkaMessageReader {
+
+    /**
+     * 리스너 단위로 값 역직렬화기를 byte[]로 바꾸는 @KafkaListener properties 값
+     */
+    public static final String BYTE_ARRAY_VALUE =
+            "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer";
+
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final Map<String, TopicStats> stats = new ConcurrentHashMap<>();
+
+    public KafkaMessageReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public <T> T read(String topic, byte[] message, Class<T> type) throws IOException {
+        ObjectReader reader = readers.computeIfAbsent(type, objectMapper::readerFor);
+        TopicStats topicStats = stats.computeIfAbsent(topic, t -> new TopicStats());
+        long start = System.nanoTime();
+        try {
+            T value = reader.readValue(message);
+            topicStats.success(System.nanoTime() - start);
+            return value;
+        } catch (IOException e) {
+            topicStats.failure();
+            throw e;
+        }
+    }
+
+    /**
+     * 직전 주기 동안의 토픽별 집계를 로그로 남기고 초기화한다. (평균/최대 소요 시간은 마이크로초)
+     */
+    @Scheduled(fixedDelayString = "${factory.kafka.deserialization.log-interval-ms:60000}")
+    public void logStats() {
+        new TreeMap<>(stats).forEach((topic, topicStats) -> {
+            TopicSnapshot s = topicStats.drain();
+            if (s.count() == 0 && s.errors() == 0) return;
+            log.info("Kafka 역직렬화 - topic: {}, 건수: {}, 실패: {}, 평균: {}us, 최대: {}us",
+                    topic, s.count(), s.errors(), s.avgMicros(), s.maxMicros());
+        });
+    }
+
+    private record TopicSnapshot(long count, long errors, long avgMicros, long maxMicros) {}
+
+    private static class TopicStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+        void success(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        void failure() {
+            errors.increment();
+        }
+
+        TopicSnapshot drain() {
+            long n = count.sumThenReset();
+            long total = totalNanos.sumThenReset();
+            return new TopicSnapshot(n, errors.sumThenReset(), n == 0 ? 0 : total / n / 1_000, maxNanos.getThenReset() / 1_000);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.sampoom.factory.common.kafka;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 배치 리스너가 받은 레코드를 키별 순서를 지키면서 여러 워커에서 병렬 처리한다.
+ *
+ * <ul>
+ *   <li>키의 해시로 레인(단일 스레드 워커)을 고르므로 같은 키는 항상 같은 레인에서 오프셋 순서대로 처리된다.</li>
+ *   <li>키가 없는 레코드는 파티션을 키로 써서 기존처럼 파티션 단위로 직렬 처리한다.</li>
+ *   <li>어떤 키의 레코드가 실패하면 같은 배치 안의 그 키 뒤 레코드는 건너뛴다. (순서 보장)</li>
+ *   <li>파티션별 {@link PartitionOffsetTracker}로 연속 완료 구간을 계산하고, 미완료 레코드가 있으면
+ *       가장 앞선 미완료 레코드 위치로 {@link BatchListenerFailedException}을 던진다.
+ *       컨테이너의 에러 핸들러는 그 앞까지만 커밋하고 나머지를 다시 전달한다.</li>
+ * </ul>
+ * 비활성화 상태에서는 리스너 스레드에서 순서대로 처리하며 실패 처리 규칙은 같다.
+ */
+@Slf4j
+@Component
+public class KeyOrderedRecordProcessor {
+
+    private final ExecutorService[] lanes;
+
+    public KeyOrderedRecordProcessor(@Value("${factory.kafka.key-ordered.enabled:false}") boolean enabled,
+                                     @Value("${factory.kafka.key-ordered.workers:8}") int workers) {
+        if (enabled && workers > 1) {
+            this.lanes = new ExecutorService[workers];
+            for (int i = 0; i < workers; i++) {
+                final int lane = i;
+                lanes[i] = Executors.newSingleThreadExecutor(r -> {
+                    Thread t = new Thread(r, "kafka-key-lane-" + lane);
+                    t.setDaemon(true);
+                    return t;
+                });
+            }
+            log.info("키 순서 보장 병렬 처리 활성화 - 워커 수: {}", workers);
+        } else {
+            this.lanes = null;
+        }
+    }
+
+    public <V> void process(List<ConsumerRecord<String, V>> records, Consumer<ConsumerRecord<String, V>> handler) {
+        process(records, ConsumerRecord::key, handler);
+    }
+
+    public <V> void process(List<ConsumerRecord<String, V>> records,
+                            Function<ConsumerRecord<String, V>, Object> keyOf,
+                            Consumer<ConsumerRecord<String, V>> handler) {
+        if (records.isEmpty()) return;
+
+        Map<TopicPartition, PartitionOffsetTracker> trackers = new HashMap<>();
+        for (ConsumerRecord<String, V> record : records) {
+            trackers.computeIfAbsent(partitionOf(record), tp -> new PartitionOffsetTracker()).register(record.offset());
+        }
+
+        Set<Object> failedKeys = ConcurrentHashMap.newKeySet();
+        Map<ConsumerRecord<String, V>, Exception> failures = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(records.size());
+
+        for (ConsumerRecord<String, V> record : records) {
+            Object key = keyOf.apply(record);
+            Object laneKey = key != null ? key : partitionOf(record);
+            PartitionOffsetTracker tracker = trackers.get(partitionOf(record));
+
+            futures.add(CompletableFuture.runAsync(() -> {
+                if (failedKeys.contains(laneKey)) return; // 앞선 레코드가 실패한 키는 순서 보장을 위해 건너뜀
+                try {
+                    handler.accept(record);
+                    tracker.complete(record.offset());
+                } catch (Exception ex) {
+                    failedKeys.add(laneKey);
+                    failures.put(record, ex);
+                }
+            }, laneFor(laneKey)));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        if (trackers.values().stream().allMatch(PartitionOffsetTracker::isComplete)) return;
+
+        // 가장 앞선 미완료 레코드: 그 앞의 레코드는 모두 완료되었으므로 커밋해도 안전하다
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, V> record = records.get(i);
+            PartitionOffsetTracker tracker = trackers.get(partitionOf(record));
+            if (tracker.committableOffset() == record.offset()) {
+                Exception cause = failures.get(record);
+                log.warn("키 순서 처리 중 실패 - {}-{}@{}, 커밋 가능 오프셋까지만 반영 후 재전달",
+                        record.topic(), record.partition(), record.offset());
+                throw new BatchListenerFailedException("Key-ordered processing failed", cause, i);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (lanes == null) return;
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+    }
+
+    private Executor laneFor(Object laneKey) {
+        if (lanes == null) return Runnable::run;
+        return lanes[Math.floorMod(laneKey.hashCode(), lanes.length)];
+    }
+
+    private static TopicPartition partitionOf(ConsumerRecord<?, ?> record) {
+        return new TopicPartition(record.topic(), record.partition());
+    }
+}
@@ -0,0 +1,34 @@
+package com.sampoom.factory.common.kafka;
+
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * 한 파티션에서 배분된 레코드의 완료 여부를 추적한다.
+ * 커밋 가능한 오프셋은 "아직 끝나지 않은 가장 작은 오프셋"이므로, 뒤쪽 레코드가 먼저 끝나도 앞 레코드가 남아 있으면 커밋되지 않는다.
+ */
+public class PartitionOffsetTracker {
+
+    private final NavigableSet<Long> pending = new ConcurrentSkipListSet<>();
+    private volatile long highestOffset = -1L;
+
+    public void register(long offset) {
+        pending.add(offset);
+        if (offset > highestOffset) highestOffset = offset;
+    }
+
+    public void complete(long offset) {
+        pending.remove(offset);
+    }
+
+    public boolean isComplete() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * 커밋할 다음 오프셋 (Kafka 규약대로 "다음에 읽을 오프셋"). 연속으로 완료된 구간 바로 뒤를 가리킨다.
+     */
+    public long committableOffset() {
+        return pending.isEmpty() ? highestOffset + 1 : pending.first();
+    }
+}
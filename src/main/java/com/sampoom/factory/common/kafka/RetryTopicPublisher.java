@@ -0,0 +1,177 @@
+package com.sampoom.factory.common.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.sampoom.factory.api.deadletter.entity.DeadLetterEvent;
+import com.sampoom.factory.api.deadletter.entity.DeadLetterStatus;
+import com.sampoom.factory.api.deadletter.service.DeadLetterService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 처리에 실패한 레코드를 재시도 토픽 티어로 넘기고, 티어를 모두 소진하면 DLT로 보낸다.
+ *
+ * <pre>
+ * {topic} --실패--> {topic}-retry-1 --실패--> {topic}-retry-2 ... --실패--> {topic}-dlt (+ dead_letter_event 저장)
+ * </pre>
+ * 티어마다 지연 시간이 늘어나며(factory.kafka.retry.delays-ms), 실행 예정 시각과 실패 메타데이터는 헤더로 전달한다.
+ * 역직렬화 실패처럼 다시 해도 결과가 같은 오류는 바로 DLT로 보낸다.
+ * 발행 자체가 실패하면 예외를 던져 원래 리스너가 오프셋을 커밋하지 않게 한다.
+ */
+@Slf4j
+@Component
+public class RetryTopicPublisher {
+
+    public static final String HEADER_ORIGINAL_TOPIC = "x-original-topic";
+    public static final String HEADER_ORIGINAL_PARTITION = "x-original-partition";
+    public static final String HEADER_ORIGINAL_OFFSET = "x-original-offset";
+    public static final String HEADER_ATTEMPT = "x-retry-attempt";
+    public static final String HEADER_DUE_AT = "x-retry-due-at";
+    public static final String HEADER_FIRST_FAILED_AT = "x-first-failed-at";
+    public static final String HEADER_EXCEPTION_CLASS = "x-exception-class";
+    public static final String HEADER_EXCEPTION_MESSAGE = "x-exception-message";
+
+    public static final String RETRY_SUFFIX = "-retry-";
+    public static final String DLT_SUFFIX = "-dlt";
+
+    // 실패 시 재시도 티어로 넘기는 원본 토픽 (ProjectionEventHandler 리스너 토픽과 맞춘다)
+    public static final List<String> SOURCE_TOPICS = List.of(
+            "part-events", "part-category-events", "part-group-events",
+            "material-events", "material-category-events", "bom-events",
+            "branch-factory-distance-events", "factory-branch-events",
+            "purchase-events", "order-to-factory-events", "part-forecast-events");
+
+    private static final long SEND_TIMEOUT_SECONDS = 5;
+    private static final int MAX_MESSAGE_LENGTH = 1000;
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final DeadLetterService deadLetterService;
+    private final List<Long> delaysMs;
+
+    public RetryTopicPublisher(KafkaTemplate<String, Object> kafkaTemplate,
+                               DeadLetterService deadLetterService,
+                               @Value("${factory.kafka.retry.delays-ms:10000,60000,300000}") List<Long> delaysMs) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.deadLetterService = deadLetterService;
+        this.delaysMs = delaysMs;
+    }
+
+    /**
+     * 원본 토픽 또는 재시도 토픽에서 처리에 실패한 레코드를 다음 티어로 넘긴다.
+     */
+    public void publishFailure(ConsumerRecord<String, byte[]> record, Exception ex) {
+        int attempt = (int) longHeader(record, HEADER_ATTEMPT, 0L);
+        String originalTopic = originalTopicOf(record);
+        long now = System.currentTimeMillis();
+        long firstFailedAt = longHeader(record, HEADER_FIRST_FAILED_AT, now);
+
+        if (isRetryable(ex) && attempt < delaysMs.size()) {
+            int nextAttempt = attempt + 1;
+            ProducerRecord<String, Object> retry = new ProducerRecord<>(
+                    originalTopic + RETRY_SUFFIX + nextAttempt, record.key(), valueOf(record));
+            copyOrigin(record, retry, originalTopic);
+            addHeader(retry, HEADER_ATTEMPT, String.valueOf(nextAttempt));
+            addHeader(retry, HEADER_DUE_AT, String.valueOf(now + delaysMs.get(attempt)));
+            addHeader(retry, HEADER_FIRST_FAILED_AT, String.valueOf(firstFailedAt));
+            addFailure(retry, ex);
+            send(retry);
+            log.warn("처리 실패 이벤트 재시도 예약 - topic: {}, 시도: {}/{}, 지연: {}ms, 원인: {}",
+                    originalTopic, nextAttempt, delaysMs.size(), delaysMs.get(attempt), ex.toString());
+            return;
+        }
+
+        ProducerRecord<String, Object> dead = new ProducerRecord<>(originalTopic + DLT_SUFFIX, record.key(), valueOf(record));
+        copyOrigin(record, dead, originalTopic);
+        addHeader(dead, HEADER_ATTEMPT, String.valueOf(attempt));
+        addHeader(dead, HEADER_FIRST_FAILED_AT, String.valueOf(firstFailedAt));
+        addFailure(dead, ex);
+        send(dead);
+
+        deadLetterService.record(DeadLetterEvent.builder()
+                .originalTopic(originalTopic)
+                .originalPartition((int) longHeader(record, HEADER_ORIGINAL_PARTITION, record.partition()))
+                .originalOffset(longHeader(record, HEADER_ORIGINAL_OFFSET, record.offset()))
+                .messageKey(record.key())
+                .payload(valueOf(record))
+                .attempts(attempt + 1)
+                .exceptionClass(ex.getClass().getName())
+                .exceptionMessage(truncate(ex.getMessage()))
+                .firstFailedAt(toLocalDateTime(firstFailedAt))
+                .deadAt(LocalDateTime.now())
+                .status(DeadLetterStatus.PENDING)
+                .build());
+        log.error("처리 실패 이벤트 DLT 이동 - topic: {}, 시도 횟수: {}, 원인: {}", originalTopic, attempt + 1, ex.toString());
+    }
+
+    public static String originalTopicOf(ConsumerRecord<String, byte[]> record) {
+        Header header = record.headers().lastHeader(HEADER_ORIGINAL_TOPIC);
+        return header == null ? record.topic() : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 원본 레코드 식별자 ({topic}-{partition}@{offset}). 재시도 토픽에서 꺼낸 레코드도 원본 위치를 돌려준다.
+     */
+    public static String sourceRecordOf(ConsumerRecord<String, byte[]> record) {
+        return originalTopicOf(record)
+                + "-" + longHeader(record, HEADER_ORIGINAL_PARTITION, record.partition())
+                + "@" + longHeader(record, HEADER_ORIGINAL_OFFSET, record.offset());
+    }
+
+    public static long longHeader(ConsumerRecord<String, byte[]> record, String name, long defaultValue) {
+        Header header = record.headers().lastHeader(name);
+        return header == null ? defaultValue : Long.parseLong(new String(header.value(), StandardCharsets.UTF_8));
+    }
+
+    // 리스너는 byte[]로 받지만 발행은 기존 프로듀서(문자열 값) 그대로 사용한다
+    private String valueOf(ConsumerRecord<String, byte[]> record) {
+        return record.value() == null ? null : new String(record.value(), StandardCharsets.UTF_8);
+    }
+
+    private boolean isRetryable(Exception ex) {
+        return !(ex instanceof JsonProcessingException);
+    }
+
+    private void send(ProducerRecord<String, Object> record) {
+        try {
+            kafkaTemplate.send(record).get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to publish to " + record.topic(), e);
+        }
+    }
+
+    private void copyOrigin(ConsumerRecord<String, byte[]> from, ProducerRecord<String, Object> to, String originalTopic) {
+        addHeader(to, HEADER_ORIGINAL_TOPIC, originalTopic);
+        addHeader(to, HEADER_ORIGINAL_PARTITION,
+                String.valueOf(longHeader(from, HEADER_ORIGINAL_PARTITION, from.partition())));
+        addHeader(to, HEADER_ORIGINAL_OFFSET, String.valueOf(longHeader(from, HEADER_ORIGINAL_OFFSET, from.offset())));
+    }
+
+    private void addFailure(ProducerRecord<String, Object> record, Exception ex) {
+        addHeader(record, HEADER_EXCEPTION_CLASS, ex.getClass().getName());
+        addHeader(record, HEADER_EXCEPTION_MESSAGE, String.valueOf(truncate(ex.getMessage())));
+    }
+
+    private void addHeader(ProducerRecord<String, Object> record, String name, String value) {
+        record.headers().add(name, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String truncate(String message) {
+        if (message == null || message.length() <= MAX_MESSAGE_LENGTH) return message;
+        return message.substring(0, MAX_MESSAGE_LENGTH);
+    }
+
+    private LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
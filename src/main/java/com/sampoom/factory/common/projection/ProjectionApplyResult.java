@@ -0,0 +1,27 @@
+package com.sampoom.factory.common.projection;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 프로젝션 반영 결과. applied는 실제로 쓰여진 자연키, inserted는 그중 새로 생성된 자연키다.
+ * 중복(같은 eventId)이거나 오래된(version 이하) 이벤트는 어디에도 포함되지 않는다.
+ */
+public record ProjectionApplyResult(Set<Long> applied, Set<Long> inserted) {
+
+    public static ProjectionApplyResult empty() {
+        return new ProjectionApplyResult(new HashSet<>(), new HashSet<>());
+    }
+
+    public boolean isApplied(Long key) {
+        return applied.contains(key);
+    }
+
+    public ProjectionApplyResult merge(ProjectionApplyResult other) {
+        Set<Long> applied = new HashSet<>(this.applied);
+        applied.addAll(other.applied);
+        Set<Long> inserted = new HashSet<>(this.inserted);
+        inserted.addAll(other.inserted);
+        return new ProjectionApplyResult(applied, inserted);
+    }
+}
@@ -0,0 +1,46 @@
+package com.sampoom.factory.common.projection;
+
+import lombok.Getter;
+
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 프로젝션 테이블에 반영할 한 행.
+ * 자연키와 동기화 메타(version, last_event_id, source_updated_at)는 필수이고, 나머지 컬럼은 {@link #set}/{@link #setOnInsert}로 채운다.
+ */
+@Getter
+public class ProjectionRow {
+
+    private final Long key;
+    private final UUID eventId;
+    private final long version;
+    private final OffsetDateTime occurredAt;
+    private final Map<String, Object> columns = new LinkedHashMap<>();
+    private final Map<String, Object> insertOnlyColumns = new LinkedHashMap<>();
+
+    private ProjectionRow(Long key, UUID eventId, Long version, OffsetDateTime occurredAt) {
+        this.key = key;
+        this.eventId = eventId;
+        this.version = version == null ? 0L : version;
+        this.occurredAt = occurredAt;
+    }
+
+    public static ProjectionRow of(Long key, UUID eventId, Long version, OffsetDateTime occurredAt) {
+        return new ProjectionRow(key, eventId, version, occurredAt);
+    }
+
+    // INSERT/UPDATE 모두에 반영되는 컬럼
+    public ProjectionRow set(String column, Object value) {
+        columns.put(column, value);
+        return this;
+    }
+
+    // 신규 INSERT 때만 채우고 UPDATE 시에는 기존 값을 유지하는 컬럼
+    public ProjectionRow setOnInsert(String column, Object value) {
+        insertOnlyColumns.put(column, value);
+        return this;
+    }
+}
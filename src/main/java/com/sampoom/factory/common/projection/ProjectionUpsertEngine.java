@@ -0,0 +1,152 @@
+package com.sampoom.factory.common.projection;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 프로젝션 공통 반영 엔진.
+ * 조회 후 Java에서 eventId/version을 비교하던 read-then-write 대신, 멱등성과 순서 보장을 한 문장의 SQL로 처리한다.
+ *
+ * <pre>
+ * INSERT INTO t (...) VALUES (...), (...)
+ * ON CONFLICT (natural_key) DO UPDATE SET ...
+ * WHERE t.version &lt; EXCLUDED.version
+ * RETURNING natural_key, (xmax = 0) AS inserted
+ * </pre>
+ * 같은 eventId의 재전달은 version이 같으므로 자연히 무시된다.
+ * 한 문장 안에서 같은 키를 두 번 쓸 수 없으므로 호출 전에 {@link #latestPerKey}로 키별 최신 이벤트만 남겨야 한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProjectionUpsertEngine {
+
+    private static final int CHUNK = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 키별로 version이 가장 높은 이벤트만 남긴다. (같으면 나중 것)
+     */
+    public static <T> List<T> latestPerKey(Collection<T> events, Function<T, Long> keyOf, Function<T, Long> versionOf) {
+        Map<Long, T> latest = new LinkedHashMap<>();
+        for (T event : events) {
+            latest.merge(keyOf.apply(event), event,
+                    (prev, next) -> nvl(versionOf.apply(next)) >= nvl(versionOf.apply(prev)) ? next : prev);
+        }
+        return new ArrayList<>(latest.values());
+    }
+
+    /**
+     * 행을 versioned UPSERT로 반영한다. 모든 행은 같은 컬럼 구성을 가져야 한다.
+     */
+    public ProjectionApplyResult upsert(String table, String keyColumn, List<ProjectionRow> rows) {
+        ProjectionApplyResult result = ProjectionApplyResult.empty();
+        for (int from = 0; from < rows.size(); from += CHUNK) {
+            List<ProjectionRow> chunk = rows.subList(from, Math.min(from + CHUNK, rows.size()));
+            collect(result, upsertSql(table, keyColumn, chunk.get(0), chunk.size()), upsertArgs(chunk), true);
+        }
+        return result;
+    }
+
+    /**
+     * 존재하는 행만 soft delete 한다. 삭제 이벤트는 보통 전체 스냅샷을 담지 않으므로 INSERT 하지 않는다.
+     */
+    public ProjectionApplyResult markDeleted(String table, String keyColumn, List<ProjectionRow> rows) {
+        ProjectionApplyResult result = ProjectionApplyResult.empty();
+        for (int from = 0; from < rows.size(); from += CHUNK) {
+            List<ProjectionRow> chunk = rows.subList(from, Math.min(from + CHUNK, rows.size()));
+            collect(result, deleteSql(table, keyColumn, chunk.size()), deleteArgs(chunk), false);
+        }
+        return result;
+    }
+
+    private void collect(ProjectionApplyResult result, String sql, Object[] args, boolean hasInsertedFlag) {
+        jdbcTemplate.query(sql, rs -> {
+            long key = rs.getLong(1);
+            result.applied().add(key);
+            if (hasInsertedFlag && rs.getBoolean(2)) {
+                result.inserted().add(key);
+            }
+        }, args);
+    }
+
+    private String upsertSql(String table, String keyColumn, ProjectionRow template, int rowCount) {
+        List<String> insertColumns = new ArrayList<>();
+        insertColumns.add(keyColumn);
+        insertColumns.addAll(template.getColumns().keySet());
+        insertColumns.addAll(template.getInsertOnlyColumns().keySet());
+        insertColumns.addAll(List.of("version", "last_event_id", "source_updated_at", "updated_at"));
+
+        String placeholders = "(" + String.join(", ", Collections.nCopies(insertColumns.size() - 1, "?")) + ", now())";
+        List<String> values = Collections.nCopies(rowCount, placeholders);
+
+        List<String> updates = new ArrayList<>();
+        for (String column : template.getColumns().keySet()) {
+            updates.add(column + " = EXCLUDED." + column);
+        }
+        for (String column : List.of("version", "last_event_id", "source_updated_at", "updated_at")) {
+            updates.add(column + " = EXCLUDED." + column);
+        }
+
+        return "INSERT INTO " + table + " (" + String.join(", ", insertColumns) + ") VALUES "
+                + String.join(", ", values)
+                + " ON CONFLICT (" + keyColumn + ") DO UPDATE SET " + String.join(", ", updates)
+                + " WHERE " + table + ".version < EXCLUDED.version"
+                + " RETURNING " + keyColumn + ", (xmax = 0) AS inserted";
+    }
+
+    private Object[] upsertArgs(List<ProjectionRow> rows) {
+        ProjectionRow template = rows.get(0);
+        Set<String> columns = template.getColumns().keySet();
+        Set<String> insertOnly = template.getInsertOnlyColumns().keySet();
+
+        List<Object> args = new ArrayList<>();
+        for (ProjectionRow row : rows) {
+            if (!row.getColumns().keySet().equals(columns) || !row.getInsertOnlyColumns().keySet().equals(insertOnly)) {
+                throw new IllegalArgumentException("Projection rows must share the same columns");
+            }
+            args.add(row.getKey());
+            args.addAll(row.getColumns().values());
+            args.addAll(row.getInsertOnlyColumns().values());
+            args.add(row.getVersion());
+            args.add(row.getEventId());
+            args.add(row.getOccurredAt());
+        }
+        return args.toArray();
+    }
+
+    private String deleteSql(String table, String keyColumn, int rowCount) {
+        String placeholders = "(CAST(? AS bigint), CAST(? AS bigint), CAST(? AS uuid), CAST(? AS timestamptz))";
+        return "UPDATE " + table + " t SET deleted = true, version = v.version, last_event_id = v.event_id,"
+                + " source_updated_at = v.occurred_at, updated_at = now()"
+                + " FROM (VALUES " + String.join(", ", Collections.nCopies(rowCount, placeholders)) + ")"
+                + " AS v(natural_key, version, event_id, occurred_at)"
+                + " WHERE t." + keyColumn + " = v.natural_key AND t.version < v.version"
+                + " RETURNING t." + keyColumn;
+    }
+
+    private Object[] deleteArgs(List<ProjectionRow> rows) {
+        List<Object> args = new ArrayList<>(rows.size() * 4);
+        for (ProjectionRow row : rows) {
+            args.add(row.getKey());
+            args.add(row.getVersion());
+            args.add(row.getEventId());
+            args.add(row.getOccurredAt());
+        }
+        return args.toArray();
+    }
+
+    private static long nvl(Long v) {
+        return v == null ? 0L : v;
+    }
+}
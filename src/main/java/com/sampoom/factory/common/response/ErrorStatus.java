@@ -18,6 +18,8 @@ public enum ErrorStatus {
     INVALID_ORDER_STATUS(HttpStatus.BAD_REQUEST, "유효하지 않은 주문 상태입니다.",40006),
     ORDER_NOT_IN_PRODUCTION(HttpStatus.BAD_REQUEST, "생산 중인 주문만 완료 처리할 수 있습니다.", 40007),
     ORDER_NOT_IN_PROGRESS(HttpStatus.BAD_REQUEST, "진행 중인 주문만 완료 처리할 수 있습니다.", 40014),
+    DEAD_LETTER_ALREADY_REPLAYED(HttpStatus.BAD_REQUEST, "이미 재처리된 이벤트입니다.", 40015),
+    PROJECTION_REBUILD_IN_PROGRESS(HttpStatus.BAD_REQUEST, "이미 재구축이 진행 중입니다.", 40016),
     PART_ORDER_NOT_FOUND(HttpStatus.BAD_REQUEST, "해당 부품 주문을 찾을 수 없습니다.", 40008),
     INVALID_FACTORY_FOR_PART_ORDER(HttpStatus.BAD_REQUEST, "해당 공장의 부품 주문이 아닙니다.", 40009),
     CANNOT_CANCEL_PROCESSED_ORDER(HttpStatus.BAD_REQUEST, "이미 처리 중인 주문은 취소할 수 없습니다.", 40010),
@@ -58,6 +60,7 @@ public enum ErrorStatus {
     PART_NOT_FOUND(HttpStatus.NOT_FOUND, "부품을 찾을 수 없습니다.", 40406),
     BOM_NOT_FOUND(HttpStatus.NOT_FOUND, "BOM을 찾을 수 없습니다.", 40407),
     MPS_NOT_FOUND(HttpStatus.NOT_FOUND, "MPS를 찾을 수 없습니다.", 40408),
+    DEAD_LETTER_NOT_FOUND(HttpStatus.NOT_FOUND, "실패 이벤트를 찾을 수 없습니다.", 40409),
 
 
 
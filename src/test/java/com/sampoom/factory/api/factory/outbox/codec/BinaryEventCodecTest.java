@@ -0,0 +1,76 @@
+package com.sampoom.factory.api.factory.outbox.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sampoom.factory.api.factory.event.FactoryEvent;
+import com.sampoom.factory.api.material.event.MaterialStockChangedEvent;
+import com.sampoom.factory.api.part.event.PartOrderDeltaEvent;
+import com.sampoom.factory.api.part.event.PartOrderEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryEventCodecTest {
+
+    private final BinaryEventCodec codec = new BinaryEventCodec();
+
+    @Test
+    @DisplayName("부품 주문 스냅샷 이벤트는 인코딩 후 디코딩하면 원본과 같고 JSON보다 작다")
+    void partOrderEvent_RoundTrip() throws Exception {
+        // Given
+        PartOrderEvent event = new PartOrderEvent(
+                UUID.randomUUID().toString(), "PartOrderCreated", 3L, "2025-01-01T09:00:00+09:00",
+                new PartOrderEvent.Payload(10L, "PO-20250101-001", 1L, "서울 공장", 7L, "중앙 창고",
+                        "IN_PROGRESS", "2025-01-10T00:00", null, 42.5, "HIGH", "SUFFICIENT",
+                        List.of(new PartOrderEvent.PartOrderItemPayload(100L, "브레이크 패드", "BP-001", 5L),
+                                new PartOrderEvent.PartOrderItemPayload(101L, "오일 필터", "OF-002", -1L)),
+                        false));
+
+        // When
+        byte[] encoded = codec.encode(event);
+
+        // Then
+        assertThat(codec.decode(encoded)).isEqualTo(event);
+        assertThat(encoded.length).isLessThan(new ObjectMapper().writeValueAsBytes(event).length);
+    }
+
+    @Test
+    @DisplayName("delta 이벤트와 공장 이벤트도 null 필드를 유지한 채 복원된다")
+    void deltaAndFactoryEvent_RoundTrip() throws Exception {
+        // Given
+        PartOrderDeltaEvent delta = new PartOrderDeltaEvent(
+                UUID.randomUUID().toString(), "MpsStatusChanged", 21L, "2025-01-01T09:00:00+09:00",
+                PartOrderDeltaEvent.ENCODING,
+                new PartOrderDeltaEvent.StatusDelta(null, "MPS-001", "COMPLETED", null, 100.0, null, null));
+        FactoryEvent factory = new FactoryEvent(
+                UUID.randomUUID().toString(), "FactoryUpdated", 1L, "2025-01-01T09:00:00+09:00",
+                new FactoryEvent.Payload(1L, "서울 공장", null, "ACTIVE", null));
+
+        // When & Then
+        assertThat(codec.decode(codec.encode(delta))).isEqualTo(delta);
+        assertThat(codec.decode(codec.encode(factory))).isEqualTo(factory);
+    }
+
+    @Test
+    @DisplayName("자재 재고 변경 이벤트도 인코딩 후 디코딩하면 원본과 같다")
+    void materialStockChangedEvent_RoundTrip() throws Exception {
+        // Given
+        MaterialStockChangedEvent event = new MaterialStockChangedEvent(
+                UUID.randomUUID().toString(), MaterialStockChangedEvent.EVENT_TYPE, 1735689600000L, "2025-01-01T09:00:00+09:00",
+                new MaterialStockChangedEvent.Payload(1L, 200L, 37.5));
+
+        // When & Then
+        assertThat(codec.decode(codec.encode(event))).isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("스키마가 없는 타입은 인코딩할 수 없다")
+    void unsupportedType_Throws() {
+        assertThatThrownBy(() -> codec.encode("plain string"))
+                .isInstanceOf(java.io.IOException.class);
+    }
+}
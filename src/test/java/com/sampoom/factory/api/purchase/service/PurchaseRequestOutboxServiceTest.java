@@ -0,0 +1,33 @@
+package com.sampoom.factory.api.purchase.service;
+
+import com.sampoom.factory.api.factory.outbox.OutboxStatus;
+import com.sampoom.factory.api.part.entity.PurchaseDeliveryStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PurchaseRequestOutboxServiceTest {
+
+    @Test
+    @DisplayName("주문의 구매요청이 모두 전달되어야 DELIVERED가 된다")
+    void deliveryStatusOf_AllDelivered() {
+        // When / Then
+        assertThat(PurchaseRequestOutboxService.deliveryStatusOf(List.of(OutboxStatus.PUBLISHED, OutboxStatus.PUBLISHED)))
+                .isEqualTo(PurchaseDeliveryStatus.DELIVERED);
+        assertThat(PurchaseRequestOutboxService.deliveryStatusOf(List.of(OutboxStatus.PUBLISHED, OutboxStatus.READY)))
+                .isEqualTo(PurchaseDeliveryStatus.PENDING);
+    }
+
+    @Test
+    @DisplayName("재시도 대기가 있으면 RETRYING, 하나라도 포기되면 FAILED가 우선한다")
+    void deliveryStatusOf_RetryingAndFailed() {
+        // When / Then
+        assertThat(PurchaseRequestOutboxService.deliveryStatusOf(List.of(OutboxStatus.PUBLISHED, OutboxStatus.FAILED)))
+                .isEqualTo(PurchaseDeliveryStatus.RETRYING);
+        assertThat(PurchaseRequestOutboxService.deliveryStatusOf(List.of(OutboxStatus.FAILED, OutboxStatus.DEAD)))
+                .isEqualTo(PurchaseDeliveryStatus.FAILED);
+    }
+}
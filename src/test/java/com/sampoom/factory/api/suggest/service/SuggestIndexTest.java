@@ -0,0 +1,91 @@
+package com.sampoom.factory.api.suggest.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestIndexTest {
+
+    private static SuggestIndex.Entry part(long id, String code, String name) {
+        return new SuggestIndex.Entry(SuggestType.PART, id, code, name);
+    }
+
+    private static SuggestIndex.Entry material(long id, String code, String name) {
+        return new SuggestIndex.Entry(SuggestType.MATERIAL, id, code, name);
+    }
+
+    private static List<Long> ids(List<SuggestIndex.Match> matches) {
+        return matches.stream().map(m -> m.entry().id()).toList();
+    }
+
+    @Test
+    @DisplayName("코드 prefix와 이름 단어 prefix로 찾고, 완전 일치를 가장 앞에 둔다")
+    void search_PrefixAndExact() {
+        // Given
+        SuggestIndex index = new SuggestIndex();
+        index.put(part(1L, "PT-100", "브레이크 패드"));
+        index.put(part(2L, "PT-1001", "브레이크 디스크"));
+        index.put(part(3L, "EN-200", "엔진 오일 필터"));
+
+        // When
+        List<SuggestIndex.Match> byCode = index.search("pt-100", null, 10);
+        List<SuggestIndex.Match> byWord = index.search("오일", null, 10);
+
+        // Then
+        assertThat(ids(byCode)).containsExactly(1L, 2L);
+        assertThat(byCode.get(0).rank()).isZero();
+        assertThat(ids(byWord)).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("붙여 쓴 한글 이름도 중간 일치로 찾는다")
+    void search_KoreanInfix() {
+        // Given
+        SuggestIndex index = new SuggestIndex();
+        index.put(material(10L, "MT-1", "육각볼트"));
+        index.put(material(11L, "MT-2", "볼트너트세트"));
+        index.put(material(12L, "MT-3", "와셔"));
+
+        // When
+        List<SuggestIndex.Match> matches = index.search("볼트", SuggestType.MATERIAL, 10);
+
+        // Then: prefix 일치(볼트너트세트)가 중간 일치(육각볼트)보다 앞선다
+        assertThat(ids(matches)).containsExactly(11L, 10L);
+    }
+
+    @Test
+    @DisplayName("한글 초성으로 찾는다")
+    void search_Choseong() {
+        // Given
+        SuggestIndex index = new SuggestIndex();
+        index.put(part(1L, "PT-1", "브레이크 패드"));
+        index.put(part(2L, "PT-2", "배터리"));
+
+        // When
+        List<SuggestIndex.Match> matches = index.search("ㅂㄹㅇ", null, 10);
+
+        // Then
+        assertThat(ids(matches)).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("이름 변경과 삭제가 즉시 검색 결과에 반영된다")
+    void putAndRemove_UpdateIndex() {
+        // Given
+        SuggestIndex index = new SuggestIndex();
+        index.put(part(1L, "PT-1", "브레이크 패드"));
+        index.put(material(1L, "MT-1", "브레이크 오일"));
+
+        // When
+        index.put(part(1L, "PT-1", "클러치 디스크"));
+        index.remove(SuggestType.MATERIAL, 1L);
+
+        // Then
+        assertThat(index.search("브레이크", null, 10)).isEmpty();
+        assertThat(ids(index.search("클러치", SuggestType.PART, 10))).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,43 @@
+package com.sampoom.factory.common.dedup;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    @DisplayName("넣은 키는 항상 포함된 것으로 판단한다")
+    void mightContain_NoFalseNegatives() {
+        // Given
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("order-" + i + ":" + (i % 50));
+        }
+
+        // When & Then
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("order-" + i + ":" + (i % 50))).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("넣지 않은 키의 오탐률은 설정값 근처에 머문다")
+    void mightContain_FalsePositiveRateWithinBound() {
+        // Given
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(i + ":" + i);
+        }
+
+        // When
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("absent-" + i)) falsePositives++;
+        }
+
+        // Then
+        assertThat(falsePositives / 100_000.0).isLessThan(0.03);
+    }
+}
@@ -0,0 +1,83 @@
+package com.sampoom.factory.common.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeyOrderedRecordProcessorTest {
+
+    private final KeyOrderedRecordProcessor processor = new KeyOrderedRecordProcessor(true, 4);
+
+    @AfterEach
+    void tearDown() {
+        processor.shutdown();
+    }
+
+    @Test
+    @DisplayName("같은 키의 레코드는 병렬 처리 중에도 오프셋 순서대로 처리된다")
+    void process_KeepsOrderPerKey() {
+        // Given
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            records.add(new ConsumerRecord<>("order-to-factory-events", 0, i, "order-" + (i % 3), "v" + i));
+        }
+        Map<String, List<Long>> seen = new ConcurrentHashMap<>();
+
+        // When
+        processor.process(records, r -> seen.computeIfAbsent(r.key(), k -> Collections.synchronizedList(new ArrayList<>()))
+                .add(r.offset()));
+
+        // Then
+        assertThat(seen).hasSize(3);
+        seen.values().forEach(offsets -> assertThat(offsets).isSorted().hasSize(20));
+    }
+
+    @Test
+    @DisplayName("실패한 레코드 앞까지만 커밋되도록 가장 앞선 미완료 레코드 위치를 알리고, 같은 키의 뒤 레코드는 건너뛴다")
+    void process_FailureStopsAtFirstIncompleteRecord() {
+        // Given
+        List<ConsumerRecord<String, String>> records = List.of(
+                new ConsumerRecord<>("order-to-factory-events", 0, 10, "a", "ok"),
+                new ConsumerRecord<>("order-to-factory-events", 0, 11, "b", "fail"),
+                new ConsumerRecord<>("order-to-factory-events", 0, 12, "a", "ok"),
+                new ConsumerRecord<>("order-to-factory-events", 0, 13, "b", "ok"));
+        List<Long> processed = Collections.synchronizedList(new ArrayList<>());
+
+        // When & Then
+        assertThatThrownBy(() -> processor.process(records, r -> {
+            if ("fail".equals(r.value())) throw new IllegalStateException("boom");
+            processed.add(r.offset());
+        }))
+                .isInstanceOf(BatchListenerFailedException.class)
+                .satisfies(ex -> assertThat(((BatchListenerFailedException) ex).getIndex()).isEqualTo(1));
+
+        assertThat(processed).containsExactlyInAnyOrder(10L, 12L);
+    }
+
+    @Test
+    @DisplayName("커밋 가능 오프셋은 연속으로 완료된 구간 바로 뒤를 가리킨다")
+    void tracker_CommittableOffsetIsContiguous() {
+        PartitionOffsetTracker tracker = new PartitionOffsetTracker();
+        for (long offset = 5; offset <= 8; offset++) tracker.register(offset);
+
+        tracker.complete(5);
+        tracker.complete(7);
+        assertThat(tracker.committableOffset()).isEqualTo(6);
+
+        tracker.complete(6);
+        tracker.complete(8);
+        assertThat(tracker.committableOffset()).isEqualTo(9);
+        assertThat(tracker.isComplete()).isTrue();
+    }
+}